@@ -41,6 +41,12 @@ dependencies {
 
 kotlin {
     jvmToolchain(11)
+
+    compilerOptions {
+        // interface members with a body become Java default methods, DefaultImpls are kept
+        // for binary compatibility
+        freeCompilerArgs.add("-Xjvm-default=all-compatibility")
+    }
 }
 
 tasks.compileJava {
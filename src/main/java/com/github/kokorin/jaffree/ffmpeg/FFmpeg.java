@@ -36,13 +36,19 @@ package com.github.kokorin.jaffree.ffmpeg;
 import com.github.kokorin.jaffree.LogLevel;
 import com.github.kokorin.jaffree.StreamType;
 import com.github.kokorin.jaffree.net.NegotiatingTcpServer;
+import com.github.kokorin.jaffree.process.JaffreeStallException;
 import com.github.kokorin.jaffree.process.ProcessHelper;
 import io.v47.jaffree.ffmpeg.FFmpegProcessHandler;
+import io.v47.jaffree.ffmpeg.StallWatchdog;
+import io.v47.jaffree.process.BatchExecution;
+import io.v47.jaffree.process.BatchOptions;
+import io.v47.jaffree.process.LogCapturePolicy;
 import io.v47.jaffree.process.ProcessFuture;
 import io.v47.jaffree.process.ProcessListener;
 import io.v47.jaffree.process.ProcessRunner;
+import io.v47.jaffree.version.Capabilities;
+import io.v47.jaffree.version.CapabilityRegistry;
 import io.v47.jaffree.version.VersionInfo;
-import io.v47.jaffree.version.VersionInfoProcessHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -50,10 +56,12 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * {@link FFmpeg} provides an ability to start &amp; stop ffmpeg process and keep track of
@@ -65,6 +73,11 @@ public class FFmpeg {
     private final List<String> additionalArguments = new ArrayList<>();
     private boolean overwriteOutput;
     private ProcessListener processListener;
+    private String executionTag;
+    private int priority;
+    private LogCapturePolicy logCapturePolicy = LogCapturePolicy.DEFAULT;
+    private long stallTimeoutMillis;
+    private long stallGracePeriodMillis = DEFAULT_STALL_GRACE_PERIOD_MILLIS;
     private ProgressListener progressListener;
     private OutputListener outputListener;
     private String progress;
@@ -79,6 +92,8 @@ public class FFmpeg {
 
     private final Path executable;
 
+    private static final long DEFAULT_STALL_GRACE_PERIOD_MILLIS = 10_000;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(FFmpeg.class);
 
     /**
@@ -391,6 +406,24 @@ public class FFmpeg {
         return this;
     }
 
+    /**
+     * Sets how ffmpeg log output is captured and passed on to SLF4J.
+     * <p>
+     * Use it to limit the memory and log volume of executions that produce lots of log
+     * output, e.g. repeated decoding errors caused by a broken input.
+     *
+     * @param logCapturePolicy log capture policy
+     * @return this
+     */
+    public FFmpeg setLogCapturePolicy(final LogCapturePolicy logCapturePolicy) {
+        if (logCapturePolicy == null) {
+            throw new IllegalArgumentException("Log capture policy must be non null");
+        }
+
+        this.logCapturePolicy = logCapturePolicy;
+        return this;
+    }
+
     /**
      * Set context name to prepend all log messages.
      * <p>
@@ -416,19 +449,87 @@ public class FFmpeg {
         return this;
     }
 
+    /**
+     * Sets the tag used by {@link io.v47.jaffree.process.ExecutionGovernor} to apply
+     * per-tag concurrency limits.
+     *
+     * @param executionTag execution tag
+     * @return this
+     * @see io.v47.jaffree.process.ProcessConfig#setExecutionGovernor
+     */
+    public FFmpeg setExecutionTag(final String executionTag) {
+        this.executionTag = executionTag;
+        return this;
+    }
+
+    /**
+     * Enables stall detection.
+     * <p>
+     * If neither the output time nor the output size reported by ffmpeg advances for the
+     * specified time, ffmpeg is asked to quit and killed if it's still running after the
+     * grace period. The execution then fails with {@link JaffreeStallException}.
+     *
+     * @param stallTimeout time without progress after which ffmpeg is stopped, 0 to disable
+     * @param timeUnit     time unit of stall timeout
+     * @return this
+     * @see #setStallGracePeriod(long, TimeUnit)
+     */
+    public FFmpeg setStallTimeout(final long stallTimeout, final TimeUnit timeUnit) {
+        this.stallTimeoutMillis = timeUnit.toMillis(stallTimeout);
+        return this;
+    }
+
+    /**
+     * Sets how long a stalled ffmpeg may take to quit before it's killed. Default is
+     * 10 seconds.
+     *
+     * @param gracePeriod grace period
+     * @param timeUnit    time unit of grace period
+     * @return this
+     * @see #setStallTimeout(long, TimeUnit)
+     */
+    public FFmpeg setStallGracePeriod(final long gracePeriod, final TimeUnit timeUnit) {
+        this.stallGracePeriodMillis = timeUnit.toMillis(gracePeriod);
+        return this;
+    }
+
+    /**
+     * Sets the priority of this execution if it has to wait for
+     * {@link io.v47.jaffree.process.ExecutionGovernor} to start it. Executions with a higher
+     * priority are started first. Default is 0.
+     *
+     * @param priority execution priority
+     * @return this
+     */
+    public FFmpeg setPriority(final int priority) {
+        this.priority = priority;
+        return this;
+    }
+
     /**
      * Provides information about the actual FFmpeg version.
+     * <p>
+     * The version is cached by {@link CapabilityRegistry}, ffmpeg is only run if the binary
+     * is not known yet. The {@link ProcessListener} is only notified in that case, other
+     * settings of this instance like the execution tag or log capture policy don't apply.
      *
      * @return An object containing version information.
      */
     public VersionInfo version() {
-        return new ProcessRunner<>(executable,
-                List.of("-version"),
-                Collections.emptyList(),
-                new VersionInfoProcessHandler(),
-                processListener)
-                .executeAsync()
-                .get();
+        return CapabilityRegistry.versionInfo(executable, processListener);
+    }
+
+    /**
+     * Provides the encoders, decoders, filters, pixel formats and protocols supported by
+     * FFmpeg.
+     * <p>
+     * The capabilities are cached by {@link CapabilityRegistry}, ffmpeg is only run if the
+     * binary is not known yet. The {@link ProcessListener} is only notified in that case.
+     *
+     * @return An object containing the supported components.
+     */
+    public Capabilities capabilities() {
+        return CapabilityRegistry.capabilities(executable, processListener);
     }
 
     /**
@@ -464,19 +565,51 @@ public class FFmpeg {
             }
         });
 
-        if (progressListener != null) {
-            var progressHelper = createProgressHelper(progressListener);
+        StallWatchdog stallWatchdog = null;
+        if (stallTimeoutMillis > 0) {
+            stallWatchdog = new StallWatchdog(stallTimeoutMillis, stallGracePeriodMillis,
+                    progressListener, processListener);
+        }
+
+        ProgressListener actualProgressListener =
+                stallWatchdog != null ? stallWatchdog : progressListener;
+        if (actualProgressListener != null) {
+            var progressHelper = createProgressHelper(actualProgressListener);
             helpers.add(progressHelper);
         }
 
         return new ProcessRunner<>(executable,
                 buildArguments(),
                 helpers,
-                new FFmpegProcessHandler(outputListener),
-                processListener)
+                new FFmpegProcessHandler(outputListener, stallWatchdog, logCapturePolicy),
+                stallWatchdog != null ? stallWatchdog : processListener,
+                executionTag,
+                priority)
                 .executeAsync();
     }
 
+    /**
+     * Starts asynchronous execution of multiple ffmpeg jobs.
+     * <p>
+     * At most {@link BatchOptions#getParallelism()} jobs run at the same time. Iterate over the
+     * returned batch to receive results in the order the jobs finish, or call
+     * {@link BatchExecution#await()} to wait for all of them and get throughput and latency
+     * statistics.
+     *
+     * @param jobs    ffmpeg jobs to execute
+     * @param options batch options
+     * @return running batch
+     */
+    public static BatchExecution<FFmpegResult> executeAll(final Collection<FFmpeg> jobs,
+                                                         final BatchOptions options) {
+        var suppliers = new ArrayList<Supplier<ProcessFuture<FFmpegResult>>>(jobs.size());
+        for (FFmpeg job : jobs) {
+            suppliers.add(job::executeAsync);
+        }
+
+        return BatchExecution.start(suppliers, options);
+    }
+
     private ProcessHelper createProgressHelper(final ProgressListener listener) {
         NegotiatingTcpServer result = null;
         String progressReportUrl = null;
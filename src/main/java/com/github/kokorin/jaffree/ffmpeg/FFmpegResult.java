@@ -17,6 +17,8 @@
 
 package com.github.kokorin.jaffree.ffmpeg;
 
+import io.v47.jaffree.process.ResourceUsage;
+
 /**
  * {@link FFmpegResult} contains information about ffmpeg encoding result.
  */
@@ -27,6 +29,7 @@ public class FFmpegResult {
     private final Long otherStreamsSize;
     private final Long globalHeadersSize;
     private final Double muxingOverheadRatio;
+    private final ResourceUsage resourceUsage;
 
     /**
      * Creates {@link FFmpegResult}.
@@ -41,12 +44,32 @@ public class FFmpegResult {
     public FFmpegResult(final Long videoSize, final Long audioSize, final Long subtitleSize,
                         final Long otherStreamsSize, final Long globalHeadersSize,
                         final Double muxingOverheadRatio) {
+        this(videoSize, audioSize, subtitleSize, otherStreamsSize, globalHeadersSize,
+                muxingOverheadRatio, null);
+    }
+
+    /**
+     * Creates {@link FFmpegResult}.
+     *
+     * @param videoSize           output video stream size in bytes
+     * @param audioSize           output audio stream size in bytes
+     * @param subtitleSize        output subtitles stream size in bytes
+     * @param otherStreamsSize    output other streams size in bytes
+     * @param globalHeadersSize   output global headers size in bytes
+     * @param muxingOverheadRatio ratio of extra information size to output size
+     * @param resourceUsage       resources used by ffmpeg, may be null
+     */
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    public FFmpegResult(final Long videoSize, final Long audioSize, final Long subtitleSize,
+                        final Long otherStreamsSize, final Long globalHeadersSize,
+                        final Double muxingOverheadRatio, final ResourceUsage resourceUsage) {
         this.videoSize = videoSize;
         this.audioSize = audioSize;
         this.subtitleSize = subtitleSize;
         this.otherStreamsSize = otherStreamsSize;
         this.globalHeadersSize = globalHeadersSize;
         this.muxingOverheadRatio = muxingOverheadRatio;
+        this.resourceUsage = resourceUsage;
     }
 
     /**
@@ -102,4 +125,14 @@ public class FFmpegResult {
     public Double getMuxingOverheadRatio() {
         return muxingOverheadRatio;
     }
+
+    /**
+     * Returns the resources used by ffmpeg, as sampled last before it exited.
+     *
+     * @return resource usage or null if sampling is disabled
+     * @see io.v47.jaffree.process.ProcessConfig#setResourceSamplingIntervalMillis
+     */
+    public ResourceUsage getResourceUsage() {
+        return resourceUsage;
+    }
 }
@@ -18,6 +18,10 @@
 package com.github.kokorin.jaffree.ffmpeg;
 
 import java.awt.image.BufferedImage;
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 
 /**
  * Represents video/audio data to be encoded or has been decoded.
@@ -34,6 +38,7 @@ public class Frame {
     private final long pts;
     private final BufferedImage image;
     private final int[] samples;
+    private final Buffer sampleBuffer;
 
     /**
      * Creates {@link Frame}.
@@ -59,6 +64,26 @@ public class Frame {
         this.pts = pts;
         this.image = image;
         this.samples = samples;
+        this.sampleBuffer = null;
+    }
+
+    /**
+     * Creates audio {@link Frame} with samples in a buffer.
+     *
+     * @param streamId     streamId
+     * @param pts          pts in {@link Stream} timebase
+     * @param sampleBuffer audio samples
+     */
+    private Frame(final int streamId, final long pts, final Buffer sampleBuffer) {
+        if (sampleBuffer == null) {
+            throw new IllegalArgumentException("Samples must be non null");
+        }
+
+        this.streamId = streamId;
+        this.pts = pts;
+        this.image = null;
+        this.samples = null;
+        this.sampleBuffer = sampleBuffer;
     }
 
     /**
@@ -90,14 +115,60 @@ public class Frame {
     }
 
     /**
-     * Returns audio samples (or null if current frame isn't audio frame).
+     * Returns audio samples (or null if current frame isn't audio frame or its samples
+     * are held in a buffer).
      *
      * @return audio samples in PCM S32BE format
+     * @see SampleFormat#S32BE
      */
     public int[] getSamples() {
         return samples;
     }
 
+    /**
+     * Returns 32-bit integer audio samples (or null if current frame doesn't contain them).
+     * <p>
+     * Samples returned by {@link #getSamples()} are wrapped, so every frame
+     * in {@link SampleFormat#S32BE} or {@link SampleFormat#S32LE} format has int samples.
+     *
+     * @return audio samples
+     */
+    public IntBuffer getIntSamples() {
+        if (samples != null) {
+            return IntBuffer.wrap(samples);
+        }
+        if (sampleBuffer instanceof IntBuffer) {
+            return ((IntBuffer) sampleBuffer).duplicate();
+        }
+        return null;
+    }
+
+    /**
+     * Returns 16-bit integer audio samples (or null if current frame doesn't contain them).
+     *
+     * @return audio samples
+     * @see SampleFormat#S16LE
+     */
+    public ShortBuffer getShortSamples() {
+        if (sampleBuffer instanceof ShortBuffer) {
+            return ((ShortBuffer) sampleBuffer).duplicate();
+        }
+        return null;
+    }
+
+    /**
+     * Returns floating point audio samples (or null if current frame doesn't contain them).
+     *
+     * @return audio samples
+     * @see SampleFormat#F32LE
+     */
+    public FloatBuffer getFloatSamples() {
+        if (sampleBuffer instanceof FloatBuffer) {
+            return ((FloatBuffer) sampleBuffer).duplicate();
+        }
+        return null;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -107,7 +178,7 @@ public class Frame {
                 + "streamId=" + streamId
                 + ", pts=" + pts
                 + ", image?=" + (image != null)
-                + ", samples?=" + (samples != null)
+                + ", samples?=" + (samples != null || sampleBuffer != null)
                 + '}';
     }
 
@@ -138,4 +209,46 @@ public class Frame {
         return new Frame(streamId, pts, null, samples);
     }
 
+    /**
+     * Creates audio {@link Frame} with 32-bit integer samples, image is set to null.
+     *
+     * @param streamId streamId
+     * @param pts      pts in {@link Stream} timebase
+     * @param samples  audio samples from position to limit
+     * @return audio {@link Frame}
+     * @see SampleFormat#S32LE
+     */
+    public static Frame createAudioFrame(final int streamId, final long pts,
+                                         final IntBuffer samples) {
+        return new Frame(streamId, pts, samples);
+    }
+
+    /**
+     * Creates audio {@link Frame} with 16-bit integer samples, image is set to null.
+     *
+     * @param streamId streamId
+     * @param pts      pts in {@link Stream} timebase
+     * @param samples  audio samples from position to limit
+     * @return audio {@link Frame}
+     * @see SampleFormat#S16LE
+     */
+    public static Frame createAudioFrame(final int streamId, final long pts,
+                                         final ShortBuffer samples) {
+        return new Frame(streamId, pts, samples);
+    }
+
+    /**
+     * Creates audio {@link Frame} with floating point samples, image is set to null.
+     *
+     * @param streamId streamId
+     * @param pts      pts in {@link Stream} timebase
+     * @param samples  audio samples from position to limit
+     * @return audio {@link Frame}
+     * @see SampleFormat#F32LE
+     */
+    public static Frame createAudioFrame(final int streamId, final long pts,
+                                         final FloatBuffer samples) {
+        return new Frame(streamId, pts, samples);
+    }
+
 }
@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.Socket;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Allows to supply ffmpeg with audio &amp; video frames constructed in Java.
@@ -153,8 +154,31 @@ public class FrameInput extends TcpInput<FrameInput> implements Input {
     public static FrameInput withProducer(final FrameProducer producer,
                                           final ImageFormat imageFormat,
                                           final long frameOrderingBufferMillis) {
+        return withProducer(producer, imageFormat, SampleFormat.S32BE,
+                frameOrderingBufferMillis);
+    }
+
+    /**
+     * Creates {@link FrameInput} with specified frame producer, image and sample formats and
+     * frame ordering buffer.
+     * <p>
+     * Audio frames must contain samples of the type matching sample format,
+     * see {@link SampleFormat}.
+     *
+     * @param producer                  frame producer
+     * @param imageFormat               video frame image format
+     * @param sampleFormat              audio frame sample format
+     * @param frameOrderingBufferMillis frame ordering buffer milliseconds
+     * @return FrameInput
+     * @see ImageFormats
+     */
+    public static FrameInput withProducer(final FrameProducer producer,
+                                          final ImageFormat imageFormat,
+                                          final SampleFormat sampleFormat,
+                                          final long frameOrderingBufferMillis) {
         return new FrameInput(
-                new NutFrameWriter(producer, imageFormat, frameOrderingBufferMillis),
+                new NutFrameWriter(producer, imageFormat, sampleFormat,
+                        frameOrderingBufferMillis),
                 "nut"
         );
     }
@@ -170,13 +194,15 @@ public class FrameInput extends TcpInput<FrameInput> implements Input {
     protected static class FrameInputNegotiator implements TcpNegotiator {
         private final FrameWriter frameWriter;
 
-        private boolean frameRateSet;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private volatile boolean frameRateSet;
 
         public FrameInputNegotiator(final FrameWriter frameWriter) {
             this.frameWriter = frameWriter;
         }
 
-        private synchronized void setFrameRateSet(final boolean frameRateSet) {
+        private void setFrameRateSet(final boolean frameRateSet) {
             this.frameRateSet = frameRateSet;
         }
 
@@ -187,15 +213,18 @@ public class FrameInput extends TcpInput<FrameInput> implements Input {
          * @throws IOException if any IO error
          */
         @Override
-        public synchronized void negotiate(final Socket socket) throws IOException {
+        public void negotiate(final Socket socket) throws IOException {
             if (!frameRateSet) {
                 LOGGER.warn("It's strongly recommended to specify video frame rate, "
                         + "otherwise video encoding may be slower (by 20-50 times) "
                         + "and may produce corrupted video");
             }
 
+            lock.lock();
             try (OutputStream output = socket.getOutputStream()) {
                 frameWriter.write(output);
+            } finally {
+                lock.unlock();
             }
         }
     }
@@ -20,10 +20,13 @@ package com.github.kokorin.jaffree.ffmpeg;
 import com.github.kokorin.jaffree.JaffreeException;
 import com.github.kokorin.jaffree.StreamType;
 import com.github.kokorin.jaffree.net.TcpNegotiator;
+import com.github.kokorin.jaffree.nut.FrameBufferPool;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.Socket;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
 /**
  * Allows to consume in Java audio &amp; video frames produced by ffmpeg.
@@ -180,11 +183,169 @@ public class FrameOutput extends TcpOutput<FrameOutput> implements Output {
         return withConsumer(consumer, ImageFormats.ABGR);
     }
 
-    protected static FrameOutput withConsumer(final FrameConsumer consumer,
+    /**
+     * Creates {@link FrameOutput} which delivers frames of every stream to its own consumer on
+     * a dedicated thread, using queues of {@link NutFrameReader#DEFAULT_QUEUE_DEPTH} frames
+     * and {@link NutFrameReader.Backpressure#BLOCK}.
+     *
+     * @param consumerFactory creates frame consumer for a stream
+     * @return FrameOutput
+     * @see NutFrameReader#NutFrameReader(Function, ImageFormat, int, NutFrameReader.Backpressure)
+     */
+    public static FrameOutput withStreamConsumers(
+            final Function<Stream, FrameConsumer> consumerFactory) {
+        return withStreamConsumers(consumerFactory, NutFrameReader.DEFAULT_QUEUE_DEPTH,
+                NutFrameReader.Backpressure.BLOCK);
+    }
+
+    /**
+     * Creates {@link FrameOutput} which delivers frames of every stream to its own consumer on
+     * a dedicated thread.
+     *
+     * @param consumerFactory creates frame consumer for a stream
+     * @param queueDepth      capacity of every stream's queue
+     * @param backpressure    what to do if a stream's queue is full
+     * @return FrameOutput
+     * @see NutFrameReader#NutFrameReader(Function, ImageFormat, int, NutFrameReader.Backpressure)
+     */
+    public static FrameOutput withStreamConsumers(
+            final Function<Stream, FrameConsumer> consumerFactory, final int queueDepth,
+            final NutFrameReader.Backpressure backpressure) {
+        return withStreamConsumers(consumerFactory, ImageFormats.BGR24, SampleFormat.S32BE,
+                queueDepth, backpressure);
+    }
+
+    /**
+     * Creates {@link FrameOutput} which delivers frames of every stream to its own consumer on
+     * a dedicated thread with specified image and sample formats, using queues of
+     * {@link NutFrameReader#DEFAULT_QUEUE_DEPTH} frames and
+     * {@link NutFrameReader.Backpressure#BLOCK}.
+     *
+     * @param consumerFactory creates frame consumer for a stream
+     * @param imageFormat     video frame image format
+     * @param sampleFormat    audio frame sample format
+     * @return FrameOutput
+     * @see ImageFormats
+     */
+    public static FrameOutput withStreamConsumers(
+            final Function<Stream, FrameConsumer> consumerFactory, final ImageFormat imageFormat,
+            final SampleFormat sampleFormat) {
+        return withStreamConsumers(consumerFactory, imageFormat, sampleFormat,
+                NutFrameReader.DEFAULT_QUEUE_DEPTH, NutFrameReader.Backpressure.BLOCK);
+    }
+
+    /**
+     * Creates {@link FrameOutput} which delivers frames of every stream to its own consumer on
+     * a dedicated thread with specified image and sample formats.
+     *
+     * @param consumerFactory creates frame consumer for a stream
+     * @param imageFormat     video frame image format
+     * @param sampleFormat    audio frame sample format
+     * @param queueDepth      capacity of every stream's queue
+     * @param backpressure    what to do if a stream's queue is full
+     * @return FrameOutput
+     * @see NutFrameReader
+     * @see ImageFormats
+     */
+    public static FrameOutput withStreamConsumers(
+            final Function<Stream, FrameConsumer> consumerFactory, final ImageFormat imageFormat,
+            final SampleFormat sampleFormat, final int queueDepth,
+            final NutFrameReader.Backpressure backpressure) {
+        return new FrameOutput(
+                new NutFrameReader(consumerFactory, imageFormat, sampleFormat, queueDepth,
+                        backpressure),
+                "nut", "rawvideo", imageFormat.getPixelFormat(), sampleFormat.getCodec()
+        );
+    }
+
+    /**
+     * Creates {@link FrameOutput} with specified image format.
+     * <p>
+     * Planar formats (e.g. {@link ImageFormats#YUV420P}) move less data and skip conversion
+     * to RGB, see {@link ImageFormats} for how their images are laid out.
+     *
+     * @param consumer    frame consumer
+     * @param imageFormat video frame image format
+     * @return FrameOutput
+     * @see ImageFormats
+     */
+    public static FrameOutput withConsumer(final FrameConsumer consumer,
+                                           final ImageFormat imageFormat) {
+        return withConsumer(consumer, imageFormat, SampleFormat.S32BE);
+    }
+
+    /**
+     * Creates {@link FrameOutput} with specified image and sample formats.
+     * <p>
+     * Audio samples in formats other than {@link SampleFormat#S32BE} are delivered as buffer
+     * views of frame data, see {@link SampleFormat}.
+     *
+     * @param consumer     frame consumer
+     * @param imageFormat  video frame image format
+     * @param sampleFormat audio frame sample format
+     * @return FrameOutput
+     * @see ImageFormats
+     */
+    public static FrameOutput withConsumer(final FrameConsumer consumer,
+                                           final ImageFormat imageFormat,
+                                           final SampleFormat sampleFormat) {
+        return new FrameOutput(
+                new NutFrameReader(consumer, imageFormat, sampleFormat),
+                "nut", "rawvideo", imageFormat.getPixelFormat(), sampleFormat.getCodec()
+        );
+    }
+
+    /**
+     * Creates {@link FrameOutput} which passes frames to {@link RawFrameConsumer} without
+     * conversion, using heap buffers from a new {@link FrameBufferPool}.
+     *
+     * @param consumer    raw frame consumer
+     * @param imageFormat video frame image format
+     * @return FrameOutput
+     * @see ImageFormats
+     */
+    public static FrameOutput withRawConsumer(final RawFrameConsumer consumer,
                                               final ImageFormat imageFormat) {
+        return withRawConsumer(consumer, imageFormat, new FrameBufferPool());
+    }
+
+    /**
+     * Creates {@link FrameOutput} which passes frames to {@link RawFrameConsumer} without
+     * conversion.
+     * <p>
+     * Use {@link FrameBufferPool#FrameBufferPool(int, boolean)} to get frames in direct
+     * (off-heap) buffers.
+     *
+     * @param consumer    raw frame consumer
+     * @param imageFormat video frame image format
+     * @param pool        frame buffer pool
+     * @return FrameOutput
+     * @see ImageFormats
+     */
+    public static FrameOutput withRawConsumer(final RawFrameConsumer consumer,
+                                              final ImageFormat imageFormat,
+                                              final FrameBufferPool pool) {
+        return withRawConsumer(consumer, imageFormat, SampleFormat.S32BE, pool);
+    }
+
+    /**
+     * Creates {@link FrameOutput} which passes frames to {@link RawFrameConsumer} without
+     * conversion, with audio samples in specified format.
+     *
+     * @param consumer     raw frame consumer
+     * @param imageFormat  video frame image format
+     * @param sampleFormat audio frame sample format
+     * @param pool         frame buffer pool
+     * @return FrameOutput
+     * @see ImageFormats
+     */
+    public static FrameOutput withRawConsumer(final RawFrameConsumer consumer,
+                                              final ImageFormat imageFormat,
+                                              final SampleFormat sampleFormat,
+                                              final FrameBufferPool pool) {
         return new FrameOutput(
-                new NutFrameReader(consumer, imageFormat),
-                "nut", "rawvideo", imageFormat.getPixelFormat(), "pcm_s32be"
+                new NutFrameReader(consumer, imageFormat, sampleFormat, pool),
+                "nut", "rawvideo", imageFormat.getPixelFormat(), sampleFormat.getCodec()
         );
     }
 
@@ -199,6 +360,8 @@ public class FrameOutput extends TcpOutput<FrameOutput> implements Output {
     protected static class FrameOutputNegotiator implements TcpNegotiator {
         private final FrameReader frameReader;
 
+        private final ReentrantLock lock = new ReentrantLock();
+
         public FrameOutputNegotiator(final FrameReader frameReader) {
             this.frameReader = frameReader;
         }
@@ -210,9 +373,12 @@ public class FrameOutput extends TcpOutput<FrameOutput> implements Output {
          * @throws IOException if any IO error
          */
         @Override
-        public synchronized void negotiate(final Socket socket) throws IOException {
+        public void negotiate(final Socket socket) throws IOException {
+            lock.lock();
             try (InputStream inputStream = socket.getInputStream()) {
                 frameReader.read(inputStream);
+            } finally {
+                lock.unlock();
             }
         }
     }
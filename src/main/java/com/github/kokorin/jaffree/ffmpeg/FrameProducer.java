@@ -39,8 +39,9 @@ public interface FrameProducer {
      * When there is no more frame, method should return {@code}null{@code} value.
      * <p>
      * Method must return video frames with {@link java.awt.image.BufferedImage BufferedImage}s
-     * either in {@link java.awt.image.BufferedImage#TYPE_4BYTE_ABGR TYPE_4BYTE_ABGR},
-     * or in {@link java.awt.image.BufferedImage#TYPE_3BYTE_BGR TYPE_3BYTE_BGR} formats
+     * of the type expected by the {@link ImageFormat} of {@link FrameInput}, e.g.
+     * {@link java.awt.image.BufferedImage#TYPE_4BYTE_ABGR TYPE_4BYTE_ABGR},
+     * or {@link java.awt.image.BufferedImage#TYPE_3BYTE_BGR TYPE_3BYTE_BGR}
      *
      * @return Frame
      */
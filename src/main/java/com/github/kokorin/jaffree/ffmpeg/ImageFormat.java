@@ -23,6 +23,9 @@ import java.awt.image.BufferedImage;
  * Allows conversion of {@link BufferedImage} to byte array and vice versa.
  * <p>
  * Intended for adding custom image formats for programmatic video production and consumption.
+ * <p>
+ * Raw frame data consists of one (packed formats) or several (planar formats)
+ * {@link Plane planes} stored one after another without padding.
  *
  * @see FrameInput
  * @see FrameOutput
@@ -35,10 +38,42 @@ public interface ImageFormat {
     String getPixelFormat();
 
     /**
+     * Returns bytes per pixel, for planar formats bytes per sample of the first plane.
+     *
      * @return bytes per pixel
+     * @see #getFrameSize(int, int)
      */
     int getBytesPerPixel();
 
+    /**
+     * Returns layout of raw frame data of specified size.
+     * <p>
+     * Default implementation describes packed format: single plane of
+     * {@link #getBytesPerPixel()} bytes per pixel.
+     *
+     * @param width  image width
+     * @param height image height
+     * @return planes in the order they are stored
+     */
+    default Plane[] getPlanes(final int width, final int height) {
+        return new Plane[] {new Plane(0, width * getBytesPerPixel(), height)};
+    }
+
+    /**
+     * Returns size of raw frame data of specified size in bytes.
+     *
+     * @param width  image width
+     * @param height image height
+     * @return raw frame size
+     */
+    default int getFrameSize(final int width, final int height) {
+        int result = 0;
+        for (Plane plane : getPlanes(width, height)) {
+            result += plane.getSize();
+        }
+        return result;
+    }
+
     /**
      * Returns FOURCC (four character code).
      *
@@ -64,4 +99,66 @@ public interface ImageFormat {
      * @return raw data
      */
     byte[] toBytes(BufferedImage image);
+
+    /**
+     * Location of a single plane (e.g. luma or chroma) in raw frame data.
+     */
+    final class Plane {
+        private final int offset;
+        private final int stride;
+        private final int rows;
+
+        /**
+         * Creates {@link Plane}.
+         *
+         * @param offset offset of the plane in raw frame data
+         * @param stride bytes per row
+         * @param rows   number of rows
+         */
+        public Plane(final int offset, final int stride, final int rows) {
+            this.offset = offset;
+            this.stride = stride;
+            this.rows = rows;
+        }
+
+        /**
+         * @return offset of the plane in raw frame data
+         */
+        public int getOffset() {
+            return offset;
+        }
+
+        /**
+         * @return bytes per row
+         */
+        public int getStride() {
+            return stride;
+        }
+
+        /**
+         * @return number of rows
+         */
+        public int getRows() {
+            return rows;
+        }
+
+        /**
+         * @return plane size in bytes
+         */
+        public int getSize() {
+            return stride * rows;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String toString() {
+            return "Plane{"
+                    + "offset=" + offset
+                    + ", stride=" + stride
+                    + ", rows=" + rows
+                    + '}';
+        }
+    }
 }
@@ -25,12 +25,21 @@ import java.awt.image.BufferedImage;
 import java.awt.image.ComponentColorModel;
 import java.awt.image.DataBuffer;
 import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferUShort;
 import java.awt.image.Raster;
 import java.awt.image.WritableRaster;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 /**
  * Standard {@link ImageFormat ImageFormats} used by {@link FrameInput} and {@link FrameOutput}.
+ * <p>
+ * Planar YUV formats are not converted to RGB. Their images are
+ * {@link BufferedImage#TYPE_BYTE_GRAY TYPE_BYTE_GRAY} images wrapping raw frame data:
+ * {@code height} rows of luma followed by {@code height / 2} rows of chroma, so width and
+ * height must be even.
  */
+@SuppressWarnings("checkstyle:MagicNumber")
 public enum ImageFormats implements ImageFormat {
     /**
      * 3-byte format using 1 byte per each color component.
@@ -62,7 +71,106 @@ public enum ImageFormats implements ImageFormat {
                     Transparency.TRANSLUCENT, DataBuffer.TYPE_BYTE
             ),
             new int[] {3, 2, 1, 0}
-    );
+    ),
+    /**
+     * Planar YUV 4:2:0, 12 bits per pixel: Y plane followed by U and V planes, every chroma
+     * sample covers 2x2 pixels.
+     */
+    YUV420P("yuv420p", 1, new byte[] {'I', '4', '2', '0'}) {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Plane[] getPlanes(final int width, final int height) {
+            int chromaWidth = (width + 1) / 2;
+            int chromaHeight = (height + 1) / 2;
+            int lumaSize = width * height;
+            int chromaSize = chromaWidth * chromaHeight;
+            return new Plane[] {
+                    new Plane(0, width, height),
+                    new Plane(lumaSize, chromaWidth, chromaHeight),
+                    new Plane(lumaSize + chromaSize, chromaWidth, chromaHeight)
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public BufferedImage toImage(final byte[] data, final int width, final int height) {
+            return toTallGrayImage(data, width, height);
+        }
+    },
+    /**
+     * Semi-planar YUV 4:2:0, 12 bits per pixel: Y plane followed by a plane of interleaved
+     * U and V samples.
+     */
+    NV12("nv12", 1, new byte[] {'N', 'V', '1', '2'}) {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public Plane[] getPlanes(final int width, final int height) {
+            return new Plane[] {
+                    new Plane(0, width, height),
+                    new Plane(width * height, (width + 1) / 2 * 2, (height + 1) / 2)
+            };
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public BufferedImage toImage(final byte[] data, final int width, final int height) {
+            return toTallGrayImage(data, width, height);
+        }
+    },
+    /**
+     * 8 bits per pixel grayscale (luma only).
+     */
+    GRAY("gray", 1, new byte[] {'Y', '8', '0', '0'}) {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public BufferedImage toImage(final byte[] data, final int width, final int height) {
+            checkLength(data, width, height);
+            return grayImage(data, width, height);
+        }
+    },
+    /**
+     * 16 bits per pixel grayscale, little-endian.
+     * <p>
+     * Images are {@link BufferedImage#TYPE_USHORT_GRAY TYPE_USHORT_GRAY}, so samples are
+     * copied on conversion.
+     */
+    GRAY16LE("gray16le", 2, new byte[] {'Y', '1', 0, 16}, BufferedImage.TYPE_USHORT_GRAY) {
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public BufferedImage toImage(final byte[] data, final int width, final int height) {
+            checkLength(data, width, height);
+
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_USHORT_GRAY);
+            short[] samples = ((DataBufferUShort) image.getRaster().getDataBuffer()).getData();
+            ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(samples);
+            return image;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public byte[] toBytes(final BufferedImage image) {
+            checkType(image);
+
+            short[] samples = ((DataBufferUShort) image.getRaster().getDataBuffer()).getData();
+            byte[] result = new byte[samples.length * 2];
+            ByteBuffer.wrap(result).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().put(samples);
+            return result;
+        }
+    };
 
     private final String pixelFormat;
     private final int bytesPerPixel;
@@ -82,6 +190,15 @@ public enum ImageFormats implements ImageFormat {
         this.bOffs = bOffs;
     }
 
+    ImageFormats(final String pixelFormat, final int bytesPerPixel, final byte[] fourcc) {
+        this(pixelFormat, bytesPerPixel, fourcc, BufferedImage.TYPE_BYTE_GRAY);
+    }
+
+    ImageFormats(final String pixelFormat, final int bytesPerPixel, final byte[] fourcc,
+                 final int imageType) {
+        this(pixelFormat, bytesPerPixel, fourcc, imageType, null, null);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -111,11 +228,7 @@ public enum ImageFormats implements ImageFormat {
      */
     @Override
     public BufferedImage toImage(final byte[] data, final int width, final int height) {
-        int expectedLength = width * height * bytesPerPixel;
-        if (data.length != expectedLength) {
-            throw new JaffreeException(
-                    "Not enough bytes: " + data.length + ", expected " + expectedLength);
-        }
+        checkLength(data, width, height);
 
         DataBuffer buffer = new DataBufferByte(data, data.length);
         WritableRaster raster = Raster.createInterleavedRaster(
@@ -132,11 +245,50 @@ public enum ImageFormats implements ImageFormat {
      */
     @Override
     public byte[] toBytes(final BufferedImage image) {
+        checkType(image);
+
+        return ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+    }
+
+    void checkLength(final byte[] data, final int width, final int height) {
+        int expectedLength = getFrameSize(width, height);
+        if (data.length != expectedLength) {
+            throw new JaffreeException(
+                    "Not enough bytes: " + data.length + ", expected " + expectedLength);
+        }
+    }
+
+    void checkType(final BufferedImage image) {
         if (image.getType() != imageType) {
             throw new JaffreeException(
                     "Wrong image type: " + image.getType() + ", expected: " + imageType);
         }
+    }
 
-        return ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+    /**
+     * Wraps 4:2:0 frame data into gray image of {@code height * 3 / 2} rows without copying.
+     */
+    BufferedImage toTallGrayImage(final byte[] data, final int width, final int height) {
+        if (width % 2 != 0 || height % 2 != 0) {
+            throw new JaffreeException(
+                    "Width and height must be even: " + width + "x" + height);
+        }
+        checkLength(data, width, height);
+
+        return grayImage(data, width, height * 3 / 2);
+    }
+
+    static BufferedImage grayImage(final byte[] data, final int width, final int rows) {
+        ComponentColorModel colorModel = new ComponentColorModel(
+                ColorSpace.getInstance(ColorSpace.CS_GRAY),
+                new int[] {8}, false, false,
+                Transparency.OPAQUE, DataBuffer.TYPE_BYTE
+        );
+        WritableRaster raster = Raster.createInterleavedRaster(
+                new DataBufferByte(data, data.length), width, rows,
+                width, 1, new int[] {0}, null
+        );
+
+        return new BufferedImage(colorModel, raster, false, null);
     }
 }
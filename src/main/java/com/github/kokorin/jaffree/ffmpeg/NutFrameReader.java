@@ -18,6 +18,7 @@
 package com.github.kokorin.jaffree.ffmpeg;
 
 import com.github.kokorin.jaffree.Rational;
+import com.github.kokorin.jaffree.nut.FrameBufferPool;
 import com.github.kokorin.jaffree.nut.MainHeader;
 import com.github.kokorin.jaffree.nut.NutFrame;
 import com.github.kokorin.jaffree.nut.NutInputStream;
@@ -29,18 +30,31 @@ import org.slf4j.LoggerFactory;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
 
 /**
  * {@link NutFrameReader} reads InputStream in Nut format and passes parsed frames
  * to {@link FrameConsumer}.
  */
 public class NutFrameReader implements FrameOutput.FrameReader {
+    /**
+     * Default capacity of per-stream queues.
+     */
+    public static final int DEFAULT_QUEUE_DEPTH = 16;
+
     private final FrameConsumer frameConsumer;
     private final ImageFormat imageFormat;
+    private final SampleFormat sampleFormat;
+
+    private final RawFrameConsumer rawFrameConsumer;
+    private final FrameBufferPool pool;
+
+    private final Function<Stream, FrameConsumer> streamConsumerFactory;
+    private final int queueDepth;
+    private final Backpressure backpressure;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NutFrameReader.class);
 
@@ -51,8 +65,119 @@ public class NutFrameReader implements FrameOutput.FrameReader {
      * @param imageFormat image format
      */
     public NutFrameReader(final FrameConsumer frameConsumer, final ImageFormat imageFormat) {
+        this(frameConsumer, imageFormat, SampleFormat.S32BE);
+    }
+
+    /**
+     * Creates {@link NutFrameReader}.
+     *
+     * @param frameConsumer frame consumer
+     * @param imageFormat   image format
+     * @param sampleFormat  audio sample format
+     */
+    public NutFrameReader(final FrameConsumer frameConsumer, final ImageFormat imageFormat,
+                          final SampleFormat sampleFormat) {
         this.frameConsumer = frameConsumer;
         this.imageFormat = imageFormat;
+        this.sampleFormat = Objects.requireNonNull(sampleFormat,
+                "Sample format must be specified");
+        this.rawFrameConsumer = null;
+        this.pool = null;
+        this.streamConsumerFactory = null;
+        this.queueDepth = 0;
+        this.backpressure = null;
+    }
+
+    /**
+     * Creates {@link NutFrameReader} which delivers frames of every stream to its own
+     * {@link FrameConsumer} on a dedicated thread.
+     * <p>
+     * Frames are put to bounded per-stream queues by the reading thread, so a slow consumer
+     * of one stream doesn't stall other streams until its queue is full. Every consumer
+     * receives only its stream in {@link FrameConsumer#consumeStreams(List)}.
+     * <p>
+     * If any consumer throws an exception, all consumers are stopped and the exception is
+     * rethrown from {@link #read(InputStream)}.
+     *
+     * @param streamConsumerFactory creates frame consumer for a stream
+     * @param imageFormat           image format
+     * @param queueDepth            capacity of every stream's queue
+     * @param backpressure          what to do if a stream's queue is full
+     */
+    public NutFrameReader(final Function<Stream, FrameConsumer> streamConsumerFactory,
+                          final ImageFormat imageFormat, final int queueDepth,
+                          final Backpressure backpressure) {
+        this(streamConsumerFactory, imageFormat, SampleFormat.S32BE, queueDepth, backpressure);
+    }
+
+    /**
+     * Creates {@link NutFrameReader} which delivers frames of every stream to its own
+     * {@link FrameConsumer} on a dedicated thread, with audio samples in specified format.
+     *
+     * @param streamConsumerFactory creates frame consumer for a stream
+     * @param imageFormat           image format
+     * @param sampleFormat          audio sample format
+     * @param queueDepth            capacity of every stream's queue
+     * @param backpressure          what to do if a stream's queue is full
+     * @see #NutFrameReader(Function, ImageFormat, int, Backpressure)
+     */
+    public NutFrameReader(final Function<Stream, FrameConsumer> streamConsumerFactory,
+                          final ImageFormat imageFormat, final SampleFormat sampleFormat,
+                          final int queueDepth, final Backpressure backpressure) {
+        if (queueDepth <= 0) {
+            throw new IllegalArgumentException("Queue depth must be positive: " + queueDepth);
+        }
+
+        this.frameConsumer = null;
+        this.imageFormat = imageFormat;
+        this.sampleFormat = Objects.requireNonNull(sampleFormat,
+                "Sample format must be specified");
+        this.rawFrameConsumer = null;
+        this.pool = null;
+        this.streamConsumerFactory = Objects.requireNonNull(streamConsumerFactory,
+                "Stream consumer factory must be specified");
+        this.queueDepth = queueDepth;
+        this.backpressure = Objects.requireNonNull(backpressure,
+                "Backpressure must be specified");
+    }
+
+    /**
+     * Creates {@link NutFrameReader} which passes frames to {@link RawFrameConsumer} without
+     * conversion.
+     * <p>
+     * Frame data is read directly into buffers taken from the pool and is returned to it
+     * by {@link RawFrame#release()}.
+     *
+     * @param rawFrameConsumer raw frame consumer
+     * @param imageFormat      image format
+     * @param pool             frame buffer pool
+     */
+    public NutFrameReader(final RawFrameConsumer rawFrameConsumer, final ImageFormat imageFormat,
+                          final FrameBufferPool pool) {
+        this(rawFrameConsumer, imageFormat, SampleFormat.S32BE, pool);
+    }
+
+    /**
+     * Creates {@link NutFrameReader} which passes frames to {@link RawFrameConsumer} without
+     * conversion.
+     *
+     * @param rawFrameConsumer raw frame consumer
+     * @param imageFormat      image format
+     * @param sampleFormat     audio sample format
+     * @param pool             frame buffer pool
+     */
+    public NutFrameReader(final RawFrameConsumer rawFrameConsumer, final ImageFormat imageFormat,
+                          final SampleFormat sampleFormat, final FrameBufferPool pool) {
+        this.frameConsumer = null;
+        this.imageFormat = imageFormat;
+        this.sampleFormat = Objects.requireNonNull(sampleFormat,
+                "Sample format must be specified");
+        this.rawFrameConsumer = Objects.requireNonNull(rawFrameConsumer,
+                "Raw frame consumer must be specified");
+        this.pool = Objects.requireNonNull(pool, "Frame buffer pool must be specified");
+        this.streamConsumerFactory = null;
+        this.queueDepth = 0;
+        this.backpressure = null;
     }
 
     /**
@@ -68,10 +193,21 @@ public class NutFrameReader implements FrameOutput.FrameReader {
         MainHeader mainHeader = nutReader.getMainHeader();
         StreamHeader[] streamHeaders = nutReader.getStreamHeaders();
         List<Stream> streams = parseTracks(mainHeader, streamHeaders);
-        frameConsumer.consumeStreams(streams);
 
         LOGGER.debug("Streams: {}", (Object) streamHeaders);
 
+        if (streamConsumerFactory != null) {
+            readDispatched(nutReader, streamHeaders, streams);
+            return;
+        }
+
+        if (rawFrameConsumer != null) {
+            readRaw(nutReader, streamHeaders, streams);
+            return;
+        }
+
+        frameConsumer.consumeStreams(streams);
+
         NutFrame nutFrame;
         while ((nutFrame = nutReader.readFrame()) != null) {
             LOGGER.trace("NutFrame: {}", nutFrame);
@@ -90,8 +226,50 @@ public class NutFrameReader implements FrameOutput.FrameReader {
         frameConsumer.consume(null);
     }
 
-    private static List<Stream> parseTracks(final MainHeader mainHeader,
-                                            final StreamHeader[] streamHeaders) {
+    private void readDispatched(final NutReader nutReader, final StreamHeader[] streamHeaders,
+                                final List<Stream> streams) throws IOException {
+        StreamDispatcher dispatcher = new StreamDispatcher(streams, streamHeaders,
+                streamConsumerFactory, this::parseFrame, queueDepth, backpressure);
+
+        boolean completed = false;
+        try {
+            NutFrame nutFrame;
+            while ((nutFrame = nutReader.readFrame()) != null) {
+                LOGGER.trace("NutFrame: {}", nutFrame);
+                dispatcher.dispatch(nutFrame);
+            }
+
+            dispatcher.finish();
+            completed = true;
+        } finally {
+            if (!completed) {
+                dispatcher.abort();
+            }
+        }
+    }
+
+    private void readRaw(final NutReader nutReader, final StreamHeader[] streamHeaders,
+                         final List<Stream> streams) throws IOException {
+        rawFrameConsumer.consumeStreams(streams);
+
+        NutFrame nutFrame;
+        while ((nutFrame = nutReader.readFrame(pool)) != null) {
+            LOGGER.trace("NutFrame: {}", nutFrame);
+
+            RawFrame frame = parseRawFrame(streamHeaders[nutFrame.streamId], nutFrame);
+            if (frame == null) {
+                nutFrame.release();
+                continue;
+            }
+
+            rawFrameConsumer.consume(frame);
+        }
+
+        rawFrameConsumer.consume(null);
+    }
+
+    static List<Stream> parseTracks(final MainHeader mainHeader,
+                                    final StreamHeader[] streamHeaders) {
         List<Stream> result = new ArrayList<>();
 
         for (StreamHeader streamHeader : streamHeaders) {
@@ -116,7 +294,10 @@ public class NutFrameReader implements FrameOutput.FrameReader {
             if (stream != null) {
                 Rational timebase = mainHeader.timeBases[streamHeader.timeBaseId];
                 stream.setId(streamHeader.streamId)
-                        .setTimebase(timebase.getDenominator() / timebase.getNumerator());
+                        .setTimebase(timebase.getDenominator() / timebase.getNumerator())
+                        .setFourcc(streamHeader.fourcc)
+                        .setCodecSpecificData(streamHeader.codecSpecificData)
+                        .setDecodeDelay(streamHeader.decodeDelay);
                 result.add(stream);
             }
         }
@@ -129,29 +310,54 @@ public class NutFrameReader implements FrameOutput.FrameReader {
             return null;
         }
 
-        BufferedImage image = null;
-        int[] samples = null;
-
         if (track.streamType == StreamHeader.Type.VIDEO) {
             int width = track.video.width;
             int height = track.video.height;
             // sometimes ffmpeg can send too short byte array as frame raw data for the last frame
             // ignoring such frame, anyway there will be no more frames after it
-            if (frame.data.length == width * height * imageFormat.getBytesPerPixel()) {
-                image = imageFormat.toImage(frame.data, width, height);
+            if (frame.data.length == imageFormat.getFrameSize(width, height)) {
+                BufferedImage image = imageFormat.toImage(frame.data, width, height);
+                return Frame.createVideoFrame(track.streamId, frame.pts, image);
             }
         } else if (track.streamType == StreamHeader.Type.AUDIO) {
-            ByteBuffer data = ByteBuffer.wrap(frame.data);
+            return sampleFormat.toFrame(track.streamId, frame.pts, frame.data);
+        }
 
-            IntBuffer intData = data.asIntBuffer();
-            samples = new int[intData.limit()];
-            intData.get(samples);
+        return null;
+    }
+
+    private RawFrame parseRawFrame(final StreamHeader track, final NutFrame frame) {
+        if (frame.eor || frame.payload.remaining() == 0) {
+            return null;
         }
 
-        if (image != null || samples != null) {
-            return new Frame(track.streamId, frame.pts, image, samples);
+        if (track.streamType == StreamHeader.Type.VIDEO) {
+            int width = track.video.width;
+            int height = track.video.height;
+            // see parseFrame: too short last frame is ignored
+            if (frame.payload.remaining() == imageFormat.getFrameSize(width, height)) {
+                return new RawFrame(frame, width, height, imageFormat, null);
+            }
+        } else if (track.streamType == StreamHeader.Type.AUDIO) {
+            return new RawFrame(frame, null, null, null, sampleFormat);
         }
 
         return null;
     }
+
+    /**
+     * What to do if a stream's queue is full.
+     */
+    public enum Backpressure {
+        /**
+         * Reading waits until the queue has space, which eventually slows down ffmpeg.
+         */
+        BLOCK,
+
+        /**
+         * The oldest queued frame is dropped, reading never waits. Suitable for live
+         * analysis where only recent frames matter.
+         */
+        DROP_OLDEST
+    }
 }
@@ -32,7 +32,6 @@ import org.slf4j.LoggerFactory;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.ByteBuffer;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
@@ -43,12 +42,9 @@ import java.util.Objects;
 public class NutFrameWriter implements FrameInput.FrameWriter {
     private final FrameProducer producer;
     private final ImageFormat imageFormat;
+    private final SampleFormat sampleFormat;
     private final long frameOrderingBufferMillis;
 
-    //PCM Signed Differential?
-    private static final byte[] FOURCC_PCM_S32BE = {32, 'D', 'S', 'P'};
-
-
     private static final Logger LOGGER = LoggerFactory.getLogger(NutFrameWriter.class);
 
     /**
@@ -60,8 +56,24 @@ public class NutFrameWriter implements FrameInput.FrameWriter {
      */
     public NutFrameWriter(final FrameProducer producer, final ImageFormat imageFormat,
                           final long frameOrderingBufferMillis) {
+        this(producer, imageFormat, SampleFormat.S32BE, frameOrderingBufferMillis);
+    }
+
+    /**
+     * Creates {@link NutFrameWriter}.
+     *
+     * @param producer                  frame producer
+     * @param imageFormat               video frames image format
+     * @param sampleFormat              audio frames sample format
+     * @param frameOrderingBufferMillis frame reordering buffer length
+     */
+    public NutFrameWriter(final FrameProducer producer, final ImageFormat imageFormat,
+                          final SampleFormat sampleFormat,
+                          final long frameOrderingBufferMillis) {
         this.producer = producer;
         this.imageFormat = imageFormat;
+        this.sampleFormat = Objects.requireNonNull(sampleFormat,
+                "Sample format must be specified");
         this.frameOrderingBufferMillis = frameOrderingBufferMillis;
     }
 
@@ -131,7 +143,7 @@ public class NutFrameWriter implements FrameInput.FrameWriter {
                     streamHeader = new StreamHeader(
                             stream.getId(),
                             StreamHeader.Type.AUDIO,
-                            FOURCC_PCM_S32BE,
+                            sampleFormat.getFourCC(),
                             i,
                             0,
                             60_000,
@@ -153,23 +165,7 @@ public class NutFrameWriter implements FrameInput.FrameWriter {
             timebases[i] = new Rational(1, stream.getTimebase());
         }
 
-        int framecodesLength = 256;
-        FrameCode[] frameCodes = new FrameCode[framecodesLength];
-        frameCodes[0] = FrameCode.INVALID;
-        frameCodes[1] = new FrameCode(
-                EnumSet.of(FrameCode.Flag.CODED_FLAGS),
-                0,
-                1,
-                0,
-                0,
-                0,
-                0,
-                0
-        );
-        for (int i = 2; i < framecodesLength; i++) {
-            frameCodes[i] = FrameCode.INVALID;
-        }
-
+        FrameCode[] frameCodes = createFrameCodes();
         writer.setMainHeader(tracks.size(), Short.MAX_VALUE, timebases, frameCodes);
         writer.setStreamHeaders(streamHeaders);
         writer.setInfos(new Info[0]);
@@ -184,11 +180,19 @@ public class NutFrameWriter implements FrameInput.FrameWriter {
                 case VIDEO:
                     BufferedImage image = frame.getImage();
                     data = imageFormat.toBytes(image);
+
+                    // ffmpeg silently reads a truncated frame if the image doesn't match
+                    StreamHeader.Video video = streamHeader.video;
+                    int frameSize = imageFormat.getFrameSize(video.width, video.height);
+                    if (data.length != frameSize) {
+                        throw new JaffreeException("Wrong frame size of stream "
+                                + streamHeader.streamId + ": " + data.length + " bytes, expected "
+                                + frameSize + " for " + video.width + "x" + video.height);
+                    }
                     break;
 
                 case AUDIO:
-                    data = new byte[frame.getSamples().length * 4];
-                    ByteBuffer.wrap(data).asIntBuffer().put(frame.getSamples());
+                    data = sampleFormat.toBytes(frame);
                     break;
 
                 default:
@@ -210,4 +214,31 @@ public class NutFrameWriter implements FrameInput.FrameWriter {
             writer.writeFrame(nutFrame);
         }
     }
+
+    /**
+     * Creates the simplest frame code table: every frame codes its flags, stream id, PTS
+     * and size explicitly.
+     *
+     * @return frame codes
+     */
+    @SuppressWarnings("checkstyle:magicnumber")
+    static FrameCode[] createFrameCodes() {
+        int framecodesLength = 256;
+        FrameCode[] frameCodes = new FrameCode[framecodesLength];
+        frameCodes[0] = FrameCode.INVALID;
+        frameCodes[1] = new FrameCode(
+                EnumSet.of(FrameCode.Flag.CODED_FLAGS),
+                0,
+                1,
+                0,
+                0,
+                0,
+                0,
+                0
+        );
+        for (int i = 2; i < framecodesLength; i++) {
+            frameCodes[i] = FrameCode.INVALID;
+        }
+        return frameCodes;
+    }
 }
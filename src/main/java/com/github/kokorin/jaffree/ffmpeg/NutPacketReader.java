@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.kokorin.jaffree.ffmpeg;
+
+import com.github.kokorin.jaffree.nut.NutFrame;
+import com.github.kokorin.jaffree.nut.NutInputStream;
+import com.github.kokorin.jaffree.nut.NutReader;
+import com.github.kokorin.jaffree.nut.StreamHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * {@link NutPacketReader} reads InputStream in Nut format and passes encoded packets
+ * to {@link PacketConsumer} without decoding them.
+ */
+public class NutPacketReader implements FrameOutput.FrameReader {
+    private final PacketConsumer packetConsumer;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NutPacketReader.class);
+
+    /**
+     * Creates {@link NutPacketReader}.
+     *
+     * @param packetConsumer packet consumer
+     */
+    public NutPacketReader(final PacketConsumer packetConsumer) {
+        this.packetConsumer = packetConsumer;
+    }
+
+    /**
+     * Reads media in Nut format from input stream and closes it.
+     *
+     * @param input input to read
+     */
+    @Override
+    public void read(final InputStream input) throws IOException {
+        NutInputStream stream = new NutInputStream(input);
+        NutReader nutReader = new NutReader(stream);
+
+        StreamHeader[] streamHeaders = nutReader.getStreamHeaders();
+        List<Stream> streams = NutFrameReader.parseTracks(nutReader.getMainHeader(),
+                streamHeaders);
+
+        LOGGER.debug("Streams: {}", (Object) streamHeaders);
+
+        boolean[] consumed = new boolean[streamHeaders.length];
+        for (Stream track : streams) {
+            consumed[track.getId()] = true;
+        }
+
+        packetConsumer.consumeStreams(streams);
+
+        NutFrame nutFrame;
+        while ((nutFrame = nutReader.readFrame()) != null) {
+            LOGGER.trace("NutFrame: {}", nutFrame);
+
+            // EOR frames carry no data, streams other than audio & video are skipped
+            if (nutFrame.eor || !consumed[nutFrame.streamId]) {
+                continue;
+            }
+
+            packetConsumer.consume(
+                    new Packet(nutFrame.streamId, nutFrame.pts, nutFrame.data, nutFrame.keyframe)
+            );
+        }
+
+        packetConsumer.consume(null);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.kokorin.jaffree.ffmpeg;
+
+import com.github.kokorin.jaffree.JaffreeException;
+import com.github.kokorin.jaffree.Rational;
+import com.github.kokorin.jaffree.nut.DataItem;
+import com.github.kokorin.jaffree.nut.Info;
+import com.github.kokorin.jaffree.nut.NutFrame;
+import com.github.kokorin.jaffree.nut.NutOutputStream;
+import com.github.kokorin.jaffree.nut.NutWriter;
+import com.github.kokorin.jaffree.nut.StreamHeader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@link NutPacketWriter} allows writing encoded (compressed) Packets in Nut format.
+ */
+public class NutPacketWriter implements FrameInput.FrameWriter {
+    private final PacketProducer producer;
+
+    private static final DataItem[] NO_DATA_ITEMS = new DataItem[0];
+    private static final Logger LOGGER = LoggerFactory.getLogger(NutPacketWriter.class);
+
+    /**
+     * Creates {@link NutPacketWriter}.
+     *
+     * @param producer packet producer
+     */
+    public NutPacketWriter(final PacketProducer producer) {
+        this.producer = producer;
+    }
+
+    /**
+     * Writes media in Nut format to output stream and closes it.
+     *
+     * @param outputStream OutputStream output stream to write to
+     */
+    @Override
+    public void write(final OutputStream outputStream) throws IOException {
+        // Packets are already in decode order, reordering them by PTS would break B-frames
+        NutWriter writer = NutWriter.inDecodeOrder(new NutOutputStream(outputStream));
+        write(writer);
+        writer.writeFooter();
+    }
+
+    @SuppressWarnings("checkstyle:magicnumber")
+    private void write(final NutWriter writer) throws IOException {
+        List<Stream> tracks = producer.produceStreams();
+        LOGGER.debug("Streams: {}", tracks.toArray());
+
+        StreamHeader[] streamHeaders = new StreamHeader[tracks.size()];
+        Rational[] timebases = new Rational[tracks.size()];
+
+        for (int i = 0; i < streamHeaders.length; i++) {
+            Stream stream = tracks.get(i);
+            if (stream.getId() != i) {
+                throw new JaffreeException("Stream ids must start with 0 and "
+                        + "increase by 1 subsequently!");
+            }
+
+            Objects.requireNonNull(stream.getType(), "Stream type must be specified");
+            Objects.requireNonNull(stream.getTimebase(), "Stream timebase must be specified");
+            Objects.requireNonNull(stream.getFourcc(), "Stream fourcc must be specified");
+
+            byte[] codecSpecificData = stream.getCodecSpecificData();
+            if (codecSpecificData == null) {
+                codecSpecificData = new byte[0];
+            }
+
+            StreamHeader.Video video = null;
+            StreamHeader.Audio audio = null;
+            final StreamHeader.Type type;
+            switch (stream.getType()) {
+                case VIDEO:
+                    Objects.requireNonNull(stream.getWidth(), "Width must be specified");
+                    Objects.requireNonNull(stream.getHeight(), "Height must be specified");
+                    type = StreamHeader.Type.VIDEO;
+                    video = new StreamHeader.Video(
+                            stream.getWidth(),
+                            stream.getHeight(),
+                            1,
+                            1,
+                            StreamHeader.ColourspaceType.UNKNOWN
+                    );
+                    break;
+                case AUDIO:
+                    Objects.requireNonNull(stream.getSampleRate(),
+                            "Samplerate must be specified");
+                    Objects.requireNonNull(stream.getChannels(),
+                            "Number of channels must be specified");
+                    type = StreamHeader.Type.AUDIO;
+                    audio = new StreamHeader.Audio(
+                            new Rational(stream.getSampleRate(), 1),
+                            stream.getChannels()
+                    );
+                    break;
+                default:
+                    throw new JaffreeException("Unknown Track Type: " + stream.getType());
+            }
+
+            streamHeaders[i] = new StreamHeader(
+                    stream.getId(),
+                    type,
+                    stream.getFourcc(),
+                    i,
+                    0,
+                    60_000,
+                    stream.getDecodeDelay(),
+                    EnumSet.noneOf(StreamHeader.Flag.class),
+                    codecSpecificData,
+                    video,
+                    audio
+            );
+            timebases[i] = new Rational(1, stream.getTimebase());
+        }
+
+        writer.setMainHeader(tracks.size(), Short.MAX_VALUE, timebases,
+                NutFrameWriter.createFrameCodes());
+        writer.setStreamHeaders(streamHeaders);
+        writer.setInfos(new Info[0]);
+
+        Packet packet;
+        while ((packet = producer.produce()) != null) {
+            LOGGER.trace("Packet: {}", packet);
+
+            if (packet.getStreamId() < 0 || packet.getStreamId() >= streamHeaders.length) {
+                throw new JaffreeException("Unexpected track: " + packet.getStreamId());
+            }
+
+            NutFrame nutFrame = new NutFrame(
+                    packet.getStreamId(),
+                    packet.getPts(),
+                    packet.getData(),
+                    NO_DATA_ITEMS,
+                    NO_DATA_ITEMS,
+                    packet.isKeyframe(),
+                    false
+            );
+
+            LOGGER.trace("NutFrame: {}", nutFrame);
+            writer.writeFrame(nutFrame);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.kokorin.jaffree.ffmpeg;
+
+/**
+ * Represents encoded (compressed) audio/video packet, e.g. H.264 access unit or AAC frame.
+ * <p>
+ * <b>Note</b>: data must not be changed after creating Packet instance.
+ *
+ * @see PacketInput
+ * @see PacketOutput
+ */
+public class Packet {
+    private final int streamId;
+    private final long pts;
+    private final byte[] data;
+    private final boolean keyframe;
+
+    /**
+     * Creates {@link Packet}.
+     *
+     * @param streamId stream id (starting with 0)
+     * @param pts      pts in {@link Stream} timebase
+     * @param data     encoded data
+     * @param keyframe true if decoding can start at this packet
+     * @see Stream#getTimebase()
+     */
+    public Packet(final int streamId, final long pts, final byte[] data,
+                  final boolean keyframe) {
+        if (data == null) {
+            throw new IllegalArgumentException("Packet data must be non null");
+        }
+
+        this.streamId = streamId;
+        this.pts = pts;
+        this.data = data;
+        this.keyframe = keyframe;
+    }
+
+    /**
+     * @return stream id (starting with 0)
+     */
+    public int getStreamId() {
+        return streamId;
+    }
+
+    /**
+     * PTS in corresponding {@link Stream} timebase.
+     *
+     * @return timecode
+     * @see Stream#getTimebase()
+     */
+    public long getPts() {
+        return pts;
+    }
+
+    /**
+     * Returns encoded data in the format of the stream's codec.
+     *
+     * @return encoded data
+     * @see Stream#getFourcc()
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Returns true if decoding can start at this packet.
+     *
+     * @return keyframe mark
+     */
+    public boolean isKeyframe() {
+        return keyframe;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "Packet{"
+                + "streamId=" + streamId
+                + ", pts=" + pts
+                + ", size=" + data.length
+                + ", keyframe=" + keyframe
+                + '}';
+    }
+}
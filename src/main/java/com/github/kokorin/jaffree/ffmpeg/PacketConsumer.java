@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.kokorin.jaffree.ffmpeg;
+
+import java.util.List;
+
+/**
+ * Allows custom implementation to be notified about available streams and every encoded
+ * packet.
+ */
+public interface PacketConsumer {
+
+    /**
+     * Called once before any call to {@link #consume(Packet)}.
+     * <p>
+     * Every stream carries its codec fourcc and codec specific data (extradata).
+     *
+     * @param streams streams
+     */
+    void consumeStreams(List<Stream> streams);
+
+    /**
+     * Called for every packet in media file.
+     * <p>
+     * When there is no more packet this method is called one more time
+     * with {@code}null{@code} to notify consumer about EOF.
+     *
+     * @param packet packet
+     */
+    void consume(Packet packet);
+}
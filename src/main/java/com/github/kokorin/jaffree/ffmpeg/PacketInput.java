@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.kokorin.jaffree.ffmpeg;
+
+import com.github.kokorin.jaffree.JaffreeException;
+import com.github.kokorin.jaffree.net.TcpNegotiator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Allows to supply ffmpeg with encoded audio &amp; video packets held in Java, e.g. H.264,
+ * AAC or Opus packets.
+ * <p>
+ * Packets are muxed into NUT without decoding, so ffmpeg can remux ({@code -c copy}) or
+ * transcode them directly.
+ *
+ * @see PacketProducer
+ */
+public class PacketInput extends TcpInput<PacketInput> implements Input {
+
+    /**
+     * Creates {@link PacketInput} for {@link FFmpeg}.
+     *
+     * @param packetWriter packet writer
+     * @see NutPacketWriter
+     */
+    protected PacketInput(final FrameInput.FrameWriter packetWriter) {
+        super(new PacketInputNegotiator(packetWriter));
+        super.setFormat("nut");
+    }
+
+    /**
+     * Format change is prohibited after {@link PacketInput} instantiation.
+     *
+     * @param format format
+     * @return never returns
+     * @throws JaffreeException always
+     */
+    @Override
+    public final PacketInput setFormat(final String format) {
+        throw new JaffreeException("Format can't be changed");
+    }
+
+    /**
+     * Creates {@link PacketInput} with specified packet producer.
+     *
+     * @param producer packet producer
+     * @return PacketInput
+     */
+    public static PacketInput withProducer(final PacketProducer producer) {
+        return new PacketInput(new NutPacketWriter(producer));
+    }
+
+    /**
+     * {@link TcpNegotiator} implementation which uses {@link FrameInput.FrameWriter} to send
+     * bytes over TCP connection.
+     */
+    private static class PacketInputNegotiator implements TcpNegotiator {
+        private final FrameInput.FrameWriter packetWriter;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        PacketInputNegotiator(final FrameInput.FrameWriter packetWriter) {
+            this.packetWriter = packetWriter;
+        }
+
+        /**
+         * Sends media over TCP connection.
+         *
+         * @param socket TCP socket
+         * @throws IOException if any IO error
+         */
+        @Override
+        public void negotiate(final Socket socket) throws IOException {
+            lock.lock();
+            try (OutputStream output = socket.getOutputStream()) {
+                packetWriter.write(output);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.kokorin.jaffree.ffmpeg;
+
+import com.github.kokorin.jaffree.JaffreeException;
+
+/**
+ * Allows to consume in Java encoded audio &amp; video packets produced by ffmpeg.
+ * <p>
+ * Unlike {@link FrameOutput} packets are neither decoded by ffmpeg nor by Jaffree, so only
+ * compressed data is transferred. By default all codecs are copied ({@code -c copy}), use
+ * {@link #setCodec(String, String)} to encode streams instead.
+ * <p>
+ * Codec of every stream is identified by its NUT fourcc, codec specific data (extradata)
+ * is passed as well, see {@link Stream#getFourcc()} and {@link Stream#getCodecSpecificData()}.
+ */
+public class PacketOutput extends TcpOutput<PacketOutput> implements Output {
+
+    /**
+     * Create {@link PacketOutput} for {@link FFmpeg}.
+     *
+     * @param packetReader packet reader
+     * @see NutPacketReader
+     */
+    protected PacketOutput(final FrameOutput.FrameReader packetReader) {
+        super(new FrameOutput.FrameOutputNegotiator(packetReader));
+        super.setFormat("nut");
+        super.copyAllCodecs();
+    }
+
+    /**
+     * Format change is prohibited after {@link PacketOutput} instantiation.
+     *
+     * @param format format
+     * @return never returns
+     * @throws JaffreeException always
+     */
+    @Override
+    public final PacketOutput setFormat(final String format) {
+        throw new JaffreeException("Format can't be changed");
+    }
+
+    /**
+     * Creates {@link PacketOutput}.
+     *
+     * @param consumer packet consumer
+     * @return PacketOutput
+     */
+    public static PacketOutput withConsumer(final PacketConsumer consumer) {
+        return new PacketOutput(new NutPacketReader(consumer));
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.kokorin.jaffree.ffmpeg;
+
+import java.util.List;
+
+/**
+ * Allows custom implementation to produce streams and encoded packets.
+ *
+ * @see PacketInput
+ */
+public interface PacketProducer {
+
+    /**
+     * Called once before any call to {@link #produce()}.
+     * <p>
+     * Every stream must specify its codec fourcc and, if the codec needs it, codec specific
+     * data (extradata).
+     *
+     * @return streams
+     * @see Stream#setFourcc(byte[])
+     * @see Stream#setCodecSpecificData(byte[])
+     */
+    List<Stream> produceStreams();
+
+    /**
+     * Called repeatedly to get packets.
+     * <p>
+     * Packets are written as is, so they must be returned in decode order and interleaved
+     * across streams.
+     * <p>
+     * When there is no more packet, method should return {@code}null{@code} value.
+     *
+     * @return Packet
+     */
+    Packet produce();
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.kokorin.jaffree.ffmpeg;
+
+import com.github.kokorin.jaffree.nut.FrameBufferPool;
+import com.github.kokorin.jaffree.nut.NutFrame;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Represents decoded video/audio frame as raw bytes, without conversion to
+ * {@link java.awt.image.BufferedImage BufferedImage} or {@code int[]}.
+ * <p>
+ * Frame data is held in a buffer taken from a {@link FrameBufferPool}, which can be direct
+ * (off-heap). Call {@link #release()} when done with the frame, data must not be used
+ * afterwards.
+ *
+ * @see RawFrameConsumer
+ * @see FrameOutput#withRawConsumer(RawFrameConsumer, ImageFormat)
+ */
+public class RawFrame {
+    private final NutFrame nutFrame;
+    private final Integer width;
+    private final Integer height;
+    private final ImageFormat imageFormat;
+    private final SampleFormat sampleFormat;
+
+    /**
+     * Creates {@link RawFrame}.
+     *
+     * @param nutFrame     NUT frame holding data
+     * @param width        image width, null for audio
+     * @param height       image height, null for audio
+     * @param imageFormat  image format, null for audio
+     * @param sampleFormat sample format, null for video
+     */
+    RawFrame(final NutFrame nutFrame, final Integer width, final Integer height,
+             final ImageFormat imageFormat, final SampleFormat sampleFormat) {
+        this.nutFrame = nutFrame;
+        this.width = width;
+        this.height = height;
+        this.imageFormat = imageFormat;
+        this.sampleFormat = sampleFormat;
+    }
+
+    /**
+     * @return stream id (starting with 0)
+     */
+    public int getStreamId() {
+        return nutFrame.streamId;
+    }
+
+    /**
+     * PTS in corresponding {@link Stream} timebase.
+     *
+     * @return timecode
+     * @see Stream#getTimebase()
+     */
+    public long getPts() {
+        return nutFrame.pts;
+    }
+
+    /**
+     * Returns frame data, position is 0 and limit is the data size.
+     * <p>
+     * Video data is laid out as described by {@link #getPlanes()}, audio data consists of
+     * interleaved samples in {@link #getSampleFormat()}.
+     * <p>
+     * Every call returns a new view of the same data, so changing its position or limit
+     * doesn't affect the frame.
+     *
+     * @return frame data
+     */
+    public ByteBuffer getData() {
+        return nutFrame.payload.duplicate();
+    }
+
+    /**
+     * Returns image width for video frame or null for other frame types.
+     *
+     * @return image width
+     */
+    public Integer getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns image height for video frame or null for other frame types.
+     *
+     * @return image height
+     */
+    public Integer getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns image format for video frame or null for other frame types.
+     *
+     * @return image format
+     */
+    public ImageFormat getImageFormat() {
+        return imageFormat;
+    }
+
+    /**
+     * Returns ffmpeg pixel format for video frame or null for other frame types.
+     *
+     * @return pixel format
+     */
+    public String getPixelFormat() {
+        return imageFormat != null ? imageFormat.getPixelFormat() : null;
+    }
+
+    /**
+     * Returns sample format for audio frame or null for other frame types.
+     *
+     * @return sample format
+     */
+    public SampleFormat getSampleFormat() {
+        return sampleFormat;
+    }
+
+    /**
+     * Returns planes of video frame or null for other frame types.
+     *
+     * @return planes
+     */
+    public ImageFormat.Plane[] getPlanes() {
+        return imageFormat != null ? imageFormat.getPlanes(width, height) : null;
+    }
+
+    /**
+     * Returns bytes per row of the first plane for video frame or null for other frame types.
+     *
+     * @return stride
+     */
+    public Integer getStride() {
+        return imageFormat != null ? getPlanes()[0].getStride() : null;
+    }
+
+    /**
+     * Returns frame data to the pool. Does nothing if it was already released.
+     */
+    public void release() {
+        nutFrame.release();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "RawFrame{"
+                + "streamId=" + nutFrame.streamId
+                + ", pts=" + nutFrame.pts
+                + ", size=" + nutFrame.payload.remaining()
+                + ", pixelFormat=" + getPixelFormat()
+                + '}';
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.kokorin.jaffree.ffmpeg;
+
+import com.github.kokorin.jaffree.JaffreeException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Audio sample formats used by {@link FrameInput} and {@link FrameOutput}.
+ * <p>
+ * {@link #S32BE} is the default, its samples are delivered as {@code int[]}
+ * (see {@link Frame#getSamples()}). Samples in other formats are delivered as buffer views of
+ * frame data without conversion (see {@link Frame#getIntSamples()},
+ * {@link Frame#getShortSamples()} and {@link Frame#getFloatSamples()}). Their byte order is
+ * little endian, which is the native byte order on x86 and ARM, so bulk reads from these
+ * views don't swap bytes.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+public enum SampleFormat {
+    /**
+     * Signed 32-bit big endian samples, delivered as {@code int[]}.
+     */
+    S32BE("pcm_s32be", new byte[] {32, 'D', 'S', 'P'}, 4, ByteOrder.BIG_ENDIAN) {
+        @Override
+        Frame toFrame(final int streamId, final long pts, final byte[] data) {
+            IntBuffer intData = ByteBuffer.wrap(data).asIntBuffer();
+            int[] samples = new int[intData.limit()];
+            intData.get(samples);
+            return Frame.createAudioFrame(streamId, pts, samples);
+        }
+
+        @Override
+        byte[] toBytes(final Frame frame) {
+            IntBuffer samples = requireSamples(frame.getIntSamples(), "int");
+            byte[] result = new byte[samples.remaining() * 4];
+            ByteBuffer.wrap(result).asIntBuffer().put(samples);
+            return result;
+        }
+    },
+
+    /**
+     * Signed 32-bit little endian samples, delivered as {@link IntBuffer}.
+     */
+    S32LE("pcm_s32le", new byte[] {'P', 'S', 'D', 32}, 4, ByteOrder.LITTLE_ENDIAN) {
+        @Override
+        Frame toFrame(final int streamId, final long pts, final byte[] data) {
+            return Frame.createAudioFrame(streamId, pts, wrap(data).asIntBuffer());
+        }
+
+        @Override
+        byte[] toBytes(final Frame frame) {
+            IntBuffer samples = requireSamples(frame.getIntSamples(), "int");
+            byte[] result = new byte[samples.remaining() * 4];
+            wrap(result).asIntBuffer().put(samples);
+            return result;
+        }
+    },
+
+    /**
+     * Signed 16-bit little endian samples, delivered as {@link ShortBuffer}.
+     */
+    S16LE("pcm_s16le", new byte[] {'P', 'S', 'D', 16}, 2, ByteOrder.LITTLE_ENDIAN) {
+        @Override
+        Frame toFrame(final int streamId, final long pts, final byte[] data) {
+            return Frame.createAudioFrame(streamId, pts, wrap(data).asShortBuffer());
+        }
+
+        @Override
+        byte[] toBytes(final Frame frame) {
+            ShortBuffer samples = requireSamples(frame.getShortSamples(), "short");
+            byte[] result = new byte[samples.remaining() * 2];
+            wrap(result).asShortBuffer().put(samples);
+            return result;
+        }
+    },
+
+    /**
+     * 32-bit floating point little endian samples, delivered as {@link FloatBuffer}.
+     */
+    F32LE("pcm_f32le", new byte[] {'P', 'F', 'D', 32}, 4, ByteOrder.LITTLE_ENDIAN) {
+        @Override
+        Frame toFrame(final int streamId, final long pts, final byte[] data) {
+            return Frame.createAudioFrame(streamId, pts, wrap(data).asFloatBuffer());
+        }
+
+        @Override
+        byte[] toBytes(final Frame frame) {
+            FloatBuffer samples = requireSamples(frame.getFloatSamples(), "float");
+            byte[] result = new byte[samples.remaining() * 4];
+            wrap(result).asFloatBuffer().put(samples);
+            return result;
+        }
+    };
+
+    private final String codec;
+    private final byte[] fourcc;
+    private final int bytesPerSample;
+    private final ByteOrder byteOrder;
+
+    SampleFormat(final String codec, final byte[] fourcc, final int bytesPerSample,
+                 final ByteOrder byteOrder) {
+        this.codec = codec;
+        this.fourcc = fourcc;
+        this.bytesPerSample = bytesPerSample;
+        this.byteOrder = byteOrder;
+    }
+
+    /**
+     * Returns ffmpeg audio codec name.
+     *
+     * @return codec name
+     */
+    public String getCodec() {
+        return codec;
+    }
+
+    /**
+     * Returns FourCC (4 bytes) of audio stream in Nut format.
+     *
+     * @return fourcc
+     */
+    public byte[] getFourCC() {
+        return fourcc.clone();
+    }
+
+    /**
+     * @return bytes per sample
+     */
+    public int getBytesPerSample() {
+        return bytesPerSample;
+    }
+
+    /**
+     * @return byte order of samples
+     */
+    public ByteOrder getByteOrder() {
+        return byteOrder;
+    }
+
+    /**
+     * Creates audio {@link Frame} from raw frame data.
+     *
+     * @param streamId stream id
+     * @param pts      pts in stream timebase
+     * @param data     raw frame data
+     * @return audio frame
+     */
+    abstract Frame toFrame(int streamId, long pts, byte[] data);
+
+    /**
+     * Converts samples of audio {@link Frame} to raw frame data.
+     *
+     * @param frame audio frame
+     * @return raw frame data
+     * @throws JaffreeException if frame samples don't match sample format
+     */
+    abstract byte[] toBytes(Frame frame);
+
+    ByteBuffer wrap(final byte[] data) {
+        return ByteBuffer.wrap(data).order(byteOrder);
+    }
+
+    <T> T requireSamples(final T samples, final String type) {
+        if (samples == null) {
+            throw new JaffreeException("Audio frame must contain " + type + " samples for "
+                    + this + " sample format");
+        }
+        return samples;
+    }
+}
@@ -34,6 +34,9 @@ public class Stream {
     private Integer height;
     private Long sampleRate;
     private Integer channels;
+    private byte[] fourcc;
+    private byte[] codecSpecificData;
+    private long decodeDelay;
 
     /**
      * Stream type.
@@ -175,6 +178,67 @@ public class Stream {
         return this;
     }
 
+    /**
+     * Returns NUT fourcc of the stream's codec, e.g. {@code H264} or {@code mp4a}.
+     * <p>
+     * Set for streams read with {@link PacketOutput}, for raw streams it identifies
+     * the raw sample format.
+     *
+     * @return codec fourcc, or null if unknown
+     */
+    public byte[] getFourcc() {
+        return fourcc;
+    }
+
+    /**
+     * @param fourcc NUT fourcc of the stream's codec
+     * @return this
+     */
+    public Stream setFourcc(final byte[] fourcc) {
+        this.fourcc = fourcc;
+        return this;
+    }
+
+    /**
+     * Returns codec specific data (also known as extradata), e.g. H.264 SPS &amp; PPS
+     * in avcC format or AAC AudioSpecificConfig.
+     *
+     * @return codec specific data, empty or null if there is none
+     */
+    public byte[] getCodecSpecificData() {
+        return codecSpecificData;
+    }
+
+    /**
+     * @param codecSpecificData codec specific data (extradata)
+     * @return this
+     */
+    public Stream setCodecSpecificData(final byte[] codecSpecificData) {
+        this.codecSpecificData = codecSpecificData;
+        return this;
+    }
+
+    /**
+     * Returns the number of packets a decoder has to buffer before the first frame can be
+     * output, e.g. 1 or 2 for H.264 with B-frames. It's 0 for codecs without frame
+     * reordering and for raw streams.
+     *
+     * @return decode delay
+     */
+    public long getDecodeDelay() {
+        return decodeDelay;
+    }
+
+    /**
+     * @param decodeDelay decode delay
+     * @return this
+     * @see #getDecodeDelay()
+     */
+    public Stream setDecodeDelay(final long decodeDelay) {
+        this.decodeDelay = decodeDelay;
+        return this;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,247 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.kokorin.jaffree.ffmpeg;
+
+import com.github.kokorin.jaffree.JaffreeException;
+import com.github.kokorin.jaffree.nut.NutFrame;
+import com.github.kokorin.jaffree.nut.StreamHeader;
+import io.v47.jaffree.process.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Demultiplexes NUT frames into bounded per-stream queues. Every stream has its own
+ * {@link FrameConsumer} and worker thread which converts and delivers its frames.
+ * <p>
+ * Used by {@link NutFrameReader} if it was created with per-stream consumers.
+ */
+class StreamDispatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StreamDispatcher.class);
+
+    // Interval to check for failed workers while waiting for queue space
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private static final NutFrame END_OF_STREAM =
+            new NutFrame(-1, 0, (byte[]) null, null, null, false, false);
+    private static final NutFrame ABORT =
+            new NutFrame(-1, 0, (byte[]) null, null, null, false, false);
+
+    private final NutFrameReader.Backpressure backpressure;
+    private final Map<Integer, Worker> workers = new HashMap<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final CountDownLatch finished;
+
+    /**
+     * Creates {@link StreamDispatcher} and starts a worker for every stream.
+     *
+     * @param streams         streams
+     * @param streamHeaders   NUT stream headers
+     * @param consumerFactory creates frame consumer for a stream
+     * @param parser          converts NUT frame to {@link Frame}
+     * @param queueDepth      capacity of every stream's queue
+     * @param backpressure    what to do if a queue is full
+     */
+    StreamDispatcher(final List<Stream> streams, final StreamHeader[] streamHeaders,
+                     final Function<Stream, FrameConsumer> consumerFactory,
+                     final BiFunction<StreamHeader, NutFrame, Frame> parser,
+                     final int queueDepth, final NutFrameReader.Backpressure backpressure) {
+        this.backpressure = backpressure;
+        this.finished = new CountDownLatch(streams.size());
+
+        List<Worker> created = new ArrayList<>();
+        for (Stream stream : streams) {
+            FrameConsumer consumer = consumerFactory.apply(stream);
+            if (consumer == null) {
+                throw new JaffreeException("No frame consumer for stream " + stream.getId());
+            }
+
+            Worker worker = new Worker(stream, streamHeaders[stream.getId()], consumer, parser,
+                    queueDepth);
+            workers.put(stream.getId(), worker);
+            created.add(worker);
+        }
+
+        ExecutorService virtualExecutor = VirtualThreads.INSTANCE.executorIfEnabled();
+        for (Worker worker : created) {
+            if (virtualExecutor != null) {
+                virtualExecutor.execute(worker);
+            } else {
+                Thread thread = new Thread(worker, "jaffree-stream-" + worker.stream.getId());
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+    }
+
+    /**
+     * Puts frame to the queue of its stream. Blocks if the queue is full and backpressure is
+     * {@link NutFrameReader.Backpressure#BLOCK}.
+     *
+     * @param frame frame
+     */
+    void dispatch(final NutFrame frame) {
+        checkFailure();
+
+        Worker worker = workers.get(frame.streamId);
+        if (worker == null) {
+            LOGGER.trace("Ignoring frame of stream without consumer: {}", frame);
+            return;
+        }
+
+        if (backpressure == NutFrameReader.Backpressure.DROP_OLDEST) {
+            while (!worker.queue.offerLast(frame)) {
+                NutFrame dropped = worker.queue.pollFirst();
+                if (dropped != null) {
+                    LOGGER.debug("Queue of stream {} is full, dropped frame: {}",
+                            frame.streamId, dropped);
+                }
+            }
+            return;
+        }
+
+        put(worker, frame);
+    }
+
+    /**
+     * Signals end of stream to all workers and waits for them to deliver all queued frames.
+     */
+    void finish() {
+        for (Worker worker : workers.values()) {
+            put(worker, END_OF_STREAM);
+        }
+
+        awaitWorkers();
+        checkFailure();
+    }
+
+    /**
+     * Stops all workers, queued frames are discarded and consumers are not notified about EOF.
+     */
+    void abort() {
+        for (Worker worker : workers.values()) {
+            worker.queue.clear();
+            worker.queue.offerLast(ABORT);
+        }
+
+        awaitWorkers();
+    }
+
+    private void put(final Worker worker, final NutFrame frame) {
+        try {
+            while (!worker.queue.offerLast(frame, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkFailure();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort();
+            throw new JaffreeException("Interrupted while dispatching frames", e);
+        }
+    }
+
+    private void awaitWorkers() {
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JaffreeException("Interrupted while waiting for frame consumers", e);
+        }
+    }
+
+    private void checkFailure() {
+        Throwable error = failure.get();
+        if (error == null) {
+            return;
+        }
+
+        abort();
+
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        throw new JaffreeException("Frame consumer failed", error);
+    }
+
+    private final class Worker implements Runnable {
+        private final Stream stream;
+        private final StreamHeader streamHeader;
+        private final FrameConsumer consumer;
+        private final BiFunction<StreamHeader, NutFrame, Frame> parser;
+        private final BlockingDeque<NutFrame> queue;
+
+        private Worker(final Stream stream, final StreamHeader streamHeader,
+                       final FrameConsumer consumer,
+                       final BiFunction<StreamHeader, NutFrame, Frame> parser,
+                       final int queueDepth) {
+            this.stream = stream;
+            this.streamHeader = streamHeader;
+            this.consumer = consumer;
+            this.parser = parser;
+            this.queue = new LinkedBlockingDeque<>(queueDepth);
+        }
+
+        @Override
+        public void run() {
+            try {
+                consumer.consumeStreams(Collections.singletonList(stream));
+
+                while (true) {
+                    NutFrame nutFrame = queue.takeFirst();
+                    if (nutFrame == ABORT) {
+                        return;
+                    }
+                    if (nutFrame == END_OF_STREAM) {
+                        consumer.consume(null);
+                        return;
+                    }
+
+                    Frame frame = parser.apply(streamHeader, nutFrame);
+                    if (frame != null) {
+                        consumer.consume(frame);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure.compareAndSet(null, e);
+            } catch (Throwable e) {
+                LOGGER.warn("Frame consumer of stream {} failed", stream.getId(), e);
+                failure.compareAndSet(null, e);
+                // unblock the reader which may wait for space in this queue
+                queue.clear();
+            } finally {
+                finished.countDown();
+            }
+        }
+    }
+}
@@ -38,6 +38,9 @@ import com.github.kokorin.jaffree.StreamType;
 import com.github.kokorin.jaffree.ffprobe.data.FormatParser;
 import com.github.kokorin.jaffree.ffprobe.data.JsonFormatParser;
 import io.v47.jaffree.ffprobe.FFprobeProcessHandler;
+import io.v47.jaffree.process.BatchExecution;
+import io.v47.jaffree.process.BatchOptions;
+import io.v47.jaffree.process.LogCapturePolicy;
 import io.v47.jaffree.process.ProcessFuture;
 import io.v47.jaffree.process.ProcessListener;
 import io.v47.jaffree.process.ProcessRunner;
@@ -48,8 +51,10 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * {@link FFprobe} provides an ability to execute ffprobe process.
@@ -78,6 +83,9 @@ public class FFprobe {
     private Long fpsProbeSize;
 
     private ProcessListener processListener;
+    private String executionTag;
+    private int priority;
+    private LogCapturePolicy logCapturePolicy = LogCapturePolicy.DEFAULT;
     private final List<String> additionalArguments = new ArrayList<>();
 
     private String format;
@@ -518,6 +526,24 @@ public class FFprobe {
         return this;
     }
 
+    /**
+     * Sets how ffprobe log output is captured and passed on to SLF4J.
+     * <p>
+     * Use it to limit the memory and log volume of executions that produce lots of log
+     * output, e.g. repeated decoding errors caused by a broken input.
+     *
+     * @param logCapturePolicy log capture policy
+     * @return this
+     */
+    public FFprobe setLogCapturePolicy(final LogCapturePolicy logCapturePolicy) {
+        if (logCapturePolicy == null) {
+            throw new IllegalArgumentException("Log capture policy must be non null");
+        }
+
+        this.logCapturePolicy = logCapturePolicy;
+        return this;
+    }
+
     /**
      * Sets a process listener that can be used to access the ProcessAccess instance
      * before it can be retrieved from a ProcessFuture.
@@ -530,6 +556,32 @@ public class FFprobe {
         return this;
     }
 
+    /**
+     * Sets the tag used by {@link io.v47.jaffree.process.ExecutionGovernor} to apply
+     * per-tag concurrency limits.
+     *
+     * @param executionTag execution tag
+     * @return this
+     * @see io.v47.jaffree.process.ProcessConfig#setExecutionGovernor
+     */
+    public FFprobe setExecutionTag(final String executionTag) {
+        this.executionTag = executionTag;
+        return this;
+    }
+
+    /**
+     * Sets the priority of this execution if it has to wait for
+     * {@link io.v47.jaffree.process.ExecutionGovernor} to start it. Executions with a higher
+     * priority are started first. Default is 0.
+     *
+     * @param priority execution priority
+     * @return this
+     */
+    public FFprobe setPriority(final int priority) {
+        this.priority = priority;
+        return this;
+    }
+
     /**
      * Starts synchronous ffprobe execution.
      * <p>
@@ -555,14 +607,41 @@ public class FFprobe {
             }
         }
 
+        var processHandler = new FFprobeProcessHandler(formatParser, logCapturePolicy);
+        helpers.add(processHandler.getParserHelper());
+
         return new ProcessRunner<>(executable,
                 buildArguments(),
                 helpers,
-                new FFprobeProcessHandler(formatParser),
-                processListener)
+                processHandler,
+                processListener,
+                executionTag,
+                priority)
                 .executeAsync();
     }
 
+    /**
+     * Starts asynchronous execution of multiple ffprobe jobs.
+     * <p>
+     * At most {@link BatchOptions#getParallelism()} jobs run at the same time. Iterate over the
+     * returned batch to receive results in the order the jobs finish, or call
+     * {@link BatchExecution#await()} to wait for all of them and get throughput and latency
+     * statistics.
+     *
+     * @param jobs    ffprobe jobs to execute
+     * @param options batch options
+     * @return running batch
+     */
+    public static BatchExecution<FFprobeResult> executeAll(final Collection<FFprobe> jobs,
+                                                          final BatchOptions options) {
+        var suppliers = new ArrayList<Supplier<ProcessFuture<FFprobeResult>>>(jobs.size());
+        for (FFprobe job : jobs) {
+            suppliers.add(job::executeAsync);
+        }
+
+        return BatchExecution.start(suppliers, options);
+    }
+
     /**
      * Constructs ffprobe command line.
      *
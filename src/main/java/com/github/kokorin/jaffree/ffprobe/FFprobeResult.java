@@ -19,6 +19,7 @@ package com.github.kokorin.jaffree.ffprobe;
 
 import com.github.kokorin.jaffree.StreamType;
 import com.github.kokorin.jaffree.ffprobe.data.ProbeData;
+import io.v47.jaffree.process.ResourceUsage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,6 +30,7 @@ import java.util.List;
  */
 public class FFprobeResult {
     private final ProbeData probeData;
+    private final ResourceUsage resourceUsage;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FFprobeResult.class);
 
@@ -38,7 +40,28 @@ public class FFprobeResult {
      * @param probeData parsed ffprobe output
      */
     public FFprobeResult(final ProbeData probeData) {
+        this(probeData, null);
+    }
+
+    /**
+     * Constructs {@link FFprobeResult} from parsed {@link ProbeData}.
+     *
+     * @param probeData     parsed ffprobe output
+     * @param resourceUsage resources used by ffprobe, may be null
+     */
+    public FFprobeResult(final ProbeData probeData, final ResourceUsage resourceUsage) {
         this.probeData = probeData;
+        this.resourceUsage = resourceUsage;
+    }
+
+    /**
+     * Returns the resources used by ffprobe, as sampled last before it exited.
+     *
+     * @return resource usage or null if sampling is disabled
+     * @see io.v47.jaffree.process.ProcessConfig#setResourceSamplingIntervalMillis
+     */
+    public ResourceUsage getResourceUsage() {
+        return resourceUsage;
     }
 
     /**
@@ -61,6 +61,9 @@ public class FlatFormatParser implements FormatParser {
 
         while (lines.hasNext()) {
             String line = lines.next();
+            if (line.isEmpty()) {
+                continue;
+            }
 
             try {
                 String[] keyValue = line.split("=", 2);
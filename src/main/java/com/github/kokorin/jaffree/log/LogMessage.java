@@ -26,6 +26,10 @@ import com.github.kokorin.jaffree.LogLevel;
 public class LogMessage {
     public final LogLevel logLevel;
     public final String message;
+    /**
+     * How many times the message was repeated in a row, 1 unless duplicates were collapsed.
+     */
+    public final int count;
 
     /**
      * Creates {@link LogMessage}.
@@ -34,7 +38,19 @@ public class LogMessage {
      * @param message  message
      */
     public LogMessage(final LogLevel logLevel, final String message) {
+        this(logLevel, message, 1);
+    }
+
+    /**
+     * Creates {@link LogMessage}.
+     *
+     * @param logLevel log level
+     * @param message  message
+     * @param count    how many times the message was repeated in a row
+     */
+    public LogMessage(final LogLevel logLevel, final String message, final int count) {
         this.logLevel = logLevel;
         this.message = message;
+        this.count = count;
     }
 }
@@ -22,6 +22,10 @@ import java.net.Socket;
 
 /**
  * Implement {@link TcpNegotiator} to interact with ffmpeg (or ffprobe) via TCP socket.
+ * <p>
+ * {@link #negotiate(Socket)} blocks on socket I/O for as long as ffmpeg runs. Implementations
+ * which need mutual exclusion should use a {@link java.util.concurrent.locks.Lock} instead of
+ * {@code synchronized}: blocking inside a monitor pins virtual threads to their carrier.
  */
 public interface TcpNegotiator {
     //TODO check it's worth replacing with
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.kokorin.jaffree.nut;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Pool of reusable frame data buffers.
+ * <p>
+ * Buffers are handed out by {@link NutReader#readFrame(FrameBufferPool)} and returned with
+ * {@link NutFrame#release()}. In steady state (frames of the same size) no buffers are
+ * allocated at all.
+ * <p>
+ * The pool is thread-safe, so frames can be released on a thread other than the reading one.
+ * <p>
+ * Buffers are allocated on heap by default. Direct buffers live off-heap and can be passed
+ * to native code without copying.
+ */
+public class FrameBufferPool {
+    /**
+     * Default number of buffers kept in the pool.
+     */
+    public static final int DEFAULT_MAX_POOLED = 8;
+
+    private final int maxPooled;
+    private final boolean direct;
+    private final ArrayDeque<ByteBuffer> buffers;
+
+    /**
+     * Creates {@link FrameBufferPool} keeping up to {@link #DEFAULT_MAX_POOLED} buffers.
+     */
+    public FrameBufferPool() {
+        this(DEFAULT_MAX_POOLED);
+    }
+
+    /**
+     * Creates {@link FrameBufferPool}.
+     *
+     * @param maxPooled maximum number of buffers kept in the pool
+     */
+    public FrameBufferPool(final int maxPooled) {
+        this(maxPooled, false);
+    }
+
+    /**
+     * Creates {@link FrameBufferPool}.
+     *
+     * @param maxPooled maximum number of buffers kept in the pool
+     * @param direct    true to allocate direct (off-heap) buffers
+     */
+    public FrameBufferPool(final int maxPooled, final boolean direct) {
+        if (maxPooled <= 0) {
+            throw new IllegalArgumentException("maxPooled must be positive");
+        }
+
+        this.maxPooled = maxPooled;
+        this.direct = direct;
+        this.buffers = new ArrayDeque<>(maxPooled);
+    }
+
+    /**
+     * @return true if the pool allocates direct (off-heap) buffers
+     */
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * Returns a buffer with position 0 and limit set to the requested size. A pooled buffer
+     * is reused if it's large enough, otherwise a new one is allocated.
+     *
+     * @param size required size in bytes
+     * @return buffer
+     */
+    public ByteBuffer acquire(final int size) {
+        ByteBuffer result = null;
+
+        synchronized (buffers) {
+            Iterator<ByteBuffer> iterator = buffers.iterator();
+            while (iterator.hasNext()) {
+                ByteBuffer buffer = iterator.next();
+                if (buffer.capacity() >= size) {
+                    iterator.remove();
+                    result = buffer;
+                    break;
+                }
+            }
+        }
+
+        if (result == null) {
+            result = direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+        }
+
+        result.clear();
+        result.limit(size);
+
+        return result;
+    }
+
+    /**
+     * Returns a buffer to the pool. The buffer must not be used afterwards.
+     * <p>
+     * If the pool is full the smallest buffer is dropped.
+     *
+     * @param buffer buffer to return
+     */
+    public void release(final ByteBuffer buffer) {
+        synchronized (buffers) {
+            if (buffers.size() >= maxPooled) {
+                ByteBuffer smallest = buffer;
+                for (ByteBuffer pooled : buffers) {
+                    if (pooled.capacity() < smallest.capacity()) {
+                        smallest = pooled;
+                    }
+                }
+
+                if (smallest == buffer) {
+                    return;
+                }
+
+                // ByteBuffer.equals compares content, remove by identity
+                Iterator<ByteBuffer> iterator = buffers.iterator();
+                while (iterator.hasNext()) {
+                    if (iterator.next() == smallest) {
+                        iterator.remove();
+                        break;
+                    }
+                }
+            }
+
+            // most recently used buffers are checked first
+            buffers.addFirst(buffer);
+        }
+    }
+
+    /**
+     * @return number of buffers currently available in the pool
+     */
+    public int size() {
+        synchronized (buffers) {
+            return buffers.size();
+        }
+    }
+}
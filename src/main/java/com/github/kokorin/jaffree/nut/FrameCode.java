@@ -31,6 +31,11 @@ import java.util.Set;
 public class FrameCode {
     public final Set<Flag> flags;
 
+    /**
+     * {@link #flags} as a bitmask, see {@link Flag#code}.
+     */
+    public final long flagsMask;
+
     /**
      * If {@link Flag#STREAM_ID} is not set then this is the stream number for the
      * frame following this frame_code.
@@ -123,6 +128,7 @@ public class FrameCode {
                      final int dataSizeLsb, final long ptsDelta, final long reservedCount,
                      final long matchTimeDelta, final long elisionHeaderIdx) {
         this.flags = flags;
+        this.flagsMask = Flag.toBitCode(flags);
         this.streamId = streamId;
         this.dataSizeMul = dataSizeMul;
         this.dataSizeLsb = dataSizeLsb;
@@ -225,7 +231,10 @@ public class FrameCode {
          */
         INVALID(1 << 13);
 
-        private final long code;
+        /**
+         * Bit of the flag in NUT flags value.
+         */
+        public final long code;
 
         Flag(final long code) {
             this.code = code;
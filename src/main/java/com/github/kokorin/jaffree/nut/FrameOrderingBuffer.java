@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.kokorin.jaffree.nut;
+
+import com.github.kokorin.jaffree.Rational;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Buffers frames written by {@link NutWriter} and hands them out ordered by timestamp.
+ * <p>
+ * Timestamps of all time bases are converted to ticks of a common time base, whose
+ * denominator is the least common multiple of all time base denominators. So ordering frames
+ * takes a single {@code long} comparison and no {@link Rational} is allocated per frame.
+ * If ticks don't fit into {@code long}, the buffer switches to {@link BigInteger} ticks.
+ * <p>
+ * Frames with equal timestamps are handed out in the order they were added.
+ */
+class FrameOrderingBuffer {
+    private static final Comparator<Entry> TICKS_ORDER = (a, b) -> {
+        int result = Long.compare(a.ticks, b.ticks);
+        return result != 0 ? result : Long.compare(a.seq, b.seq);
+    };
+    private static final Comparator<Entry> BIG_TICKS_ORDER = (a, b) -> {
+        int result = a.bigTicks.compareTo(b.bigTicks);
+        return result != 0 ? result : Long.compare(a.seq, b.seq);
+    };
+    private static final BigInteger MILLIS_PER_SECOND = BigInteger.valueOf(1000);
+
+    private final Rational[] timeBases;
+    private final long windowMillis;
+    // ticks per pts unit for every time base, null if ticks overflow
+    private long[] ticksPerPts;
+    private long windowTicks;
+    // used only if ticks overflow
+    private BigInteger[] bigTicksPerPts;
+    private BigInteger bigWindow;
+
+    private PriorityQueue<Entry> queue = new PriorityQueue<>(TICKS_ORDER);
+    private long seq = 0;
+    // the greatest timestamp in the buffer
+    private long maxTicks;
+    private BigInteger maxBigTicks;
+
+    /**
+     * Creates {@link FrameOrderingBuffer}.
+     *
+     * @param timeBases    time bases of the NUT file
+     * @param windowMillis frames are held back until a frame which is later by more than
+     *                     this is added
+     */
+    @SuppressWarnings("checkstyle:MagicNumber")
+    FrameOrderingBuffer(final Rational[] timeBases, final long windowMillis) {
+        this.timeBases = timeBases;
+        this.windowMillis = windowMillis;
+
+        try {
+            long denominator = 1;
+            for (Rational timeBase : timeBases) {
+                denominator = lcm(denominator, timeBase.getDenominator());
+            }
+
+            long[] multipliers = new long[timeBases.length];
+            for (int i = 0; i < timeBases.length; i++) {
+                multipliers[i] = Math.multiplyExact(timeBases[i].getNumerator(),
+                        denominator / timeBases[i].getDenominator());
+            }
+
+            // ticks are integers: ticks > millis * denominator / 1000 <=> ticks > floor(...)
+            this.windowTicks = Math.floorDiv(Math.multiplyExact(windowMillis, denominator), 1000);
+            this.ticksPerPts = multipliers;
+        } catch (ArithmeticException e) {
+            useBigTicks();
+        }
+    }
+
+    /**
+     * Adds frame to the buffer.
+     *
+     * @param frame      frame
+     * @param timeBaseId time base of the frame's stream
+     */
+    void add(final NutFrame frame, final int timeBaseId) {
+        Entry entry = new Entry(frame, timeBaseId, seq++);
+
+        if (ticksPerPts != null) {
+            try {
+                entry.ticks = Math.multiplyExact(frame.pts, ticksPerPts[timeBaseId]);
+            } catch (ArithmeticException e) {
+                useBigTicks();
+            }
+        }
+
+        if (ticksPerPts != null) {
+            if (queue.isEmpty() || entry.ticks > maxTicks) {
+                maxTicks = entry.ticks;
+            }
+        } else {
+            entry.bigTicks = bigTicks(timeBaseId, frame.pts);
+            if (queue.isEmpty() || entry.bigTicks.compareTo(maxBigTicks) > 0) {
+                maxBigTicks = entry.bigTicks;
+            }
+        }
+
+        queue.add(entry);
+    }
+
+    /**
+     * Removes the earliest frame if it's earlier than the latest one by more than the window.
+     *
+     * @return frame or null if no frame can be written yet
+     */
+    NutFrame pollReady() {
+        Entry head = queue.peek();
+        if (head == null) {
+            return null;
+        }
+
+        boolean ready;
+        if (ticksPerPts != null) {
+            long diff = maxTicks - head.ticks;
+            // overflow means the difference is greater than any window
+            ready = diff < 0 || diff > windowTicks;
+        } else {
+            ready = maxBigTicks.subtract(head.bigTicks).multiply(MILLIS_PER_SECOND)
+                    .compareTo(bigWindow) > 0;
+        }
+
+        return ready ? poll() : null;
+    }
+
+    /**
+     * Removes the earliest frame regardless of the window.
+     *
+     * @return frame or null if the buffer is empty
+     */
+    NutFrame poll() {
+        Entry head = queue.poll();
+        return head != null ? head.frame : null;
+    }
+
+    /**
+     * Compares timestamps given in (possibly different) time bases.
+     *
+     * @param timeBaseId1 time base of the first timestamp
+     * @param pts1        first timestamp
+     * @param timeBaseId2 time base of the second timestamp
+     * @param pts2        second timestamp
+     * @return negative, zero or positive if the first timestamp is less, equal or greater
+     */
+    int compare(final int timeBaseId1, final long pts1, final int timeBaseId2, final long pts2) {
+        if (ticksPerPts != null) {
+            try {
+                return Long.compare(Math.multiplyExact(pts1, ticksPerPts[timeBaseId1]),
+                        Math.multiplyExact(pts2, ticksPerPts[timeBaseId2]));
+            } catch (ArithmeticException e) {
+                useBigTicks();
+            }
+        }
+
+        return bigTicks(timeBaseId1, pts1).compareTo(bigTicks(timeBaseId2, pts2));
+    }
+
+    /**
+     * Returns timestamp in seconds.
+     *
+     * @param timeBaseId time base
+     * @param pts        timestamp in the time base
+     * @return timestamp
+     */
+    Rational timestamp(final int timeBaseId, final long pts) {
+        return timeBases[timeBaseId].multiply(pts);
+    }
+
+    private BigInteger bigTicks(final int timeBaseId, final long pts) {
+        return bigTicksPerPts[timeBaseId].multiply(BigInteger.valueOf(pts));
+    }
+
+    private void useBigTicks() {
+        ticksPerPts = null;
+
+        BigInteger denominator = BigInteger.ONE;
+        for (Rational timeBase : timeBases) {
+            BigInteger value = BigInteger.valueOf(timeBase.getDenominator());
+            denominator = denominator.divide(denominator.gcd(value)).multiply(value);
+        }
+
+        bigTicksPerPts = new BigInteger[timeBases.length];
+        for (int i = 0; i < timeBases.length; i++) {
+            bigTicksPerPts[i] = BigInteger.valueOf(timeBases[i].getNumerator()).multiply(
+                    denominator.divide(BigInteger.valueOf(timeBases[i].getDenominator())));
+        }
+        bigWindow = BigInteger.valueOf(windowMillis).multiply(denominator);
+
+        List<Entry> entries = new ArrayList<>(queue);
+        queue = new PriorityQueue<>(BIG_TICKS_ORDER);
+        maxBigTicks = null;
+        for (Entry entry : entries) {
+            entry.bigTicks = bigTicks(entry.timeBaseId, entry.frame.pts);
+            if (maxBigTicks == null || entry.bigTicks.compareTo(maxBigTicks) > 0) {
+                maxBigTicks = entry.bigTicks;
+            }
+            queue.add(entry);
+        }
+    }
+
+    private static long lcm(final long a, final long b) {
+        long x = a;
+        long y = b;
+        while (y != 0) {
+            long t = x % y;
+            x = y;
+            y = t;
+        }
+        return Math.multiplyExact(a / x, b);
+    }
+
+    private static final class Entry {
+        private final NutFrame frame;
+        private final int timeBaseId;
+        private final long seq;
+        private long ticks;
+        private BigInteger bigTicks;
+
+        Entry(final NutFrame frame, final int timeBaseId, final long seq) {
+            this.frame = frame;
+            this.timeBaseId = timeBaseId;
+            this.seq = seq;
+        }
+    }
+}
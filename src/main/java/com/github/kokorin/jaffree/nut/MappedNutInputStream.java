@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.kokorin.jaffree.nut;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * {@link NutDataInput} which reads a file through memory-mapped windows.
+ * <p>
+ * Windows are mapped with {@link FileChannel#map} on demand, a window is remapped starting at
+ * the current position when data crosses its end. Slices returned by {@link #readSlice(int)}
+ * are views of the mapping, they stay valid while referenced even after the window moves on.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+final class MappedNutInputStream extends NutDataInput {
+    private final FileChannel channel;
+    private final long fileSize;
+    private final long windowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart = 0;
+    private long position = 0;
+
+    /**
+     * Creates {@link MappedNutInputStream}.
+     *
+     * @param channel    file channel
+     * @param windowSize size of mapped windows
+     * @throws IOException if any IO error
+     */
+    MappedNutInputStream(final FileChannel channel, final long windowSize) throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.windowSize = Math.min(windowSize, Integer.MAX_VALUE);
+        map(0, 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long readValue() throws IOException {
+        // Fast path: decode directly from the window if the value is complete there
+        int start = window.position();
+        int end = Math.min(window.limit(), start + MAX_VALUE_LENGTH);
+        long result = 0;
+        for (int pos = start; pos < end; pos++) {
+            byte read = window.get(pos);
+            result = (result << 7) + (read & 0x7F);
+            if (read >= 0) {
+                pos++;
+                window.position(pos);
+                position += pos - start;
+                return result;
+            }
+        }
+
+        // Value spans over the window boundary (or is malformed)
+        return readValueSlow();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long readLong() throws IOException {
+        require(8);
+        position += 8;
+        return window.getLong();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long readInt() throws IOException {
+        require(4);
+        position += 4;
+        return window.getInt() & 0xFFFFFFFFL;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int readByte() throws IOException {
+        require(1);
+        position++;
+        return window.get() & 0xFF;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String readCString() throws IOException {
+        int start = window.position();
+        int end = window.limit();
+        int pos = start;
+        while (pos < end && window.get(pos) != 0) {
+            pos++;
+        }
+
+        if (pos == end) {
+            // terminating zero is beyond the window (or missing)
+            return readCStringSlow();
+        }
+
+        byte[] result = new byte[pos - start];
+        window.get(result);
+        // skip terminating zero
+        window.get();
+        position += result.length + 1;
+
+        return new String(result);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int checkNextByte() throws IOException {
+        if (!available(1)) {
+            return -1;
+        }
+
+        return window.get(window.position()) & 0xFF;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasMoreData() throws IOException {
+        return position < fileSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public byte[] readBytes(final long toRead) throws IOException {
+        byte[] result = new byte[(int) toRead];
+        require(result.length);
+        window.get(result);
+        position += result.length;
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void readBytes(final ByteBuffer target) throws IOException {
+        int length = target.remaining();
+        require(length);
+
+        ByteBuffer source = window.duplicate();
+        source.limit(source.position() + length);
+        target.put(source);
+
+        window.position(window.position() + length);
+        position += length;
+    }
+
+    /**
+     * Returns a read-only view of the mapped file, no data is copied.
+     *
+     * @param length bytes to read
+     * @return read-only buffer with position 0 and limit set to length
+     * @throws IOException if any IO error
+     */
+    @Override
+    public ByteBuffer readSlice(final int length) throws IOException {
+        require(length);
+
+        ByteBuffer result = window.duplicate();
+        result.limit(result.position() + length);
+        result = result.slice().asReadOnlyBuffer();
+
+        window.position(window.position() + length);
+        position += length;
+
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void skipBytes(final long toSkip) throws IOException {
+        if (position + toSkip > fileSize) {
+            throw new EOFException("No more data");
+        }
+
+        seek(position + toSkip);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isSeekable() {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void seek(final long newPosition) throws IOException {
+        if (newPosition >= windowStart && newPosition <= windowStart + window.limit()) {
+            window.position((int) (newPosition - windowStart));
+        } else {
+            map(newPosition, 0);
+        }
+
+        position = newPosition;
+    }
+
+    /**
+     * Closes the file channel.
+     *
+     * @throws IOException if any IO error
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private String readCStringSlow() throws IOException {
+        try (ByteArrayOutputStream result = new ByteArrayOutputStream(32)) {
+            int read;
+            while ((read = readByte()) != 0) {
+                result.write(read);
+            }
+
+            return result.toString();
+        }
+    }
+
+    private void require(final int count) throws IOException {
+        if (!available(count)) {
+            throw new EOFException("No more data");
+        }
+    }
+
+    private boolean available(final int count) throws IOException {
+        if (window.remaining() >= count) {
+            return true;
+        }
+
+        if (position + count > fileSize) {
+            return false;
+        }
+
+        map(position, count);
+        return true;
+    }
+
+    private void map(final long start, final int minSize) throws IOException {
+        long size = Math.min(Math.max(windowSize, minSize), fileSize - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.max(size, 0));
+        windowStart = start;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.kokorin.jaffree.nut;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link NutReader} which reads a NUT file through memory-mapped windows.
+ * <p>
+ * Frames returned by {@link #readFrame()} don't copy data: {@link NutFrame#payload} is a
+ * read-only slice of the mapping and {@link NutFrame#data} is null. Headers are exposed the
+ * same way as by {@link NutReader}.
+ * <p>
+ * Slices must not be used after the reader is closed.
+ */
+public class MappedNutReader extends NutReader implements AutoCloseable {
+    /**
+     * Default size of mapped windows.
+     */
+    public static final long DEFAULT_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final MappedNutInputStream input;
+
+    /**
+     * Creates {@link MappedNutReader} with {@link #DEFAULT_WINDOW_SIZE}.
+     *
+     * @param file NUT file to read
+     * @throws IOException if any IO error
+     */
+    public MappedNutReader(final Path file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Creates {@link MappedNutReader}.
+     *
+     * @param file       NUT file to read
+     * @param windowSize size of mapped windows, frames larger than it are mapped separately
+     * @throws IOException if any IO error
+     */
+    public MappedNutReader(final Path file, final long windowSize) throws IOException {
+        this(open(file, windowSize));
+    }
+
+    private MappedNutReader(final MappedNutInputStream input) {
+        super(input);
+        this.input = input;
+    }
+
+    /**
+     * Returns next NUT frame, its payload is a read-only slice of the mapped file.
+     *
+     * @return frame
+     * @throws IOException if any IO error
+     */
+    @Override
+    public NutFrame readFrame() throws IOException {
+        return readFrameSlice();
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException if any IO error
+     */
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+
+    private static MappedNutInputStream open(final Path file, final long windowSize)
+            throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new MappedNutInputStream(channel, windowSize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.kokorin.jaffree.nut;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Source of Nut-specific data structures read by {@link NutReader}.
+ * <p>
+ * Implementations provide the primitive reads, the composite types are decoded here.
+ *
+ * @see NutInputStream
+ * @see MappedNutInputStream
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+abstract class NutDataInput implements AutoCloseable {
+    /**
+     * Maximum length of a v type value: 64 bits at 7 bits per byte.
+     */
+    static final int MAX_VALUE_LENGTH = 10;
+
+    /**
+     * @return current position
+     */
+    public abstract long getPosition();
+
+    /**
+     * Reads v type (variable length value, unsigned).
+     *
+     * @return unsigned value
+     * @throws IOException if any IO error
+     */
+    public abstract long readValue() throws IOException;
+
+    /**
+     * Reads f(n) type (n fixed bits in big-endian order).
+     * n == 64
+     *
+     * @return long
+     * @throws IOException if any IO error
+     */
+    public abstract long readLong() throws IOException;
+
+    /**
+     * Reads u(n) type (unsigned number encoded in n bits in MSB-first order).
+     * n == 32
+     *
+     * @return int as long
+     * @throws IOException if any IO error
+     */
+    abstract long readInt() throws IOException;
+
+    /**
+     * Reads f(n) type (n fixed bits in big-endian order).
+     * n == 8
+     *
+     * @return byte
+     * @throws IOException if any IO error
+     */
+    public abstract int readByte() throws IOException;
+
+    /**
+     * Reads null-terminated string.
+     *
+     * @return String
+     * @throws IOException if any IO error
+     */
+    public abstract String readCString() throws IOException;
+
+    /**
+     * Returns next byte (if available), which will be read with any read*() method.
+     *
+     * @return next byte, or -1 if the end of the input is reached
+     * @throws IOException if any IO error
+     */
+    public abstract int checkNextByte() throws IOException;
+
+    /**
+     * Returns true if input contains more data.
+     *
+     * @return next byte
+     * @throws IOException if any IO error
+     */
+    public abstract boolean hasMoreData() throws IOException;
+
+    /**
+     * Reads specified number of bytes.
+     *
+     * @param toRead bytes to read
+     * @return byte array
+     * @throws IOException if any IO error
+     */
+    public abstract byte[] readBytes(long toRead) throws IOException;
+
+    /**
+     * Reads bytes into the remaining space of the target buffer.
+     *
+     * @param target buffer to fill
+     * @throws IOException if any IO error
+     */
+    public abstract void readBytes(ByteBuffer target) throws IOException;
+
+    /**
+     * Reads specified number of bytes as a read-only buffer.
+     *
+     * @param length bytes to read
+     * @return read-only buffer with position 0 and limit set to length
+     * @throws IOException if any IO error
+     */
+    public abstract ByteBuffer readSlice(int length) throws IOException;
+
+    /**
+     * Skips specified number of bytes.
+     *
+     * @param toSkip bytes to skip
+     * @throws IOException if any IO error
+     */
+    public abstract void skipBytes(long toSkip) throws IOException;
+
+    /**
+     * Returns true if the input can be repositioned with {@link #seek(long)}.
+     *
+     * @return true if seekable
+     */
+    public abstract boolean isSeekable();
+
+    /**
+     * Moves to the specified position.
+     *
+     * @param newPosition position to move to
+     * @throws IOException if any IO error
+     * @see #isSeekable()
+     */
+    public abstract void seek(long newPosition) throws IOException;
+
+    /**
+     * Reads s type (variable length value, signed).
+     *
+     * @return signed value
+     * @throws IOException if any IO error
+     */
+    public long readSignedValue() throws IOException {
+        long tmp = readValue();
+        tmp++;
+        if ((tmp & 1) > 0) {
+            return -(tmp >> 1);
+        }
+
+        return tmp >> 1;
+    }
+
+    /**
+     * Reads vb type (variable length binary data or string).
+     *
+     * @return String
+     * @throws IOException if any IO error
+     */
+    public String readVariableString() throws IOException {
+        byte[] bytes = readVariableBytes();
+        return new String(bytes);
+    }
+
+    /**
+     * Reads vb type (variable length binary data or string).
+     *
+     * @return String
+     * @throws IOException if any IO error
+     */
+    public byte[] readVariableBytes() throws IOException {
+        int length = (int) readValue();
+        return readBytes(length);
+    }
+
+    /**
+     * Reads t type (v coded universal timestamp).
+     *
+     * @param timeBaseCount time base count
+     * @return Timestamp
+     * @throws IOException if any IO error
+     */
+    public Timestamp readTimestamp(final int timeBaseCount) throws IOException {
+        long tmp = readValue();
+        int timebaseId = (int) (tmp % timeBaseCount);
+        long pts = tmp / timeBaseCount;
+
+        return new Timestamp(timebaseId, pts);
+    }
+
+    /**
+     * Reads the remaining bytes of a v type value byte by byte, used when the value isn't
+     * completely available for decoding in one piece.
+     *
+     * @return unsigned value
+     * @throws IOException if any IO error
+     */
+    final long readValueSlow() throws IOException {
+        long result = 0;
+        boolean hasMore = true;
+
+        while (hasMore) {
+            int read = readByte();
+            hasMore = (read & 0x80) > 0;
+            result = (result << 7) + (read & 0x7F);
+        }
+
+        return result;
+    }
+}
@@ -17,6 +17,9 @@
 
 package com.github.kokorin.jaffree.nut;
 
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Nut frame.
  */
@@ -34,9 +37,19 @@ public class NutFrame {
 
     /**
      * Frame's data.
+     * <p>
+     * Null if the frame was read into a pooled buffer, see {@link #payload}.
      */
     public final byte[] data;
 
+    /**
+     * Frame's data, position is 0 and limit is the data size.
+     * <p>
+     * If the frame was read with {@link NutReader#readFrame(FrameBufferPool)} the buffer belongs
+     * to the pool and must not be used after {@link #release()}.
+     */
+    public final ByteBuffer payload;
+
     /**
      * Frame's side data.
      */
@@ -64,6 +77,9 @@ public class NutFrame {
      */
     public final boolean eor;
 
+    private final FrameBufferPool pool;
+    private final AtomicBoolean released = new AtomicBoolean(false);
+
     /**
      * Creates {@link NutFrame}.
      *
@@ -82,10 +98,51 @@ public class NutFrame {
         this.streamId = streamId;
         this.pts = pts;
         this.data = data;
+        this.payload = data != null ? ByteBuffer.wrap(data) : null;
+        this.sideData = sideData;
+        this.metaData = metaData;
+        this.keyframe = keyframe;
+        this.eor = eor;
+        this.pool = null;
+    }
+
+    /**
+     * Creates {@link NutFrame} with data in a buffer.
+     *
+     * @param streamId stream ID
+     * @param pts      PTS
+     * @param payload  data
+     * @param sideData side data
+     * @param metaData metadata
+     * @param keyframe keyframe
+     * @param eor      end-of-relevance
+     * @param pool     pool to return payload to on {@link #release()}, or null
+     */
+    public NutFrame(final int streamId, final long pts,
+                    final ByteBuffer payload,
+                    final DataItem[] sideData, final DataItem[] metaData,
+                    final boolean keyframe, final boolean eor,
+                    final FrameBufferPool pool) {
+        this.streamId = streamId;
+        this.pts = pts;
+        this.data = null;
+        this.payload = payload;
         this.sideData = sideData;
         this.metaData = metaData;
         this.keyframe = keyframe;
         this.eor = eor;
+        this.pool = pool;
+    }
+
+    /**
+     * Returns frame's data buffer to the pool it was taken from. Does nothing if the frame
+     * isn't backed by a pooled buffer or was already released. Safe to call from any thread,
+     * the buffer is returned at most once.
+     */
+    public void release() {
+        if (pool != null && released.compareAndSet(false, true)) {
+            pool.release(payload);
+        }
     }
 
     /**
@@ -96,7 +153,7 @@ public class NutFrame {
         return "NutFrame{"
                 + "streamId=" + streamId
                 + ", pts=" + pts
-                + ", data=" + (data != null ? data.length : "null")
+                + ", data=" + (payload != null ? payload.limit() : "null")
                 + ", sideData=" + (sideData != null ? sideData.length : "null")
                 + ", metaData=" + (metaData != null ? metaData.length : "null")
                 + ", keyframe=" + keyframe
@@ -0,0 +1,491 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.kokorin.jaffree.nut;
+
+import com.github.kokorin.jaffree.JaffreeException;
+import com.github.kokorin.jaffree.Rational;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Index of NUT syncpoints, which maps presentation timestamps to byte offsets.
+ * <p>
+ * The index is built by scanning the file for syncpoint startcodes, every candidate is
+ * verified with the packet checksum. It can be saved next to the file and loaded later, see
+ * {@link #forFile(Path)}.
+ * <p>
+ * Used by {@link NutReader#seek(NutIndex, int, long)}.
+ */
+@SuppressWarnings("checkstyle:MagicNumber")
+public final class NutIndex {
+    /**
+     * Extension of index files, appended to NUT file name.
+     */
+    public static final String FILE_EXTENSION = ".idx";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NutIndex.class);
+
+    private static final int FILE_MAGIC = 0x4E555449; // NUTI
+    private static final int FILE_VERSION = 1;
+
+    private static final int SCAN_BUFFER_SIZE = 1024 * 1024;
+    // Syncpoint contains 2 or 3 values only (up to 10 bytes each) and a checksum
+    private static final int MAX_SYNCPOINT_SIZE = 64;
+
+    private final long fileSize;
+    private final Rational[] timeBases;
+    private final int[] streamTimeBaseIds;
+
+    private final long[] positions;
+    private final int[] ptsTimeBaseIds;
+    private final long[] globalKeyPts;
+    private final long[] backPtrDiv16;
+
+    // Syncpoint PTS converted to timebase of each stream, non-decreasing
+    private final long[][] streamPts;
+
+    private NutIndex(final long fileSize, final Rational[] timeBases,
+                     final int[] streamTimeBaseIds, final long[] positions,
+                     final int[] ptsTimeBaseIds, final long[] globalKeyPts,
+                     final long[] backPtrDiv16) {
+        this.fileSize = fileSize;
+        this.timeBases = timeBases;
+        this.streamTimeBaseIds = streamTimeBaseIds;
+        this.positions = positions;
+        this.ptsTimeBaseIds = ptsTimeBaseIds;
+        this.globalKeyPts = globalKeyPts;
+        this.backPtrDiv16 = backPtrDiv16;
+
+        this.streamPts = new long[streamTimeBaseIds.length][positions.length];
+        for (int stream = 0; stream < streamTimeBaseIds.length; stream++) {
+            Rational streamTimeBase = timeBases[streamTimeBaseIds[stream]];
+            for (int i = 0; i < positions.length; i++) {
+                streamPts[stream][i] = Util.convertTimestamp(globalKeyPts[i],
+                        timeBases[ptsTimeBaseIds[i]], streamTimeBase);
+            }
+        }
+    }
+
+    /**
+     * @return size of the indexed file at the time the index was built
+     */
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    /**
+     * @return number of indexed syncpoints
+     */
+    public int getSyncPointCount() {
+        return positions.length;
+    }
+
+    /**
+     * Returns offset of the syncpoint with the specified index.
+     *
+     * @param i syncpoint index
+     * @return byte offset of the syncpoint startcode
+     */
+    public long getPosition(final int i) {
+        return positions[i];
+    }
+
+    /**
+     * Returns global key PTS of the syncpoint with the specified index in the timebase of the
+     * specified stream.
+     *
+     * @param i        syncpoint index
+     * @param streamId stream ID
+     * @return PTS in stream timebase
+     */
+    public long getPts(final int i, final int streamId) {
+        return streamPts[streamId][i];
+    }
+
+    /**
+     * Returns the offset to start reading from to decode the specified stream at the specified
+     * PTS.
+     * <p>
+     * The last syncpoint with PTS lower or equal to the requested one is looked up with binary
+     * search, then its back_ptr is followed. Per NUT specification the syncpoint pointed to by
+     * back_ptr is followed by a keyframe of every stream at or before the requested PTS.
+     *
+     * @param streamId stream ID
+     * @param pts      PTS in stream timebase
+     * @return offset of a syncpoint startcode or -1 if the index is empty
+     */
+    public long findPosition(final int streamId, final long pts) {
+        if (positions.length == 0) {
+            return -1;
+        }
+
+        int found = Arrays.binarySearch(streamPts[streamId], pts);
+        if (found < 0) {
+            // insertion point minus one: last syncpoint with lower PTS
+            found = -found - 2;
+        } else {
+            // several syncpoints may share the same PTS, take the first one
+            while (found > 0 && streamPts[streamId][found - 1] == pts) {
+                found--;
+            }
+        }
+
+        if (found < 0) {
+            return positions[0];
+        }
+
+        /*
+            back_ptr = back_ptr_div16 * 16 + 15
+            back_ptr must point to a position up to 15 bytes before a syncpoint
+            startcode, relative to position of current syncpoint.
+         */
+        long backPtr = backPtrDiv16[found] * 16 + 15;
+        long target = positions[found] - backPtr;
+        int referenced = Arrays.binarySearch(positions, 0, found, target);
+        if (referenced < 0) {
+            referenced = -referenced - 1;
+        }
+
+        if (referenced < found && positions[referenced] - target <= 15) {
+            return positions[referenced];
+        }
+
+        // back_ptr doesn't point to an indexed syncpoint (e.g. damaged file), fall back
+        return positions[found];
+    }
+
+    /**
+     * Returns index of the specified file. A previously saved index is loaded if it's up to date,
+     * otherwise the file is scanned and the index is saved next to it. Failure to save the index
+     * is logged, the built index is returned anyway.
+     *
+     * @param nutFile NUT file
+     * @return index
+     * @throws IOException if any IO error
+     */
+    public static NutIndex forFile(final Path nutFile) throws IOException {
+        Path indexFile = indexFileFor(nutFile);
+
+        if (Files.isRegularFile(indexFile) && !Files.getLastModifiedTime(indexFile)
+                .toInstant().isBefore(Files.getLastModifiedTime(nutFile).toInstant())) {
+            NutIndex result = load(indexFile);
+            if (result.fileSize == Files.size(nutFile)) {
+                return result;
+            }
+        }
+
+        final NutIndex result;
+        try (FileChannel channel = FileChannel.open(nutFile, StandardOpenOption.READ)) {
+            result = build(channel);
+        }
+
+        try {
+            result.save(indexFile);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to save NUT index: {}", indexFile, e);
+            // don't leave a partially written index behind
+            if (Files.isRegularFile(indexFile)) {
+                try {
+                    Files.delete(indexFile);
+                } catch (IOException ignored) {
+                    // nothing else can be done
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns path of the index file for the specified NUT file.
+     *
+     * @param nutFile NUT file
+     * @return path of index file
+     */
+    public static Path indexFileFor(final Path nutFile) {
+        return nutFile.resolveSibling(nutFile.getFileName() + FILE_EXTENSION);
+    }
+
+    /**
+     * Builds index by scanning the channel from the beginning.
+     * <p>
+     * Channel's position is changed.
+     *
+     * @param channel channel to scan
+     * @return index
+     * @throws IOException if any IO error
+     */
+    public static NutIndex build(final SeekableByteChannel channel) throws IOException {
+        channel.position(0);
+        NutReader headerReader = new NutReader(new NutInputStream(channel));
+        MainHeader mainHeader = headerReader.getMainHeader();
+        StreamHeader[] streamHeaders = headerReader.getStreamHeaders();
+
+        int[] streamTimeBaseIds = new int[streamHeaders.length];
+        for (int i = 0; i < streamHeaders.length; i++) {
+            streamTimeBaseIds[i] = streamHeaders[i].timeBaseId;
+        }
+
+        Scanner scanner = new Scanner(channel, mainHeader.timeBases.length,
+                mainHeader.flags.contains(MainHeader.Flag.BROADCAST_MODE));
+        scanner.scan();
+
+        return new NutIndex(channel.size(), mainHeader.timeBases.clone(), streamTimeBaseIds,
+                Arrays.copyOf(scanner.positions, scanner.count),
+                Arrays.copyOf(scanner.ptsTimeBaseIds, scanner.count),
+                Arrays.copyOf(scanner.globalKeyPts, scanner.count),
+                Arrays.copyOf(scanner.backPtrDiv16, scanner.count));
+    }
+
+    /**
+     * Saves index to the specified file.
+     *
+     * @param indexFile file to save to
+     * @throws IOException if any IO error
+     */
+    public void save(final Path indexFile) throws IOException {
+        try (OutputStream output = Files.newOutputStream(indexFile);
+             DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output))) {
+            data.writeInt(FILE_MAGIC);
+            data.writeInt(FILE_VERSION);
+            data.writeLong(fileSize);
+
+            data.writeInt(timeBases.length);
+            for (Rational timeBase : timeBases) {
+                data.writeLong(timeBase.getNumerator());
+                data.writeLong(timeBase.getDenominator());
+            }
+
+            data.writeInt(streamTimeBaseIds.length);
+            for (int timeBaseId : streamTimeBaseIds) {
+                data.writeInt(timeBaseId);
+            }
+
+            data.writeInt(positions.length);
+            for (int i = 0; i < positions.length; i++) {
+                data.writeLong(positions[i]);
+                data.writeInt(ptsTimeBaseIds[i]);
+                data.writeLong(globalKeyPts[i]);
+                data.writeLong(backPtrDiv16[i]);
+            }
+        }
+    }
+
+    /**
+     * Loads index from the specified file.
+     *
+     * @param indexFile file to load from
+     * @return index
+     * @throws IOException if any IO error
+     */
+    public static NutIndex load(final Path indexFile) throws IOException {
+        try (InputStream input = Files.newInputStream(indexFile);
+             DataInputStream data = new DataInputStream(new BufferedInputStream(input))) {
+            if (data.readInt() != FILE_MAGIC || data.readInt() != FILE_VERSION) {
+                throw new JaffreeException("Not a NUT index file: " + indexFile);
+            }
+
+            long fileSize = data.readLong();
+
+            Rational[] timeBases = new Rational[data.readInt()];
+            for (int i = 0; i < timeBases.length; i++) {
+                timeBases[i] = new Rational(data.readLong(), data.readLong());
+            }
+
+            int[] streamTimeBaseIds = new int[data.readInt()];
+            for (int i = 0; i < streamTimeBaseIds.length; i++) {
+                streamTimeBaseIds[i] = data.readInt();
+            }
+
+            int count = data.readInt();
+            long[] positions = new long[count];
+            int[] ptsTimeBaseIds = new int[count];
+            long[] globalKeyPts = new long[count];
+            long[] backPtrDiv16 = new long[count];
+            for (int i = 0; i < count; i++) {
+                positions[i] = data.readLong();
+                ptsTimeBaseIds[i] = data.readInt();
+                globalKeyPts[i] = data.readLong();
+                backPtrDiv16[i] = data.readLong();
+            }
+
+            return new NutIndex(fileSize, timeBases, streamTimeBaseIds, positions,
+                    ptsTimeBaseIds, globalKeyPts, backPtrDiv16);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "NutIndex{"
+                + "fileSize=" + fileSize
+                + ", syncPoints=" + positions.length
+                + '}';
+    }
+
+    /**
+     * Looks for syncpoint startcodes and verifies candidates with packet checksum.
+     */
+    private static final class Scanner {
+        private final SeekableByteChannel channel;
+        private final int timeBaseCount;
+        private final boolean broadcastMode;
+
+        private final CRC32 crc32 = new CRC32();
+        private final ByteBuffer packet = ByteBuffer.allocate(MAX_SYNCPOINT_SIZE);
+        private int packetPos;
+
+        private long[] positions = new long[1024];
+        private int[] ptsTimeBaseIds = new int[1024];
+        private long[] globalKeyPts = new long[1024];
+        private long[] backPtrDiv16 = new long[1024];
+        private int count = 0;
+
+        Scanner(final SeekableByteChannel channel, final int timeBaseCount,
+                final boolean broadcastMode) {
+            this.channel = channel;
+            this.timeBaseCount = timeBaseCount;
+            this.broadcastMode = broadcastMode;
+        }
+
+        void scan() throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+            byte[] array = buffer.array();
+
+            long bufferStart = 0;
+            long window = 0;
+            channel.position(0);
+
+            int read;
+            while ((read = channel.read(buffer)) != -1) {
+                if (read == 0) {
+                    continue;
+                }
+
+                int end = buffer.position();
+                for (int i = 0; i < end; i++) {
+                    window = (window << 8) | (array[i] & 0xFF);
+                    if (window == NutConst.SYNCPOINT_STARTCODE) {
+                        long startcodePosition = bufferStart + i - 7;
+                        long resumePosition = channel.position();
+                        if (verify(startcodePosition)) {
+                            add(startcodePosition);
+                        }
+                        channel.position(resumePosition);
+                    }
+                }
+
+                bufferStart += end;
+                buffer.clear();
+            }
+        }
+
+        private boolean verify(final long startcodePosition) throws IOException {
+            packet.clear();
+            channel.position(startcodePosition + 8);
+            while (packet.hasRemaining()) {
+                if (channel.read(packet) <= 0) {
+                    break;
+                }
+            }
+
+            int available = packet.position();
+            packetPos = 0;
+
+            long forwardPtr = readValue(available);
+            // checksum is 4 bytes long, syncpoint has at least 2 values
+            if (forwardPtr < 6 || packetPos + forwardPtr > available) {
+                return false;
+            }
+
+            int dataStart = packetPos;
+            int dataEnd = (int) (dataStart + forwardPtr - 4);
+            crc32.reset();
+            crc32.update(packet.array(), dataStart, dataEnd - dataStart);
+            if (crc32.getValue() != (packet.getInt(dataEnd) & 0xFFFFFFFFL)) {
+                return false;
+            }
+
+            long timestamp = readValue(dataEnd);
+            long backPtr = readValue(dataEnd);
+            if (broadcastMode) {
+                readValue(dataEnd);
+            }
+            if (timestamp < 0 || backPtr < 0 || packetPos > dataEnd) {
+                return false;
+            }
+
+            ensureCapacity();
+            ptsTimeBaseIds[count] = (int) (timestamp % timeBaseCount);
+            globalKeyPts[count] = timestamp / timeBaseCount;
+            backPtrDiv16[count] = backPtr;
+            return true;
+        }
+
+        /**
+         * Reads v type from the packet buffer.
+         *
+         * @return value or -1 if it doesn't end before limit
+         */
+        private long readValue(final int limit) {
+            byte[] array = packet.array();
+            long result = 0;
+            while (packetPos < limit) {
+                byte b = array[packetPos++];
+                result = (result << 7) + (b & 0x7F);
+                if (b >= 0) {
+                    return result;
+                }
+            }
+
+            return -1;
+        }
+
+        private void add(final long position) {
+            positions[count] = position;
+            count++;
+        }
+
+        private void ensureCapacity() {
+            if (count == positions.length) {
+                int capacity = positions.length * 2;
+                positions = Arrays.copyOf(positions, capacity);
+                ptsTimeBaseIds = Arrays.copyOf(ptsTimeBaseIds, capacity);
+                globalKeyPts = Arrays.copyOf(globalKeyPts, capacity);
+                backPtrDiv16 = Arrays.copyOf(backPtrDiv16, capacity);
+            }
+        }
+    }
+}
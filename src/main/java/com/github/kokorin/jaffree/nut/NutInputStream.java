@@ -17,21 +17,37 @@
 
 package com.github.kokorin.jaffree.nut;
 
-import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
 
 /**
- * {@link NutInputStream} adapts {@link InputStream} and provides methods to read
- * Nut-specific data structures.
+ * {@link NutInputStream} adapts {@link InputStream} or {@link ReadableByteChannel} and provides
+ * methods to read Nut-specific data structures.
+ * <p>
+ * Data is read in bulk into a reusable {@link ByteBuffer}, all values are decoded directly
+ * from the buffer.
  */
 @SuppressWarnings("checkstyle:MagicNumber")
-public class NutInputStream implements AutoCloseable {
+public class NutInputStream extends NutDataInput {
+    /**
+     * Default size of the read buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
 
     private final InputStream input;
+    private final ReadableByteChannel channel;
+
+    // Unread data is between position and limit
+    private final ByteBuffer buffer;
+    private final byte[] array;
+
     private long position = 0;
+    private boolean endOfInput = false;
 
     /**
      * Creates {@link NutInputStream}.
@@ -39,54 +55,75 @@ public class NutInputStream implements AutoCloseable {
      * @param input input stream
      */
     public NutInputStream(final InputStream input) {
-        this.input = asBuffered(input);
+        this(input, null, DEFAULT_BUFFER_SIZE);
     }
 
     /**
-     * @return current position
+     * Creates {@link NutInputStream}.
+     *
+     * @param channel channel to read from
      */
-    public long getPosition() {
-        return position;
+    public NutInputStream(final ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE);
     }
 
     /**
-     * Reads v type (variable length value, unsigned).
+     * Creates {@link NutInputStream}.
      *
-     * @return unsigned value, or -1 if no data
-     * @throws IOException if any IO error
+     * @param channel    channel to read from
+     * @param bufferSize size of the read buffer
      */
-    public long readValue() throws IOException {
-        long result = 0;
-        boolean hasMore = true;
-
-        while (hasMore) {
-            int read = input.read();
-            if (read == -1) {
-                throw new EOFException("No more data");
-            }
+    public NutInputStream(final ReadableByteChannel channel, final int bufferSize) {
+        this(null, channel, bufferSize);
+    }
 
-            hasMore = (read & 0x80) > 0;
-            result = (result << 7) + (read & 0x7F);
-            position++;
+    private NutInputStream(final InputStream input, final ReadableByteChannel channel,
+                           final int bufferSize) {
+        if (bufferSize < MAX_VALUE_LENGTH) {
+            throw new IllegalArgumentException("Buffer size is too small: " + bufferSize);
         }
 
-        return result;
+        this.input = input;
+        this.channel = channel;
+        this.array = new byte[bufferSize];
+        this.buffer = ByteBuffer.wrap(array);
+        this.buffer.limit(0);
     }
 
     /**
-     * Reads s type (variable length value, signed).
+     * @return current position
+     */
+    @Override
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Reads v type (variable length value, unsigned).
      *
-     * @return signed value
+     * @return unsigned value, or -1 if no data
      * @throws IOException if any IO error
      */
-    public long readSignedValue() throws IOException {
-        long tmp = readValue();
-        tmp++;
-        if ((tmp & 1) > 0) {
-            return -(tmp >> 1);
+    @Override
+    public long readValue() throws IOException {
+        // Fast path: decode directly from the buffer if the value is complete there
+        int start = buffer.position();
+        int end = Math.min(buffer.limit(), start + MAX_VALUE_LENGTH);
+        long result = 0;
+        for (int pos = start; pos < end; pos++) {
+            byte read = array[pos];
+            result = (result << 7) + (read & 0x7F);
+            if (read >= 0) {
+                pos++;
+                buffer.position(pos);
+                position += pos - start;
+                return result;
+            }
         }
 
-        return tmp >> 1;
+        // Value spans over the buffer boundary (or is malformed), don't wait for more data
+        // than it needs
+        return readValueSlow();
     }
 
     /**
@@ -96,19 +133,11 @@ public class NutInputStream implements AutoCloseable {
      * @return long
      * @throws IOException if any IO error
      */
+    @Override
     public long readLong() throws IOException {
-        long result = 0;
-
-        for (int i = 0; i < 8; i++) {
-            int read = input.read();
-            if (read == -1) {
-                throw new EOFException("No more data");
-            }
-            result = (result << 8) + read;
-            position++;
-        }
-
-        return result;
+        require(8);
+        position += 8;
+        return buffer.getLong();
     }
 
     /**
@@ -118,19 +147,11 @@ public class NutInputStream implements AutoCloseable {
      * @return int as long
      * @throws IOException if any IO error
      */
+    @Override
     long readInt() throws IOException {
-        long result = 0;
-
-        for (int i = 0; i < 4; i++) {
-            int read = input.read();
-            if (read == -1) {
-                throw new EOFException("No more data");
-            }
-            result = (result << 8) + read;
-            position++;
-        }
-
-        return result;
+        require(4);
+        position += 4;
+        return buffer.getInt() & 0xFFFFFFFFL;
     }
 
     /**
@@ -140,25 +161,11 @@ public class NutInputStream implements AutoCloseable {
      * @return byte
      * @throws IOException if any IO error
      */
+    @Override
     public int readByte() throws IOException {
-        int result = input.read();
-        if (result == -1) {
-            throw new EOFException("No more data");
-        }
+        require(1);
         position++;
-
-        return result;
-    }
-
-    /**
-     * Reads vb type (variable length binary data or string).
-     *
-     * @return String
-     * @throws IOException if any IO error
-     */
-    public String readVariableString() throws IOException {
-        byte[] bytes = readVariableBytes();
-        return new String(bytes);
+        return buffer.get() & 0xFF;
     }
 
     /**
@@ -167,51 +174,37 @@ public class NutInputStream implements AutoCloseable {
      * @return String
      * @throws IOException if any IO error
      */
+    @Override
     public String readCString() throws IOException {
-        try (ByteArrayOutputStream buffer = new ByteArrayOutputStream(32)) {
+        try (ByteArrayOutputStream result = new ByteArrayOutputStream(32)) {
             while (true) {
-                int read = input.read();
-                if (read == -1) {
-                    throw new EOFException("No more data");
+                require(1);
+
+                int start = buffer.position();
+                int end = buffer.limit();
+                int pos = start;
+                while (pos < end && array[pos] != 0) {
+                    pos++;
                 }
-                position++;
 
-                if (read == 0) {
+                result.write(array, start, pos - start);
+
+                if (pos < end) {
+                    // skip terminating zero
+                    pos++;
+                    buffer.position(pos);
+                    position += pos - start;
                     break;
                 }
-                buffer.write(read);
+
+                buffer.position(pos);
+                position += pos - start;
             }
 
-            return buffer.toString();
+            return result.toString();
         }
     }
 
-    /**
-     * Reads vb type (variable length binary data or string).
-     *
-     * @return String
-     * @throws IOException if any IO error
-     */
-    public byte[] readVariableBytes() throws IOException {
-        int length = (int) readValue();
-        return readBytes(length);
-    }
-
-    /**
-     * Reads t type (v coded universal timestamp).
-     *
-     * @param timeBaseCount time base count
-     * @return Timestamp
-     * @throws IOException if any IO error
-     */
-    public Timestamp readTimestamp(final int timeBaseCount) throws IOException {
-        long tmp = readValue();
-        int timebaseId = (int) (tmp % timeBaseCount);
-        long pts = tmp / timeBaseCount;
-
-        return new Timestamp(timebaseId, pts);
-    }
-
     /**
      * Returns next byte (if available), which will be read with any read*() method.
      * <p>
@@ -220,12 +213,13 @@ public class NutInputStream implements AutoCloseable {
      * @return next byte, or -1 if the end of the stream is reached
      * @throws IOException if any IO error
      */
+    @Override
     public int checkNextByte() throws IOException {
-        input.mark(1);
-        int result = input.read();
-        input.reset();
+        if (!fill(1)) {
+            return -1;
+        }
 
-        return result;
+        return array[buffer.position()] & 0xFF;
     }
 
     /**
@@ -234,12 +228,9 @@ public class NutInputStream implements AutoCloseable {
      * @return next byte
      * @throws IOException if any IO error
      */
+    @Override
     public boolean hasMoreData() throws IOException {
-        input.mark(1);
-        int result = input.read();
-        input.reset();
-
-        return result != -1;
+        return fill(1);
     }
 
     /**
@@ -249,12 +240,16 @@ public class NutInputStream implements AutoCloseable {
      * @return byte array
      * @throws IOException if any IO error
      */
+    @Override
     public byte[] readBytes(final long toRead) throws IOException {
         byte[] result = new byte[(int) toRead];
-        int start = 0;
 
-        while (start < toRead) {
-            long read = input.read(result, start, (int) toRead - start);
+        int start = Math.min(buffer.remaining(), result.length);
+        buffer.get(result, 0, start);
+        position += start;
+
+        while (start < result.length) {
+            int read = readSource(result, start, result.length - start);
             if (read == -1) {
                 throw new EOFException("No more data");
             }
@@ -266,43 +261,216 @@ public class NutInputStream implements AutoCloseable {
         return result;
     }
 
+    /**
+     * Reads bytes into the remaining space of the target buffer.
+     * <p>
+     * Data is transferred without intermediate arrays where possible.
+     *
+     * @param target buffer to fill
+     * @throws IOException if any IO error
+     */
+    @Override
+    public void readBytes(final ByteBuffer target) throws IOException {
+        int fromBuffer = Math.min(buffer.remaining(), target.remaining());
+        if (fromBuffer > 0) {
+            target.put(array, buffer.position(), fromBuffer);
+            buffer.position(buffer.position() + fromBuffer);
+            position += fromBuffer;
+        }
+
+        while (target.hasRemaining()) {
+            final int read;
+            if (target.hasArray()) {
+                read = readSource(target.array(), target.arrayOffset() + target.position(),
+                        target.remaining());
+                if (read > 0) {
+                    target.position(target.position() + read);
+                }
+            } else if (channel != null) {
+                read = endOfInput ? -1 : channel.read(target);
+                if (read == -1) {
+                    endOfInput = true;
+                }
+            } else {
+                read = fill(1) ? Math.min(buffer.remaining(), target.remaining()) : -1;
+                if (read > 0) {
+                    target.put(array, buffer.position(), read);
+                    buffer.position(buffer.position() + read);
+                }
+            }
+
+            if (read == -1) {
+                throw new EOFException("No more data");
+            }
+
+            position += read;
+        }
+    }
+
+    /**
+     * Reads specified number of bytes as a read-only buffer.
+     * <p>
+     * Data is copied, {@link MappedNutReader} returns views of the mapped file instead.
+     *
+     * @param length bytes to read
+     * @return read-only buffer with position 0 and limit set to length
+     * @throws IOException if any IO error
+     */
+    @Override
+    public ByteBuffer readSlice(final int length) throws IOException {
+        return ByteBuffer.wrap(readBytes(length)).asReadOnlyBuffer();
+    }
+
     /**
      * Skips specified number of bytes.
      *
      * @param toSkip bytes to skip
      * @throws IOException if any IO error
      */
+    @Override
     public void skipBytes(final long toSkip) throws IOException {
-        long leftToSkip = toSkip;
+        int fromBuffer = (int) Math.min(buffer.remaining(), toSkip);
+        buffer.position(buffer.position() + fromBuffer);
+        position += fromBuffer;
+
+        long leftToSkip = toSkip - fromBuffer;
         while (leftToSkip > 0) {
-            long skipped = input.skip(leftToSkip);
+            long skipped = skipSource(leftToSkip);
             if (skipped == 0) {
                 // if no bytes were skipped - it possibly means that input is depleted or closed
-                // read one byte to make sure
-                int read = input.read();
-                if (read == -1) {
+                // fill the buffer to make sure
+                if (!fill(1)) {
                     throw new EOFException("No more data");
                 }
-                skipped = 1;
+
+                skipped = Math.min(buffer.remaining(), leftToSkip);
+                buffer.position(buffer.position() + (int) skipped);
             }
+
             position += skipped;
             leftToSkip -= skipped;
         }
     }
 
+    /**
+     * Returns true if the stream can be repositioned with {@link #seek(long)}.
+     *
+     * @return true if the stream reads from {@link SeekableByteChannel}
+     */
+    @Override
+    public boolean isSeekable() {
+        return channel instanceof SeekableByteChannel;
+    }
+
+    /**
+     * Moves to the specified position. Buffered data is reused if the position is within it.
+     *
+     * @param newPosition position to move to
+     * @throws IOException if any IO error
+     * @see #isSeekable()
+     */
+    @Override
+    public void seek(final long newPosition) throws IOException {
+        if (newPosition >= position && newPosition <= position + buffer.remaining()) {
+            buffer.position(buffer.position() + (int) (newPosition - position));
+            position = newPosition;
+            return;
+        }
+
+        if (!isSeekable()) {
+            throw new IOException("Stream is not seekable");
+        }
+
+        ((SeekableByteChannel) channel).position(newPosition);
+        buffer.clear();
+        buffer.limit(0);
+        endOfInput = false;
+        position = newPosition;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void close() throws IOException {
-        input.close();
+        if (input != null) {
+            input.close();
+        } else {
+            channel.close();
+        }
+    }
+
+    private void require(final int count) throws IOException {
+        if (buffer.remaining() < count && !fill(count)) {
+            throw new EOFException("No more data");
+        }
+    }
+
+    /**
+     * Reads from the source until at least the specified number of bytes is buffered.
+     *
+     * @param count minimal number of bytes
+     * @return false if input ended before the requested number of bytes could be buffered
+     * @throws IOException if any IO error
+     */
+    private boolean fill(final int count) throws IOException {
+        if (buffer.remaining() >= count) {
+            return true;
+        }
+
+        buffer.compact();
+        try {
+            while (buffer.position() < count && !endOfInput) {
+                int read = readSource(array, buffer.position(), buffer.remaining());
+                if (read == -1) {
+                    endOfInput = true;
+                } else {
+                    buffer.position(buffer.position() + read);
+                }
+            }
+        } finally {
+            buffer.flip();
+        }
+
+        return buffer.remaining() >= count;
+    }
+
+    private int readSource(final byte[] target, final int offset, final int length)
+            throws IOException {
+        if (endOfInput) {
+            return -1;
+        }
+
+        int read;
+        if (input != null) {
+            read = input.read(target, offset, length);
+        } else {
+            read = channel.read(ByteBuffer.wrap(target, offset, length));
+        }
+
+        if (read == -1) {
+            endOfInput = true;
+        }
+
+        return read;
     }
 
-    private static BufferedInputStream asBuffered(final InputStream inputStream) {
-        if (inputStream instanceof BufferedInputStream) {
-            return (BufferedInputStream) inputStream;
+    private long skipSource(final long count) throws IOException {
+        if (endOfInput) {
+            return 0;
+        }
+
+        if (input != null) {
+            return input.skip(count);
+        }
+
+        if (channel instanceof SeekableByteChannel) {
+            SeekableByteChannel seekable = (SeekableByteChannel) channel;
+            long skipped = Math.min(count, seekable.size() - seekable.position());
+            seekable.position(seekable.position() + skipped);
+            return skipped;
         }
 
-        return new BufferedInputStream(inputStream);
+        return 0;
     }
 }
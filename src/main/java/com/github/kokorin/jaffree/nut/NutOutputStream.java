@@ -20,13 +20,30 @@ package com.github.kokorin.jaffree.nut;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * {@link NutOutputStream} implements core NUT write operations.
+ * <p>
+ * If created for a {@link WritableByteChannel} everything except frame payloads is encoded
+ * into a small direct buffer. Frame payloads are never copied, they are written together with
+ * the pending frame header by a single gathering write if the channel is
+ * a {@link GatheringByteChannel}.
  */
 @SuppressWarnings("checkstyle:MagicNumber")
 public class NutOutputStream implements AutoCloseable {
+    /**
+     * Default size of the header buffer used in channel mode.
+     */
+    public static final int DEFAULT_HEADER_BUFFER_SIZE = 8 * 1024;
+
+    // exactly one of output and channel is not null
     private final OutputStream output;
+    private final WritableByteChannel channel;
+    private final ByteBuffer headerBuffer;
+    private final ByteBuffer[] gather = new ByteBuffer[2];
     private final CRC32 crc32 = new CRC32();
     private long position = 0;
 
@@ -37,6 +54,33 @@ public class NutOutputStream implements AutoCloseable {
      */
     public NutOutputStream(final OutputStream output) {
         this.output = asBuffered(output);
+        this.channel = null;
+        this.headerBuffer = null;
+    }
+
+    /**
+     * Creates {@link NutOutputStream} in channel mode with the default header buffer size.
+     *
+     * @param channel channel to write to
+     */
+    public NutOutputStream(final WritableByteChannel channel) {
+        this(channel, DEFAULT_HEADER_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates {@link NutOutputStream} in channel mode.
+     *
+     * @param channel          channel to write to
+     * @param headerBufferSize size of the direct buffer everything except frame payloads is
+     *                         encoded into
+     */
+    public NutOutputStream(final WritableByteChannel channel, final int headerBufferSize) {
+        if (headerBufferSize <= 0) {
+            throw new IllegalArgumentException("headerBufferSize must be positive");
+        }
+        this.output = null;
+        this.channel = channel;
+        this.headerBuffer = ByteBuffer.allocateDirect(headerBufferSize);
     }
 
     /**
@@ -56,13 +100,13 @@ public class NutOutputStream implements AutoCloseable {
 
         for (i -= 7; i > 0; i -= 7) {
             int b = (int) (0x80 | (value63bits >> i));
-            output.write(b);
+            put(b);
             crc32.update(b);
             position++;
         }
 
         int b = (int) (value63bits & 0x7F);
-        output.write(b);
+        put(b);
         crc32.update(b);
         position++;
     }
@@ -94,7 +138,7 @@ public class NutOutputStream implements AutoCloseable {
     public void writeLong(final long value) throws IOException {
         for (int i = 7; i >= 0; i--) {
             int b = (int) ((value >> (8 * i)) & 0xFF);
-            output.write(b);
+            put(b);
             crc32.update(b);
             position++;
         }
@@ -110,7 +154,7 @@ public class NutOutputStream implements AutoCloseable {
     public void writeInt(final long value) throws IOException {
         for (int i = 3; i >= 0; i--) {
             int b = (int) ((value >> (8 * i)) & 0xFF);
-            output.write(b);
+            put(b);
             crc32.update(b);
             position++;
         }
@@ -124,7 +168,7 @@ public class NutOutputStream implements AutoCloseable {
      * @throws IOException if any IO error
      */
     public void writeByte(final int value) throws IOException {
-        output.write(value);
+        put(value);
         crc32.update(value);
         position++;
     }
@@ -181,11 +225,54 @@ public class NutOutputStream implements AutoCloseable {
      * @throws IOException if any IO error
      */
     public void writeBytes(final byte[] data) throws IOException {
-        output.write(data);
+        if (channel == null) {
+            output.write(data);
+        } else if (data.length <= headerBuffer.remaining()) {
+            headerBuffer.put(data);
+        } else {
+            writeToChannel(ByteBuffer.wrap(data));
+        }
         crc32.update(data);
         position += data.length;
     }
 
+    /**
+     * Writes frame payload: remaining bytes of the buffer.
+     * <p>
+     * Unlike {@link #writeBytes(byte[])} CRC32 isn't updated, NUT checksums never cover frame
+     * data. Position of the buffer isn't changed.
+     * <p>
+     * In channel mode the payload isn't copied, it's written together with the pending header
+     * bytes by a single gathering write.
+     *
+     * @param payload frame payload
+     * @throws IOException if any IO error
+     */
+    public void writePayload(final ByteBuffer payload) throws IOException {
+        int length = payload.remaining();
+        int start = payload.position();
+
+        try {
+            if (channel != null) {
+                writeToChannel(payload);
+            } else if (payload.hasArray()) {
+                // BufferedOutputStream passes large arrays directly to the underlying stream
+                output.write(payload.array(), payload.arrayOffset() + start, length);
+            } else {
+                byte[] chunk = new byte[Math.min(length, DEFAULT_HEADER_BUFFER_SIZE)];
+                while (payload.hasRemaining()) {
+                    int count = Math.min(chunk.length, payload.remaining());
+                    payload.get(chunk, 0, count);
+                    output.write(chunk, 0, count);
+                }
+            }
+        } finally {
+            payload.position(start);
+        }
+
+        position += length;
+    }
+
     /**
      * Resets NUT CRC32.
      */
@@ -212,12 +299,16 @@ public class NutOutputStream implements AutoCloseable {
     }
 
     /**
-     * Flushes underlying {@link OutputStream}.
+     * Flushes underlying {@link OutputStream}, or writes buffered bytes to the channel.
      *
      * @throws IOException if any IO error
      */
     public void flush() throws IOException {
-        output.flush();
+        if (channel == null) {
+            output.flush();
+        } else {
+            writeToChannel(null);
+        }
     }
 
     /**
@@ -225,7 +316,60 @@ public class NutOutputStream implements AutoCloseable {
      */
     @Override
     public void close() throws Exception {
-        output.close();
+        if (channel == null) {
+            output.close();
+        } else {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    private void put(final int b) throws IOException {
+        if (channel == null) {
+            output.write(b);
+            return;
+        }
+
+        if (!headerBuffer.hasRemaining()) {
+            writeToChannel(null);
+        }
+        headerBuffer.put((byte) b);
+    }
+
+    /**
+     * Writes pending header bytes followed by the remaining bytes of data (if not null)
+     * and clears the header buffer.
+     */
+    private void writeToChannel(final ByteBuffer data) throws IOException {
+        headerBuffer.flip();
+        try {
+            if (data == null) {
+                while (headerBuffer.hasRemaining()) {
+                    channel.write(headerBuffer);
+                }
+            } else if (channel instanceof GatheringByteChannel) {
+                GatheringByteChannel gathering = (GatheringByteChannel) channel;
+                gather[0] = headerBuffer;
+                gather[1] = data;
+                // payload may be empty (e.g. EOR frame), header bytes must be written anyway
+                while (headerBuffer.hasRemaining() || data.hasRemaining()) {
+                    gathering.write(gather);
+                }
+            } else {
+                while (headerBuffer.hasRemaining()) {
+                    channel.write(headerBuffer);
+                }
+                while (data.hasRemaining()) {
+                    channel.write(data);
+                }
+            }
+        } finally {
+            gather[1] = null;
+            headerBuffer.clear();
+        }
     }
 
     private static BufferedOutputStream asBuffered(final OutputStream outputStream) {
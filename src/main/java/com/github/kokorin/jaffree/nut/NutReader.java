@@ -21,9 +21,9 @@ import com.github.kokorin.jaffree.JaffreeException;
 import com.github.kokorin.jaffree.Rational;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.EnumSet;
 import java.util.Objects;
 import java.util.Set;
 
@@ -32,7 +32,19 @@ import java.util.Set;
  */
 @SuppressWarnings("checkstyle:MagicNumber")
 public class NutReader {
-    private final NutInputStream input;
+    private static final long FLAG_KEYFRAME = FrameCode.Flag.KEYFRAME.code;
+    private static final long FLAG_EOR = FrameCode.Flag.EOR.code;
+    private static final long FLAG_CODED_PTS = FrameCode.Flag.CODED_PTS.code;
+    private static final long FLAG_STREAM_ID = FrameCode.Flag.STREAM_ID.code;
+    private static final long FLAG_SIZE_MSB = FrameCode.Flag.SIZE_MSB.code;
+    private static final long FLAG_CHECKSUM = FrameCode.Flag.CHECKSUM.code;
+    private static final long FLAG_RESERVED = FrameCode.Flag.RESERVED.code;
+    private static final long FLAG_SM_DATA = FrameCode.Flag.SM_DATA.code;
+    private static final long FLAG_HEADER_IDX = FrameCode.Flag.HEADER_IDX.code;
+    private static final long FLAG_MATCH_TIME = FrameCode.Flag.MATCH_TIME.code;
+    private static final long FLAG_CODED_FLAGS = FrameCode.Flag.CODED_FLAGS.code;
+
+    private final NutDataInput input;
     private MainHeader mainHeader;
     private StreamHeader[] streamHeaders;
     private Info[] infos;
@@ -44,6 +56,15 @@ public class NutReader {
      * @param input input stream
      */
     public NutReader(final NutInputStream input) {
+        this((NutDataInput) input);
+    }
+
+    /**
+     * Creates {@link NutReader} reading from any {@link NutDataInput}.
+     *
+     * @param input data input
+     */
+    NutReader(final NutDataInput input) {
         this.input = input;
     }
 
@@ -80,6 +101,44 @@ public class NutReader {
         return Arrays.copyOf(infos, infos.length);
     }
 
+    /**
+     * Moves to the syncpoint to start reading from to get frames of the specified stream at the
+     * specified PTS.
+     * <p>
+     * Frames returned by {@link #readFrame()} after seek may have lower PTS than requested:
+     * decoding starts at keyframes preceding the requested PTS, so it's up to the caller to
+     * skip unneeded frames.
+     * <p>
+     * Requires {@link NutInputStream} created with {@link java.nio.channels.SeekableByteChannel}.
+     *
+     * @param index    index of the file being read
+     * @param streamId stream ID
+     * @param pts      PTS in stream timebase
+     * @return false if index contains no syncpoints and the position wasn't changed
+     * @throws IOException if any IO error
+     */
+    public boolean seek(final NutIndex index, final int streamId, final long pts)
+            throws IOException {
+        if (!input.isSeekable()) {
+            throw new JaffreeException("Seek requires NutInputStream over SeekableByteChannel");
+        }
+
+        // headers must be read before seeking
+        readToFrame();
+
+        if (streamId < 0 || streamId >= mainHeader.streamCount) {
+            throw new JaffreeException("Wrong stream ID: " + streamId);
+        }
+
+        long position = index.findPosition(streamId, pts);
+        if (position < 0) {
+            return false;
+        }
+
+        input.seek(position);
+        return true;
+    }
+
     private void readToFrame() throws IOException {
         if (input.getPosition() == 0) {
             String fileId = input.readCString();
@@ -314,8 +373,38 @@ public class NutReader {
      * @return frame
      * @throws IOException if any IO error
      */
-    @SuppressWarnings("PMD.UnusedLocalVariable")
     public NutFrame readFrame() throws IOException {
+        return readFrameInternal(null, false);
+    }
+
+    /**
+     * Returns next NUT frame with data read into a buffer taken from the pool.
+     * <p>
+     * The frame's {@link NutFrame#payload} is only valid until {@link NutFrame#release()} is
+     * called, which returns the buffer to the pool.
+     *
+     * @param pool pool to take frame data buffer from
+     * @return frame
+     * @throws IOException if any IO error
+     */
+    public NutFrame readFrame(final FrameBufferPool pool) throws IOException {
+        Objects.requireNonNull(pool, "Frame buffer pool must be specified");
+        return readFrameInternal(pool, false);
+    }
+
+    /**
+     * Returns next NUT frame with data obtained with {@link NutInputStream#readSlice(int)}.
+     *
+     * @return frame
+     * @throws IOException if any IO error
+     */
+    NutFrame readFrameSlice() throws IOException {
+        return readFrameInternal(null, true);
+    }
+
+    @SuppressWarnings("PMD.UnusedLocalVariable")
+    private NutFrame readFrameInternal(final FrameBufferPool pool, final boolean slice)
+            throws IOException {
         readToFrame();
 
         if (!input.hasMoreData()) {
@@ -325,7 +414,7 @@ public class NutReader {
         int frameCode = input.readByte();
         FrameCode frameTable = mainHeader.frameCodes[frameCode];
 
-        Set<FrameCode.Flag> flags = frameTable.flags;
+        long flags = frameTable.flagsMask;
         int streamId = frameTable.streamId;
         final StreamHeader streamHeader;
         final long pts;
@@ -338,19 +427,17 @@ public class NutReader {
         DataItem[] sideData = null;
         DataItem[] metaData = null;
 
-        if (flags.contains(FrameCode.Flag.CODED_FLAGS)) {
-            flags = EnumSet.copyOf(flags);
-            Set<FrameCode.Flag> codedFlags = FrameCode.Flag.fromBitCode(input.readValue());
+        if ((flags & FLAG_CODED_FLAGS) != 0) {
             // flags = flags XOR codedFlags
-            flags = FrameCode.Flag.xor(flags, codedFlags);
+            flags ^= input.readValue();
         }
 
-        if (flags.contains(FrameCode.Flag.STREAM_ID)) {
+        if ((flags & FLAG_STREAM_ID) != 0) {
             streamId = (int) input.readValue();
         }
         streamHeader = streamHeaders[streamId];
 
-        if (flags.contains(FrameCode.Flag.CODED_PTS)) {
+        if ((flags & FLAG_CODED_PTS) != 0) {
             /*
             If coded_pts < ( 1 << msb_pts_shift ) then it is an lsb
             pts, otherwise it is a full pts + ( 1 << msb_pts_shift ).
@@ -373,24 +460,24 @@ public class NutReader {
             pts = lastPts[streamId] + frameTable.ptsDelta;
         }
 
-        if (flags.contains(FrameCode.Flag.SIZE_MSB)) {
+        if ((flags & FLAG_SIZE_MSB) != 0) {
             dataSizeMsb = input.readValue();
         }
 
         // MatchTimeDelta is present in NUT specification,
         // but is absent in FFMPEG NUT implementation
-        if (flags.contains(FrameCode.Flag.MATCH_TIME)) {
+        if ((flags & FLAG_MATCH_TIME) != 0) {
             matchTimeDelta = input.readSignedValue();
         }
 
         // ElisionHeaders are present in NUT specification,
         // but are absent in FFMPEG NUT implementation
-        if (flags.contains(FrameCode.Flag.HEADER_IDX)) {
+        if ((flags & FLAG_HEADER_IDX) != 0) {
             int elisionHeaderIdx = (int) input.readValue();
             elisionHeaderSize = mainHeader.elisionHeaderSize[elisionHeaderIdx];
         }
 
-        if (flags.contains(FrameCode.Flag.RESERVED)) {
+        if ((flags & FLAG_RESERVED) != 0) {
             reservedValues = input.readValue();
         }
 
@@ -399,11 +486,11 @@ public class NutReader {
         }
 
         // checksum is ignored
-        if (flags.contains(FrameCode.Flag.CHECKSUM)) {
+        if ((flags & FLAG_CHECKSUM) != 0) {
             long checksum = input.readInt();
         }
 
-        if (flags.contains(FrameCode.Flag.SM_DATA)) {
+        if ((flags & FLAG_SM_DATA) != 0) {
             sideData = readDataItems();
             metaData = readDataItems();
         }
@@ -417,13 +504,34 @@ public class NutReader {
         long dataSizeWithElision = dataSizeLsb + dataSizeMsb * dataSizeMul;
         long dataSize = dataSizeWithElision - elisionHeaderSize;
 
-        byte[] data = input.readBytes(dataSize);
+        final byte[] data;
+        final ByteBuffer payload;
+        if (slice) {
+            data = null;
+            payload = input.readSlice((int) dataSize);
+        } else if (pool == null) {
+            data = input.readBytes(dataSize);
+            payload = null;
+        } else {
+            data = null;
+            payload = pool.acquire((int) dataSize);
+            try {
+                input.readBytes(payload);
+            } catch (IOException e) {
+                pool.release(payload);
+                throw e;
+            }
+            payload.flip();
+        }
         input.skipBytes(elisionHeaderSize);
-        boolean keyframe = flags.contains(FrameCode.Flag.KEYFRAME);
-        boolean eor = flags.contains(FrameCode.Flag.EOR) || dataSize == 0;
+        boolean keyframe = (flags & FLAG_KEYFRAME) != 0;
+        boolean eor = (flags & FLAG_EOR) != 0 || dataSize == 0;
 
         lastPts[streamId] = pts;
-        return new NutFrame(streamId, pts, data, sideData, metaData, keyframe, eor);
+        if (data != null) {
+            return new NutFrame(streamId, pts, data, sideData, metaData, keyframe, eor);
+        }
+        return new NutFrame(streamId, pts, payload, sideData, metaData, keyframe, eor, pool);
     }
 
     private Info readInfo() throws IOException {
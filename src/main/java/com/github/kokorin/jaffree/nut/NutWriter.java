@@ -23,12 +23,10 @@ import com.github.kokorin.jaffree.nut.FrameCode.Flag;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.EnumSet;
-import java.util.Iterator;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -36,8 +34,18 @@ import java.util.Set;
  */
 @SuppressWarnings("checkstyle:MagicNumber")
 public class NutWriter {
+    private static final long FLAG_KEYFRAME = Flag.KEYFRAME.code;
+    private static final long FLAG_EOR = Flag.EOR.code;
+    private static final long FLAG_CODED_PTS = Flag.CODED_PTS.code;
+    private static final long FLAG_STREAM_ID = Flag.STREAM_ID.code;
+    private static final long FLAG_SIZE_MSB = Flag.SIZE_MSB.code;
+    private static final long FLAG_CHECKSUM = Flag.CHECKSUM.code;
+    private static final long FLAG_CODED_FLAGS = Flag.CODED_FLAGS.code;
+    private static final long FLAG_INVALID = Flag.INVALID.code;
+
     private final NutOutputStream output;
     private final long frameOrderingBufferMillis;
+    private final boolean reorderFrames;
     private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
 
     private MainHeader mainHeader;
@@ -47,24 +55,51 @@ public class NutWriter {
     // true if last frame of the corresponding stream was EOR frame
     private boolean[] eor;
     private long lastSyncPointPosition = 0;
+    // see FrameCodeSelector.index
+    private FrameCodeSelector[] frameCodeSelectors;
 
     private boolean initialized = false;
     private boolean closed = false;
 
-    private final List<TsFrame> frameOrderingBuffer = new ArrayList<>();
+    private FrameOrderingBuffer frameOrderingBuffer;
 
     private static final long MAJOR_VERSION = 3;
     private static final long MINOR_VERSION = 0;
 
     /**
-     * Creates {@link NutWriter}.
+     * Creates {@link NutWriter} which reorders frames by PTS.
+     * <p>
+     * Frames are buffered for up to frameOrderingBufferMillis and written in PTS order, frames
+     * with PTS lower than already written ones are rejected. Use {@link #inDecodeOrder} to
+     * write frames in decode order instead (e.g. encoded video with B-frames).
      *
      * @param output                    output stream
      * @param frameOrderingBufferMillis frame reordering buffer length
      */
     public NutWriter(final NutOutputStream output, final long frameOrderingBufferMillis) {
+        this(output, frameOrderingBufferMillis, true);
+    }
+
+    private NutWriter(final NutOutputStream output, final long frameOrderingBufferMillis,
+                      final boolean reorderFrames) {
         this.output = output;
         this.frameOrderingBufferMillis = frameOrderingBufferMillis;
+        this.reorderFrames = reorderFrames;
+    }
+
+    /**
+     * Creates {@link NutWriter} which writes frames in the order they are passed, without
+     * reordering them by PTS.
+     * <p>
+     * Frames must be passed in decode order, so PTS may decrease within a stream (e.g. video
+     * with B-frames). Use {@link StreamHeader#decodeDelay} to let demuxer restore DTS.
+     *
+     * @param output output stream
+     * @return NUT writer
+     * @see #NutWriter(NutOutputStream, long)
+     */
+    public static NutWriter inDecodeOrder(final NutOutputStream output) {
+        return new NutWriter(output, 0, false);
     }
 
     /**
@@ -90,6 +125,18 @@ public class NutWriter {
                 new long[0],
                 EnumSet.noneOf(MainHeader.Flag.class)
         );
+
+        this.frameCodeSelectors = new FrameCodeSelector[streamCount * 4];
+        for (int streamId = 0; streamId < streamCount; streamId++) {
+            for (int kind = 0; kind < 4; kind++) {
+                boolean keyframe = (kind & 1) != 0;
+                boolean eorFrame = (kind & 2) != 0;
+                frameCodeSelectors[FrameCodeSelector.index(streamId, keyframe, eorFrame)] =
+                        new FrameCodeSelector(frameCodes, streamId, keyframe, eorFrame);
+            }
+        }
+
+        this.frameOrderingBuffer = new FrameOrderingBuffer(timebases, frameOrderingBufferMillis);
     }
 
     /**
@@ -299,7 +346,7 @@ public class NutWriter {
      * Note: When all frames are passed to this method the caller MUST invoke {@link #writeFooter()}
      * <p>
      * Note: frames are not written immediately to stream, instead they are buffered,
-     * reordered and than written.
+     * reordered and than written (unless created with {@link #inDecodeOrder}).
      *
      * @param frame frame to write
      * @throws IOException if any IO error
@@ -309,25 +356,18 @@ public class NutWriter {
             throw new JaffreeException("NutWriter is closed");
         }
 
+        if (!reorderFrames) {
+            writeFrameInternal(frame);
+            return;
+        }
+
         StreamHeader stream = streamHeaders[frame.streamId];
-        Rational timestamp = mainHeader.timeBases[stream.timeBaseId].multiply(frame.pts);
-        frameOrderingBuffer.add(new TsFrame(timestamp, frame));
-        Collections.sort(frameOrderingBuffer, TsFrame.COMPARATOR);
+        frameOrderingBuffer.add(frame, stream.timeBaseId);
 
-        Rational lastFrameTimestamp =
-                frameOrderingBuffer.get(frameOrderingBuffer.size() - 1).timestamp;
         // Check if we have to remove some frames from buffer and to write them to ouput
-        Iterator<TsFrame> frameIterator = frameOrderingBuffer.iterator();
-        while (frameIterator.hasNext()) {
-            TsFrame tsFrame = frameIterator.next();
-            // current frame can't be written yet, as well as all subsequent
-            if (lastFrameTimestamp.subtract(tsFrame.timestamp)
-                    .lessThanOrEqual(new Rational(frameOrderingBufferMillis, 1000))) {
-                break;
-            }
-
-            writeFrameInternal(tsFrame.frame);
-            frameIterator.remove();
+        NutFrame ready;
+        while ((ready = frameOrderingBuffer.pollReady()) != null) {
+            writeFrameInternal(ready);
         }
     }
 
@@ -336,17 +376,26 @@ public class NutWriter {
         initialize();
 
         // EOR frames by specification use TS of the previous frame in the same stream.
-        if (!frame.eor) {
-            Rational maxTs = Rational.ZERO;
-            for (int i = 0; i < mainHeader.timeBases.length; i++) {
-                Rational ts = mainHeader.timeBases[i].multiply(lastPts[i]);
-                if (ts.greaterThan(maxTs)) {
-                    maxTs = ts;
-                }
-            }
+        // Frames which are not reordered are in decode order, PTS may decrease
+        if (!frame.eor && reorderFrames) {
             StreamHeader steam = streamHeaders[frame.streamId];
-            Rational framedTs = mainHeader.timeBases[steam.timeBaseId].multiply(frame.pts);
-            if (framedTs.lessThan(maxTs)) {
+            // timestamp 0 in any time base is zero
+            boolean unordered =
+                    frameOrderingBuffer.compare(steam.timeBaseId, frame.pts, 0, 0) < 0;
+            for (int i = 0; i < mainHeader.timeBases.length && !unordered; i++) {
+                unordered = frameOrderingBuffer.compare(
+                        steam.timeBaseId, frame.pts, i, lastPts[i]) < 0;
+            }
+
+            if (unordered) {
+                Rational maxTs = Rational.ZERO;
+                for (int i = 0; i < mainHeader.timeBases.length; i++) {
+                    Rational ts = frameOrderingBuffer.timestamp(i, lastPts[i]);
+                    if (ts.greaterThan(maxTs)) {
+                        maxTs = ts;
+                    }
+                }
+                Rational framedTs = frameOrderingBuffer.timestamp(steam.timeBaseId, frame.pts);
                 throw new JaffreeException(
                         "Unordered frames! Try to increase frameOrderingBufferMillis. maxTs: "
                                 + maxTs + ", but current: " + framedTs);
@@ -355,13 +404,10 @@ public class NutWriter {
 
         StreamHeader sc = streamHeaders[frame.streamId];
 
-        int i;
-        int ftnum = -1;
-        int size = 0;
         int msbPts = 1 << sc.msbPtsShift;
-        Set<Flag> codedFlags = Collections.emptySet();
         long codedPts;
         long ptsDelta = frame.pts - lastPts[frame.streamId];
+        int dataSize = frame.payload.remaining();
         boolean checksum = false;
 
         if (Math.abs(ptsDelta) < (msbPts / 2) - 1) {
@@ -370,136 +416,54 @@ public class NutWriter {
             codedPts = frame.pts + msbPts;
         }
 
-        if (frame.data.length > 2 * mainHeader.maxDistance) {
+        if (dataSize > 2 * mainHeader.maxDistance) {
             checksum = true;
         }
         if (Math.abs(ptsDelta) > sc.maxPtsDistance) {
             checksum = true;
         }
 
-        for (i = 0; i < 256; i++) {
-            int len = 1; // frame code
-            FrameCode ft = mainHeader.frameCodes[i];
-
-            Set<Flag> flags = ft.flags;
-            if (flags.contains(Flag.INVALID)) {
-                continue;
-            }
-
-            Set<Flag> fdFlags = EnumSet.noneOf(Flag.class);
-            if (frame.keyframe) {
-                fdFlags.add(Flag.KEYFRAME);
-            }
-            if (frame.eor) {
-                fdFlags.add(Flag.EOR);
-            }
-
-            if (flags.contains(Flag.CODED_FLAGS)) {
-                flags = EnumSet.copyOf(fdFlags);
-
-                if (ft.streamId != frame.streamId) {
-                    flags.add(Flag.STREAM_ID);
-                }
-                if (ft.ptsDelta != ptsDelta) {
-                    flags.add(Flag.CODED_PTS);
-                }
-                if (ft.dataSizeLsb != frame.data.length) {
-                    flags.add(Flag.SIZE_MSB);
-                }
-                if (checksum) {
-                    flags.add(Flag.CHECKSUM);
-                }
-                flags.add(Flag.CODED_FLAGS);
-            }
-
-
-            // if ((flags ^ fd -> flags) & NUT_API_FLAGS) continue;
-            Set<Flag> xor = Flag.xor(flags, fdFlags);
-            if (xor.contains(Flag.KEYFRAME) || xor.contains(Flag.EOR)) {
-                continue;
-            }
-
-            if (!flags.contains(Flag.STREAM_ID) && ft.streamId != frame.streamId) {
-                continue;
-            }
-
-            if (!flags.contains(Flag.CODED_PTS) && ft.ptsDelta != ptsDelta) {
-                continue;
-            }
-
-            if (flags.contains(Flag.SIZE_MSB)) {
-                if ((frame.data.length - ft.dataSizeLsb) % ft.dataSizeMul != 0) {
-                    continue;
-                }
-            } else {
-                if (ft.dataSizeLsb != frame.data.length) {
-                    continue;
-                }
-            }
-
-            if (!flags.contains(Flag.CHECKSUM) && checksum) {
-                continue;
-            }
-
-            // it doesn't fully follow specification, but is simple enough
-            if (flags.contains(Flag.CODED_FLAGS)) {
-                len += 8;
-            }
-            if (flags.contains(Flag.STREAM_ID)) {
-                len += 8;
-            }
-            if (flags.contains(Flag.CODED_PTS)) {
-                len += 8;
-            }
-            if (flags.contains(Flag.SIZE_MSB)) {
-                len += 8;
-            }
-            if (flags.contains(Flag.CHECKSUM)) {
-                len += 4;
-            }
-
-            if (size == 0 || len < size) {
-                ftnum = i;
-                codedFlags = flags;
-                size = len;
-            }
-        }
+        FrameCodeSelector selector = frameCodeSelectors[
+                FrameCodeSelector.index(frame.streamId, frame.keyframe, frame.eor)];
+        int ftnum = selector.select(ptsDelta, dataSize, checksum);
 
         if (ftnum == -1) {
             throw new IllegalArgumentException("Can't find appropriate FrameCode for " + frame);
         }
 
+        long codedFlags = selector.selectedFlags;
+        int size = selector.selectedSize;
+
         // Distance between synpoints (in bytes) should be no more that maxDistance
         if ((lastSyncPointPosition + mainHeader.maxDistance)
-                < (output.getPosition() + size + frame.data.length)) {
+                < (output.getPosition() + size + dataSize)) {
             writeSyncPoint();
         }
 
         output.resetCrc32();
         output.writeByte(ftnum);
         FrameCode ft = mainHeader.frameCodes[ftnum];
-        if (codedFlags.contains(Flag.CODED_FLAGS)) {
-            Set<Flag> codedXor = Flag.xor(codedFlags, ft.flags);
-            output.writeValue(Flag.toBitCode(codedXor));
+        if ((codedFlags & FLAG_CODED_FLAGS) != 0) {
+            output.writeValue(codedFlags ^ ft.flagsMask);
         }
-        if (codedFlags.contains(Flag.STREAM_ID)) {
+        if ((codedFlags & FLAG_STREAM_ID) != 0) {
             output.writeValue(frame.streamId);
         }
-        if (codedFlags.contains(Flag.CODED_PTS)) {
+        if ((codedFlags & FLAG_CODED_PTS) != 0) {
             output.writeValue(codedPts);
         }
-        if (codedFlags.contains(Flag.SIZE_MSB)) {
-            output.writeValue((frame.data.length - ft.dataSizeLsb) / ft.dataSizeMul);
+        if ((codedFlags & FLAG_SIZE_MSB) != 0) {
+            output.writeValue((dataSize - ft.dataSizeLsb) / ft.dataSizeMul);
         }
-        if (codedFlags.contains(Flag.CHECKSUM)) {
+        if ((codedFlags & FLAG_CHECKSUM) != 0) {
             output.writeCrc32();
         }
 
         // elision headers?
-        output.writeBytes(frame.data);
+        output.writePayload(frame.payload);
 
         lastPts[frame.streamId] = frame.pts;
-        eor[frame.streamId] = codedFlags.contains(Flag.EOR);
+        eor[frame.streamId] = (codedFlags & FLAG_EOR) != 0;
     }
 
     /**
@@ -509,10 +473,10 @@ public class NutWriter {
      */
     public void writeFooter() throws IOException {
         // writeEorFrame uses lastPts, it is updated by writeFrameInternal
-        for (TsFrame tsFrame : frameOrderingBuffer) {
-            writeFrameInternal(tsFrame.frame);
+        NutFrame frame;
+        while ((frame = frameOrderingBuffer.poll()) != null) {
+            writeFrameInternal(frame);
         }
-        frameOrderingBuffer.clear();
 
         for (int streamId = 0; streamId < eor.length; streamId++) {
             if (!eor[streamId]) {
@@ -520,10 +484,9 @@ public class NutWriter {
             }
         }
 
-        for (TsFrame tsFrame : frameOrderingBuffer) {
-            writeFrameInternal(tsFrame.frame);
+        while ((frame = frameOrderingBuffer.poll()) != null) {
+            writeFrameInternal(frame);
         }
-        frameOrderingBuffer.clear();
 
         writeMainHeader();
         for (StreamHeader streamHeader : streamHeaders) {
@@ -659,16 +622,250 @@ public class NutWriter {
     }
 
 
-    private static class TsFrame {
-        private final Rational timestamp;
-        private final NutFrame frame;
+    /**
+     * Chooses frame code for frames of one stream with the same keyframe &amp; EOR marks.
+     * <p>
+     * A frame code matches a frame if PTS delta and data size either equal its fixed values or
+     * are coded explicitly. Data size can be coded only as a multiple of
+     * {@link FrameCode#dataSizeMul} added to {@link FrameCode#dataSizeLsb}, so such frame codes
+     * are keyed by the size class: data size modulo multiplier. Frame codes with coded flags are
+     * added once per combination of fixed &amp; coded PTS delta and data size.
+     * <p>
+     * Every lookup keeps only the frame code with the shortest header (the lowest index among
+     * equal ones), so selection takes one lookup per distinct multiplier. The last choice is
+     * remembered and reused as long as PTS delta, data size and checksum requirement don't
+     * change.
+     */
+    private static final class FrameCodeSelector {
+        private final Lookup plain = new Lookup();
+        private final Lookup checksummed = new Lookup();
+
+        private boolean hasSelection = false;
+        private long lastPtsDelta;
+        private int lastDataSize;
+        private boolean lastChecksum;
+        private int selectedCode;
+        private long selectedFlags;
+        private int selectedSize;
+
+        FrameCodeSelector(final FrameCode[] frameCodes, final int streamId,
+                          final boolean keyframe, final boolean eor) {
+            long fdFlags = (keyframe ? FLAG_KEYFRAME : 0) | (eor ? FLAG_EOR : 0);
+
+            for (int i = 0; i < frameCodes.length; i++) {
+                FrameCode ft = frameCodes[i];
+                long flags = ft.flagsMask;
+                if ((flags & FLAG_INVALID) != 0) {
+                    continue;
+                }
+
+                if ((flags & FLAG_CODED_FLAGS) == 0) {
+                    if (((flags ^ fdFlags) & (FLAG_KEYFRAME | FLAG_EOR)) != 0) {
+                        continue;
+                    }
+                    if ((flags & FLAG_STREAM_ID) == 0 && ft.streamId != streamId) {
+                        continue;
+                    }
+
+                    plain.add(i, ft, flags);
+                    if ((flags & FLAG_CHECKSUM) != 0) {
+                        checksummed.add(i, ft, flags);
+                    }
+                    continue;
+                }
+
+                // Coded PTS or size when frame code's value matches results in a longer
+                // header than the fixed value, so such combinations are never selected
+                long codedFlags = fdFlags | FLAG_CODED_FLAGS
+                        | (ft.streamId != streamId ? FLAG_STREAM_ID : 0);
+                for (long pts : new long[] {0, FLAG_CODED_PTS}) {
+                    for (long size : new long[] {0, FLAG_SIZE_MSB}) {
+                        plain.add(i, ft, codedFlags | pts | size);
+                        checksummed.add(i, ft, codedFlags | pts | size | FLAG_CHECKSUM);
+                    }
+                }
+            }
+        }
+
+        static int index(final int streamId, final boolean keyframe, final boolean eor) {
+            return streamId * 4 + (keyframe ? 1 : 0) + (eor ? 2 : 0);
+        }
+
+        /**
+         * Selects frame code which results in the shortest frame header.
+         *
+         * @return frame code index or -1, flags and header size are stored in
+         * {@link #selectedFlags} and {@link #selectedSize}
+         */
+        int select(final long ptsDelta, final int dataSize, final boolean checksum) {
+            if (hasSelection && lastPtsDelta == ptsDelta && lastDataSize == dataSize
+                    && lastChecksum == checksum) {
+                return selectedCode;
+            }
+
+            Choice choice = (checksum ? checksummed : plain).select(ptsDelta, dataSize);
 
-        static final Comparator<TsFrame> COMPARATOR =
-                Comparator.comparing((TsFrame ts) -> ts.timestamp);
+            hasSelection = true;
+            lastPtsDelta = ptsDelta;
+            lastDataSize = dataSize;
+            lastChecksum = checksum;
+            selectedCode = choice != null ? choice.code : -1;
+            selectedFlags = choice != null ? choice.flags : 0;
+            selectedSize = choice != null ? choice.size : 0;
+
+            return selectedCode;
+        }
+    }
+
+    /**
+     * Best frame codes keyed by fixed and coded PTS delta and data size.
+     */
+    private static final class Lookup {
+        // (ptsDelta, dataSize)
+        private final Map<Key, Choice> fixedPtsFixedSize = new HashMap<>();
+        // (ptsDelta, dataSizeMul, dataSize % dataSizeMul)
+        private final Map<Key, Choice> fixedPtsCodedSize = new HashMap<>();
+        // (dataSize)
+        private final Map<Key, Choice> codedPtsFixedSize = new HashMap<>();
+        // (dataSizeMul, dataSize % dataSizeMul)
+        private final Map<Key, Choice> codedPtsCodedSize = new HashMap<>();
+
+        private int[] multipliers = new int[0];
+
+        // reused to look up without allocation, NutWriter isn't thread-safe
+        private final Key probe = new Key(0, 0, 0);
+
+        void add(final int code, final FrameCode ft, final long flags) {
+            Choice choice = new Choice(code, flags, headerSize(flags));
+
+            if ((flags & FLAG_SIZE_MSB) != 0) {
+                int mul = ft.dataSizeMul;
+                if (mul <= 0) {
+                    return;
+                }
+                long residue = Math.floorMod(ft.dataSizeLsb, mul);
+
+                if (Arrays.stream(multipliers).noneMatch(m -> m == mul)) {
+                    multipliers = Arrays.copyOf(multipliers, multipliers.length + 1);
+                    multipliers[multipliers.length - 1] = mul;
+                }
+
+                if ((flags & FLAG_CODED_PTS) != 0) {
+                    put(codedPtsCodedSize, new Key(mul, residue, 0), choice);
+                } else {
+                    put(fixedPtsCodedSize, new Key(ft.ptsDelta, mul, residue), choice);
+                }
+            } else if ((flags & FLAG_CODED_PTS) != 0) {
+                put(codedPtsFixedSize, new Key(ft.dataSizeLsb, 0, 0), choice);
+            } else {
+                put(fixedPtsFixedSize, new Key(ft.ptsDelta, ft.dataSizeLsb, 0), choice);
+            }
+        }
+
+        Choice select(final long ptsDelta, final int dataSize) {
+            Choice result = Choice.better(null, fixedPtsFixedSize.get(probe.set(ptsDelta,
+                    dataSize, 0)));
+            result = Choice.better(result, codedPtsFixedSize.get(probe.set(dataSize, 0, 0)));
+
+            for (int mul : multipliers) {
+                long residue = Math.floorMod(dataSize, mul);
+                result = Choice.better(result, fixedPtsCodedSize.get(probe.set(ptsDelta, mul,
+                        residue)));
+                result = Choice.better(result, codedPtsCodedSize.get(probe.set(mul, residue,
+                        0)));
+            }
+
+            return result;
+        }
+
+        private static void put(final Map<Key, Choice> map, final Key key, final Choice choice) {
+            map.merge(key, choice, Choice::better);
+        }
+
+        // it doesn't fully follow specification, but is simple enough
+        private static int headerSize(final long flags) {
+            int len = 1; // frame code
+            if ((flags & FLAG_CODED_FLAGS) != 0) {
+                len += 8;
+            }
+            if ((flags & FLAG_STREAM_ID) != 0) {
+                len += 8;
+            }
+            if ((flags & FLAG_CODED_PTS) != 0) {
+                len += 8;
+            }
+            if ((flags & FLAG_SIZE_MSB) != 0) {
+                len += 8;
+            }
+            if ((flags & FLAG_CHECKSUM) != 0) {
+                len += 4;
+            }
+            return len;
+        }
+    }
+
+    /**
+     * Frame code with flags it's coded with and estimated header size.
+     */
+    private static final class Choice {
+        private final int code;
+        private final long flags;
+        private final int size;
+
+        Choice(final int code, final long flags, final int size) {
+            this.code = code;
+            this.flags = flags;
+            this.size = size;
+        }
+
+        static Choice better(final Choice first, final Choice second) {
+            if (first == null) {
+                return second;
+            }
+            if (second == null) {
+                return first;
+            }
+            if (second.size < first.size
+                    || (second.size == first.size && second.code < first.code)) {
+                return second;
+            }
+            return first;
+        }
+    }
+
+    /**
+     * Lookup key of up to 3 values.
+     */
+    private static final class Key {
+        private long first;
+        private long second;
+        private long third;
+
+        Key(final long first, final long second, final long third) {
+            set(first, second, third);
+        }
+
+        Key set(final long newFirst, final long newSecond, final long newThird) {
+            this.first = newFirst;
+            this.second = newSecond;
+            this.third = newThird;
+            return this;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return first == key.first && second == key.second && third == key.third;
+        }
 
-        TsFrame(final Rational timestamp, final NutFrame frame) {
-            this.timestamp = timestamp;
-            this.frame = frame;
+        @Override
+        @SuppressWarnings("checkstyle:MagicNumber")
+        public int hashCode() {
+            return Long.hashCode(first) * 961 + Long.hashCode(second) * 31
+                    + Long.hashCode(third);
         }
     }
 }
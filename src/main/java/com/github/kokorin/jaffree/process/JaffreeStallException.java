@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.github.kokorin.jaffree.process;
+
+import com.github.kokorin.jaffree.log.LogMessage;
+
+import java.util.List;
+
+/**
+ * Thrown if ffmpeg was stopped because its progress stalled for longer than the configured
+ * stall timeout.
+ *
+ * @see com.github.kokorin.jaffree.ffmpeg.FFmpeg#setStallTimeout
+ */
+public class JaffreeStallException extends JaffreeAbnormalExitException {
+    private final long stalledForMillis;
+
+    /**
+     * Constructs a new {@link JaffreeStallException}.
+     *
+     * @param message                 message
+     * @param processErrorLogMessages error log messages produced by the process
+     * @param stalledForMillis        how long the process made no progress
+     */
+    public JaffreeStallException(final String message,
+                                 final List<LogMessage> processErrorLogMessages,
+                                 final long stalledForMillis) {
+        super(message, processErrorLogMessages);
+
+        this.stalledForMillis = stalledForMillis;
+    }
+
+    /**
+     * Returns how long the process made no progress before it was stopped.
+     *
+     * @return stall duration in milliseconds
+     */
+    public long getStalledForMillis() {
+        return stalledForMillis;
+    }
+}
@@ -21,19 +21,25 @@ import com.github.kokorin.jaffree.LogLevel
 import com.github.kokorin.jaffree.ffmpeg.FFmpeg
 import com.github.kokorin.jaffree.ffmpeg.FFmpegResult
 import com.github.kokorin.jaffree.ffmpeg.OutputListener
+import com.github.kokorin.jaffree.process.JaffreeStallException
 import com.github.kokorin.jaffree.util.ParseUtil
 import io.v47.jaffree.process.LinesProcessHandler
+import io.v47.jaffree.process.LogCapturePolicy
 import io.v47.jaffree.process.ProcessAccess
 import io.v47.jaffree.process.ProcessAccessor
+import io.v47.jaffree.process.ResourceUsage
+import io.v47.jaffree.process.containsAscii
 import io.v47.jaffree.utils.parseLogMessage
 import org.slf4j.LoggerFactory
 
 
 private val ffmpegLogger = LoggerFactory.getLogger(FFmpeg::class.java)!!
 
-internal class FFmpegProcessHandler(
-    private val outputListener: OutputListener?
-) : LinesProcessHandler<FFmpegResult>(), ProcessAccessor {
+internal class FFmpegProcessHandler @JvmOverloads constructor(
+    private val outputListener: OutputListener?,
+    private val stallWatchdog: StallWatchdog? = null,
+    logCapturePolicy: LogCapturePolicy = LogCapturePolicy.DEFAULT
+) : LinesProcessHandler<FFmpegResult>(logCapturePolicy), ProcessAccessor {
     private lateinit var processAccess: ProcessAccess
     private var possibleResult: FFmpegResult? = null
 
@@ -41,10 +47,12 @@ internal class FFmpegProcessHandler(
         this.processAccess = processAccess
     }
 
-    override fun onStderrLine(line: String) {
-        if ("frame=" in line && "bitrate=" in line && "speed=" in line)
-            return
+    override fun acceptStderrLine(bytes: ByteArray, length: Int) =
+        !(bytes.containsAscii(length, "frame=") &&
+                bytes.containsAscii(length, "bitrate=") &&
+                bytes.containsAscii(length, "speed="))
 
+    override fun onStderrLine(line: String) {
         val parseResult = ParseUtil.parseResult(line)
         if (parseResult != null) {
             possibleResult = parseResult
@@ -67,11 +75,22 @@ internal class FFmpegProcessHandler(
 
     override fun getResult(exitCode: Int): Result<FFmpegResult> {
         processLastLogMessage(ffmpegLogger, ::handleLogMessage)
+        finishLog(ffmpegLogger)
+
+        val stalledForMillis = stallWatchdog?.stalledForMillis
+        if (stalledForMillis != null)
+            return Result.failure(
+                JaffreeStallException(
+                    "Process was stopped after making no progress for $stalledForMillis ms",
+                    errorLogMessages,
+                    stalledForMillis
+                )
+            )
 
         return if (exitCode != 0 && finalErrorMessage != null)
             Result.failure(JaffreeException(finalErrorMessage))
         else
-            Result.success(possibleResult ?: FFmpegResult(null, null, null, null, null, null))
+            Result.success(possibleResult.withResourceUsage(processAccess.resourceUsage))
     }
 
     private fun handleLogMessage(logLevel: LogLevel, message: String) {
@@ -89,3 +108,14 @@ internal class FFmpegProcessHandler(
         }
     }
 }
+
+private fun FFmpegResult?.withResourceUsage(resourceUsage: ResourceUsage?) =
+    FFmpegResult(
+        this?.videoSize,
+        this?.audioSize,
+        this?.subtitleSize,
+        this?.otherStreamsSize,
+        this?.globalHeadersSize,
+        this?.muxingOverheadRatio,
+        resourceUsage
+    )
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.ffmpeg
+
+import com.github.kokorin.jaffree.ffmpeg.FFmpeg
+import com.github.kokorin.jaffree.ffmpeg.FFmpegProgress
+import com.github.kokorin.jaffree.ffmpeg.ProgressListener
+import io.v47.jaffree.process.ProcessAccess
+import io.v47.jaffree.process.ProcessListener
+import org.slf4j.LoggerFactory
+import java.util.concurrent.ScheduledFuture
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+
+private val logger = LoggerFactory.getLogger(FFmpeg::class.java)!!
+
+private const val MIN_CHECK_INTERVAL_MILLIS = 100L
+private const val MAX_CHECK_INTERVAL_MILLIS = 1000L
+private const val CHECKS_PER_TIMEOUT = 4
+
+private val timer by lazy {
+    ScheduledThreadPoolExecutor(1) { runnable ->
+        Thread(runnable, "jaffree-stall-watchdog").apply { isDaemon = true }
+    }.apply {
+        removeOnCancelPolicy = true
+    }
+}
+
+/**
+ * Stops ffmpeg if neither its output time nor its output size advanced for [stallTimeoutMillis].
+ *
+ * ffmpeg is asked to quit first, if it's still running after [gracePeriodMillis] it's killed.
+ * The watchdog wraps the progress and process listeners configured by the user, all checks run
+ * on one shared timer thread.
+ */
+internal class StallWatchdog(
+    private val stallTimeoutMillis: Long,
+    private val gracePeriodMillis: Long,
+    private val progressListener: ProgressListener?,
+    private val processListener: ProcessListener?
+) : ProgressListener, ProcessListener {
+    @Volatile
+    private var lastAdvanceNanos = System.nanoTime()
+
+    private var lastOutTimeMicros = -1L
+    private var lastSize = -1L
+
+    @Volatile
+    private var check: ScheduledFuture<*>? = null
+
+    @Volatile
+    private var stopped = false
+
+    /**
+     * How long ffmpeg made no progress before it was stopped, `null` if it didn't stall
+     */
+    @Volatile
+    var stalledForMillis: Long? = null
+        private set
+
+    override fun onStart(processAccess: ProcessAccess) {
+        lastAdvanceNanos = System.nanoTime()
+
+        val interval =
+            (stallTimeoutMillis / CHECKS_PER_TIMEOUT)
+                .coerceIn(MIN_CHECK_INTERVAL_MILLIS, MAX_CHECK_INTERVAL_MILLIS)
+
+        check =
+            timer.scheduleWithFixedDelay(
+                { check(processAccess) },
+                interval,
+                interval,
+                TimeUnit.MILLISECONDS
+            )
+
+        processListener?.onStart(processAccess)
+    }
+
+    override fun onStop(processAccess: ProcessAccess, exitCode: Int) {
+        stopped = true
+        check?.cancel(false)
+
+        processListener?.onStop(processAccess, exitCode)
+    }
+
+    @Synchronized
+    override fun onProgress(progress: FFmpegProgress, processAccess: ProcessAccess) {
+        val outTimeMicros = progress.timeMicros ?: -1
+        val size = progress.size ?: -1
+
+        if (outTimeMicros > lastOutTimeMicros || size > lastSize) {
+            lastAdvanceNanos = System.nanoTime()
+            lastOutTimeMicros = maxOf(outTimeMicros, lastOutTimeMicros)
+            lastSize = maxOf(size, lastSize)
+        }
+
+        progressListener?.onProgress(progress, processAccess)
+    }
+
+    private fun check(processAccess: ProcessAccess) {
+        if (stopped || stalledForMillis != null)
+            return
+
+        val stalledFor = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastAdvanceNanos)
+        if (stalledFor < stallTimeoutMillis)
+            return
+
+        stalledForMillis = stalledFor
+        check?.cancel(false)
+
+        logger.warn(
+            "ffmpeg process {} made no progress for {} ms, stopping it",
+            processAccess.pid,
+            stalledFor
+        )
+
+        processAccess.stopGracefully()
+
+        timer.schedule(
+            {
+                if (!stopped) {
+                    logger.warn(
+                        "ffmpeg process {} still running {} ms after stall, killing it",
+                        processAccess.pid,
+                        gracePeriodMillis
+                    )
+
+                    processAccess.stopForcefully()
+                }
+            },
+            gracePeriodMillis,
+            TimeUnit.MILLISECONDS
+        )
+    }
+}
@@ -20,20 +20,68 @@ import com.github.kokorin.jaffree.JaffreeException
 import com.github.kokorin.jaffree.ffprobe.FFprobe
 import com.github.kokorin.jaffree.ffprobe.FFprobeResult
 import com.github.kokorin.jaffree.ffprobe.data.FormatParser
+import com.github.kokorin.jaffree.ffprobe.data.ProbeData
+import com.github.kokorin.jaffree.process.ProcessHelper
 import io.v47.jaffree.process.LinesProcessHandler
+import io.v47.jaffree.process.LogCapturePolicy
+import io.v47.jaffree.process.OptionalHelper
+import io.v47.jaffree.process.ProcessAccess
+import io.v47.jaffree.process.ProcessAccessor
 import io.v47.jaffree.utils.parseLogMessage
 import org.slf4j.LoggerFactory
-import java.io.ByteArrayInputStream
-import java.io.ByteArrayOutputStream
+import java.nio.ByteBuffer
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.atomic.AtomicBoolean
 
 private val ffprobeLogger = LoggerFactory.getLogger(FFprobe::class.java)!!
 
-internal class FFprobeProcessHandler(
-    private val parser: FormatParser
-) : LinesProcessHandler<FFprobeResult>() {
-    private var contentWritten = false
-    private val stdOutputContent = ByteArrayOutputStream()
-    private val stdOutputWriter = stdOutputContent.writer(Charsets.UTF_8)
+internal class FFprobeProcessHandler @JvmOverloads constructor(
+    private val parser: FormatParser,
+    logCapturePolicy: LogCapturePolicy = LogCapturePolicy.DEFAULT
+) : LinesProcessHandler<FFprobeResult>(logCapturePolicy), ProcessAccessor {
+    private var processAccess: ProcessAccess? = null
+    private val stdoutPipe = ProbeDataPipe()
+    private val probeData = CompletableFuture<ProbeData>()
+
+    private val parserClaimed = AtomicBoolean()
+
+    /**
+     * Parses stdout while ffprobe is still running. It's an [OptionalHelper], if it doesn't
+     * get to run, stdout is buffered and parsed by [getResult] once ffprobe has finished.
+     */
+    val parserHelper: ProcessHelper =
+        object : OptionalHelper {
+            override fun run() {
+                if (!parserClaimed.compareAndSet(false, true))
+                    return
+
+                stdoutPipe.attachReader()
+                parseProbeData()
+            }
+
+            override fun close() {
+                stdoutPipe.finish()
+            }
+        }
+
+    private fun parseProbeData() {
+        ffprobeLogger.debug("Reading probe data using {} parser", parser.formatName)
+
+        stdoutPipe.use { input ->
+            runCatching {
+                parser.parse(input)
+            }.onSuccess {
+                probeData.complete(it)
+            }.onFailure {
+                probeData.completeExceptionally(it)
+            }
+        }
+    }
+
+    override fun setProcessAccess(processAccess: ProcessAccess) {
+        this.processAccess = processAccess
+    }
 
     override fun onStderrLine(line: String) {
         val logMessage = parseLogMessage(line)
@@ -45,36 +93,39 @@ internal class FFprobeProcessHandler(
             appendOrLogLine(ffprobeLogger, line.trim())
     }
 
-    override fun onStdoutLine(line: String) {
-        if (line.isBlank())
-            return
+    override fun onStdout(buffer: ByteBuffer, closed: Boolean) {
+        stdoutPipe.write(buffer)
 
-        if (contentWritten)
-            stdOutputWriter.append('\n')
+        if (closed)
+            stdoutPipe.finish()
+    }
 
-        stdOutputWriter.append(line)
-        contentWritten = true
+    override fun onStdoutLine(line: String) {
+        // stdout isn't split into lines, see onStdout
     }
 
     override fun getResult(exitCode: Int): Result<FFprobeResult> {
-        stdOutputWriter.close()
-        stdOutputContent.close()
+        stdoutPipe.finish()
 
         processLastLogMessage(ffprobeLogger)
+        finishLog(ffprobeLogger)
 
         if (exitCode != 0 && finalErrorMessage != null)
             return Result.failure(JaffreeException(finalErrorMessage))
 
-        ffprobeLogger.debug("Reading probe data using {} parser", parser.formatName)
+        if (parserClaimed.compareAndSet(false, true))
+            parseProbeData()
 
-        return ByteArrayInputStream(stdOutputContent.toByteArray()).use { input ->
-            runCatching {
-                parser.parse(input)
-            }.recoverCatching { x ->
-                throw JaffreeException("Failed to parse probe data", x)
-            }.map { probeData ->
-                FFprobeResult(probeData)
+        return runCatching {
+            try {
+                probeData.get()
+            } catch (x: ExecutionException) {
+                throw x.cause ?: x
             }
+        }.recoverCatching { x ->
+            throw JaffreeException("Failed to parse probe data", x)
+        }.map { probeData ->
+            FFprobeResult(probeData, processAccess?.resourceUsage)
         }
     }
 }
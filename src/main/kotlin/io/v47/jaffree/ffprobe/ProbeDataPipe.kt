@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.ffprobe
+
+import org.slf4j.LoggerFactory
+import java.io.IOException
+import java.io.InputStream
+import java.io.InterruptedIOException
+import java.nio.ByteBuffer
+import java.util.ArrayDeque
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+private const val DEFAULT_CAPACITY = 1024 * 1024
+
+private val EMPTY = ByteArray(0)
+
+private val logger = LoggerFactory.getLogger(ProbeDataPipe::class.java)!!
+
+/**
+ * Hands the stdout chunks of ffprobe to the thread running the parser.
+ *
+ * [write] is called from the NuProcess callback, which is shared by all running processes, so
+ * it never blocks. If the parser falls behind, the pipe grows beyond [capacity] instead; the
+ * growth is tracked in [bufferedBytes] and [peakBufferedBytes] and reported once as a
+ * warning. Without a reader nothing drains the pipe, so all data is buffered until the
+ * handler parses it after the process has finished.
+ *
+ * @param capacity the number of buffered bytes above which an attached reader is considered
+ * to fall behind
+ */
+internal class ProbeDataPipe(private val capacity: Int = DEFAULT_CAPACITY) : InputStream() {
+    init {
+        require(capacity > 0) { "capacity must be positive" }
+    }
+
+    private val lock = ReentrantLock()
+    private val notEmpty = lock.newCondition()
+
+    private val chunks = ArrayDeque<ByteArray>()
+
+    /**
+     * The number of bytes written but not yet taken by the reader
+     */
+    var bufferedBytes = 0L
+        get() = lock.withLock { field }
+        private set
+
+    /**
+     * The highest value [bufferedBytes] has reached
+     */
+    var peakBufferedBytes = 0L
+        get() = lock.withLock { field }
+        private set
+
+    private var readerAttached = false
+    private var overflowReported = false
+    private var finished = false
+    private var abandoned = false
+
+    private var current = EMPTY
+    private var currentPos = 0
+
+    /**
+     * Signals that a thread reads this pipe concurrently, so growth beyond [capacity] means
+     * that the reader falls behind
+     */
+    fun attachReader() {
+        lock.withLock {
+            readerAttached = true
+        }
+    }
+
+    /**
+     * Copies the remaining bytes of [buffer], NuProcess reuses it after the callback.
+     */
+    fun write(buffer: ByteBuffer) {
+        if (!buffer.hasRemaining())
+            return
+
+        lock.withLock {
+            if (finished || abandoned) {
+                buffer.position(buffer.limit())
+                return
+            }
+
+            val chunk = ByteArray(buffer.remaining())
+            buffer.get(chunk)
+
+            chunks.addLast(chunk)
+            bufferedBytes += chunk.size
+            if (bufferedBytes > peakBufferedBytes)
+                peakBufferedBytes = bufferedBytes
+
+            if (readerAttached && !overflowReported && bufferedBytes > capacity) {
+                overflowReported = true
+                logger.warn(
+                    "Probe data parser falls behind, more than {} bytes are buffered",
+                    capacity
+                )
+            }
+
+            notEmpty.signal()
+        }
+    }
+
+    /**
+     * Signals that no more data will be written. Can be called multiple times.
+     */
+    fun finish() {
+        lock.withLock {
+            finished = true
+            notEmpty.signalAll()
+        }
+    }
+
+    @Throws(IOException::class)
+    override fun read(): Int {
+        if (!nextChunk())
+            return -1
+
+        return current[currentPos++].toInt() and 0xff
+    }
+
+    @Throws(IOException::class)
+    override fun read(b: ByteArray, off: Int, len: Int): Int {
+        if (len == 0)
+            return 0
+
+        if (!nextChunk())
+            return -1
+
+        val count = minOf(len, current.size - currentPos)
+        System.arraycopy(current, currentPos, b, off, count)
+        currentPos += count
+
+        return count
+    }
+
+    override fun available() =
+        current.size - currentPos
+
+    /**
+     * Called by the parser, any data written afterward is discarded
+     */
+    override fun close() {
+        lock.withLock {
+            abandoned = true
+            chunks.clear()
+            bufferedBytes = 0
+        }
+
+        current = EMPTY
+        currentPos = 0
+    }
+
+    private fun nextChunk(): Boolean {
+        if (currentPos < current.size)
+            return true
+
+        lock.withLock {
+            while (chunks.isEmpty()) {
+                if (finished || abandoned)
+                    return false
+
+                try {
+                    notEmpty.await()
+                } catch (x: InterruptedException) {
+                    Thread.currentThread().interrupt()
+                    throw InterruptedIOException("Interrupted while waiting for probe data")
+                        .apply { initCause(x) }
+                }
+            }
+
+            current = chunks.removeFirst()
+            currentPos = 0
+
+            bufferedBytes -= current.size
+        }
+
+        return true
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.process
+
+import java.util.concurrent.CancellationException
+
+/**
+ * The outcome of a single job of a batch.
+ *
+ * @param index the position of the job in the submitted collection
+ * @param result the result of the job, `null` if it failed
+ * @param error the reason the job failed, `null` if it succeeded
+ * @param latencyMillis the time from starting the job until it finished, `0` if it never
+ * started
+ */
+data class BatchCompletion<T>(
+    val index: Int,
+    val result: T?,
+    val error: Throwable?,
+    val latencyMillis: Long,
+) {
+    val isSuccess: Boolean
+        get() = error == null
+
+    /**
+     * Whether the job was cancelled before or while running
+     */
+    val isCancelled: Boolean
+        get() = error is CancellationException
+}
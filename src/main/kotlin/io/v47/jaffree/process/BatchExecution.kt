@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.process
+
+import com.github.kokorin.jaffree.JaffreeException
+import org.slf4j.LoggerFactory
+import java.util.concurrent.CancellationException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.Supplier
+
+private val logger = LoggerFactory.getLogger(BatchExecution::class.java)!!
+
+/**
+ * A running batch of FFmpeg or FFprobe jobs.
+ *
+ * At most [BatchOptions.parallelism] jobs run at the same time. Whenever a job finishes, the
+ * next one is started right away from the thread that observed the completion, so no threads
+ * are dedicated to the batch itself.
+ *
+ * Iterating over a batch returns the [BatchCompletion] of every job in the order the jobs
+ * finish, blocking until the next one is available. Only one thread should iterate.
+ */
+class BatchExecution<T> private constructor(
+    private val jobs: List<Supplier<ProcessFuture<T>>>,
+    private val options: BatchOptions
+) : Iterable<BatchCompletion<T>> {
+    companion object {
+        /**
+         * Starts a batch, every job is started by calling its [Supplier].
+         *
+         * @param jobs the jobs to run, usually method references to `executeAsync`
+         * @param options the batch options
+         * @return the running batch
+         */
+        @JvmStatic
+        fun <T> start(
+            jobs: Collection<Supplier<ProcessFuture<T>>>,
+            options: BatchOptions
+        ): BatchExecution<T> =
+            BatchExecution(jobs.toList(), options).start()
+    }
+
+    private val startedAt = System.nanoTime()
+
+    private val nextIndex = AtomicInteger()
+    private val startRequests = AtomicInteger()
+    private val stopped = AtomicBoolean()
+    private val running = ConcurrentHashMap<Int, ProcessFuture<T>>()
+
+    private val completionQueue = LinkedBlockingQueue<BatchCompletion<T>>()
+    private val completions = ArrayList<BatchCompletion<T>>()
+
+    /**
+     * Completes with the aggregate result once every job has completed
+     */
+    val result = CompletableFuture<BatchResult<T>>()
+
+    /**
+     * The total number of jobs in this batch
+     */
+    val size: Int
+        get() = jobs.size
+
+    /**
+     * The number of jobs completed so far
+     */
+    val completedCount: Int
+        get() = synchronized(completions) { completions.size }
+
+    private fun start(): BatchExecution<T> {
+        logger.debug("Starting batch of {} jobs with {}", jobs.size, options)
+
+        if (jobs.isEmpty())
+            result.complete(BatchResult(emptyList(), 0))
+        else
+            repeat(minOf(options.parallelism, jobs.size)) { requestStart() }
+
+        return this
+    }
+
+    /**
+     * Waits for every job to complete.
+     *
+     * @return the aggregate result
+     */
+    fun await(): BatchResult<T> =
+        try {
+            result.get()
+        } catch (x: InterruptedException) {
+            Thread.currentThread().interrupt()
+            throw JaffreeException("Interrupted while waiting for batch", x)
+        } catch (x: ExecutionException) {
+            throw JaffreeException("Batch failed", x.cause)
+        }
+
+    /**
+     * Stops the batch. Running jobs are stopped forcefully, jobs that haven't started yet are
+     * reported as cancelled.
+     */
+    fun cancel() {
+        stop()
+    }
+
+    override fun iterator(): Iterator<BatchCompletion<T>> =
+        object : Iterator<BatchCompletion<T>> {
+            private var consumed = 0
+
+            override fun hasNext() = consumed < jobs.size
+
+            override fun next(): BatchCompletion<T> {
+                if (!hasNext())
+                    throw NoSuchElementException()
+
+                val completion =
+                    try {
+                        completionQueue.take()
+                    } catch (x: InterruptedException) {
+                        Thread.currentThread().interrupt()
+                        throw JaffreeException("Interrupted while waiting for batch", x)
+                    }
+
+                consumed++
+                return completion
+            }
+        }
+
+    /**
+     * Starts the next job. Futures that are already complete run their callbacks on the
+     * calling stack, so the thread that's already starting jobs picks up requests made in the
+     * meantime instead of recursing.
+     */
+    private fun requestStart() {
+        if (startRequests.getAndIncrement() != 0)
+            return
+
+        do {
+            startNext()
+        } while (startRequests.decrementAndGet() != 0)
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun startNext() {
+        while (true) {
+            val index = nextIndex.getAndIncrement()
+            if (index >= jobs.size)
+                return
+
+            if (stopped.get()) {
+                complete(index, null, CancellationException("Batch was stopped"), 0)
+                continue
+            }
+
+            val jobStartedAt = System.nanoTime()
+
+            val future =
+                try {
+                    jobs[index].get()
+                } catch (x: Exception) {
+                    complete(index, null, x, elapsedMillis(jobStartedAt))
+                    continue
+                }
+
+            running[index] = future
+
+            // a stop may have happened before the job was registered
+            if (stopped.get())
+                future.cancel(true)
+
+            future.whenComplete { value, x ->
+                running.remove(index)
+
+                val error =
+                    if (x != null && future.isCancelled)
+                        CancellationException("Batch was stopped").apply { initCause(unwrap(x)) }
+                    else
+                        unwrap(x)
+
+                complete(index, value, error, elapsedMillis(jobStartedAt))
+                requestStart()
+            }
+
+            return
+        }
+    }
+
+    private fun complete(index: Int, value: T?, error: Throwable?, latencyMillis: Long) {
+        val completion = BatchCompletion(index, value, error, latencyMillis)
+
+        val allCompletions =
+            synchronized(completions) {
+                completions.add(completion)
+                // same order for iteration and BatchResult.completions
+                completionQueue.put(completion)
+
+                if (completions.size == jobs.size)
+                    completions.toList()
+                else
+                    null
+            }
+
+        if (error != null && error !is CancellationException && options.failFast)
+            stop()
+
+        if (allCompletions != null)
+            result.complete(BatchResult(allCompletions, elapsedMillis(startedAt)))
+    }
+
+    private fun stop() {
+        if (!stopped.getAndSet(true)) {
+            logger.debug("Stopping batch, {} jobs running", running.size)
+            running.values.forEach { it.cancel(true) }
+        }
+    }
+
+    private fun unwrap(x: Throwable?) =
+        if (x is CompletionException || x is ExecutionException)
+            x.cause ?: x
+        else
+            x
+
+    private fun elapsedMillis(since: Long) =
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - since)
+
+    override fun toString() =
+        "BatchExecution(jobs=${jobs.size}, completed=$completedCount, running=${running.size})"
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.process
+
+/**
+ * Options for executing a batch of FFmpeg or FFprobe jobs.
+ *
+ * @param parallelism the maximum number of jobs running at the same time
+ * @param failFast stops the batch at the first failed job. Running jobs are stopped forcefully
+ * and jobs that haven't started yet are reported as cancelled. If `false` all jobs are run
+ * and every result is collected.
+ */
+class BatchOptions @JvmOverloads constructor(
+    val parallelism: Int = Runtime.getRuntime().availableProcessors(),
+    val failFast: Boolean = false
+) {
+    init {
+        require(parallelism > 0) { "parallelism must be positive" }
+    }
+
+    override fun toString() = "BatchOptions(parallelism=$parallelism, failFast=$failFast)"
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.process
+
+/**
+ * The aggregate outcome of a batch once every job has completed.
+ *
+ * @param completions the outcome of every job, in the order the jobs finished
+ * @param elapsedMillis the time from starting the batch until the last job finished
+ */
+class BatchResult<T>(
+    val completions: List<BatchCompletion<T>>,
+    val elapsedMillis: Long,
+) {
+    /**
+     * The number of jobs that finished successfully
+     */
+    val succeeded: Int = completions.count { it.isSuccess }
+
+    /**
+     * The number of jobs that were cancelled, e.g. because another job failed in fail-fast mode
+     */
+    val cancelled: Int = completions.count { it.isCancelled }
+
+    /**
+     * The number of jobs that failed, not counting cancelled jobs
+     */
+    val failed: Int = completions.size - succeeded - cancelled
+
+    /**
+     * Completed jobs per second
+     */
+    val jobsPerSecond: Double =
+        if (elapsedMillis > 0)
+            (succeeded + failed) * MILLIS_PER_SECOND / elapsedMillis
+        else
+            0.0
+
+    private val sortedLatencies =
+        completions
+            .filter { !it.isCancelled }
+            .map { it.latencyMillis }
+            .sorted()
+
+    /**
+     * The median latency of the jobs that ran, in milliseconds
+     */
+    val p50LatencyMillis: Long = percentile(P50)
+
+    /**
+     * The 99th percentile latency of the jobs that ran, in milliseconds
+     */
+    val p99LatencyMillis: Long = percentile(P99)
+
+    /**
+     * The results of the successful jobs, ordered like the submitted jobs
+     */
+    val results: List<T>
+        get() =
+            completions
+                .filter { it.isSuccess }
+                .sortedBy { it.index }
+                .map {
+                    @Suppress("UNCHECKED_CAST")
+                    it.result as T
+                }
+
+    /**
+     * The first failure in finish order, `null` if no job failed
+     */
+    val firstError: Throwable?
+        get() = completions.firstOrNull { !it.isSuccess && !it.isCancelled }?.error
+
+    private fun percentile(p: Double): Long =
+        if (sortedLatencies.isEmpty())
+            0
+        else
+            sortedLatencies[
+                (Math.ceil(p * sortedLatencies.size).toInt() - 1).coerceIn(sortedLatencies.indices)
+            ]
+
+    override fun toString() =
+        "BatchResult(jobs=${completions.size}, succeeded=$succeeded, failed=$failed, " +
+                "cancelled=$cancelled, elapsedMillis=$elapsedMillis, " +
+                "jobsPerSecond=${"%.2f".format(jobsPerSecond)}, " +
+                "p50LatencyMillis=$p50LatencyMillis, p99LatencyMillis=$p99LatencyMillis)"
+
+    private companion object {
+        const val MILLIS_PER_SECOND = 1000.0
+        const val P50 = 0.5
+        const val P99 = 0.99
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.process
+
+import org.slf4j.LoggerFactory
+import java.util.TreeSet
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+private val logger = LoggerFactory.getLogger(ExecutionGovernor::class.java)!!
+
+/**
+ * Limits the number of FFmpeg and FFprobe processes running at the same time.
+ *
+ * Executions exceeding the limits are queued and started as soon as a running process
+ * finishes. Queued executions with a higher priority are started first, executions with the
+ * same priority are started in the order they were submitted. An execution whose tag has
+ * reached its limit doesn't block executions with other tags.
+ *
+ * Set it using [ProcessConfig.executionGovernor].
+ *
+ * @param maxConcurrent the maximum number of processes running at the same time
+ * @param tagLimits the maximum number of processes running at the same time per execution tag
+ */
+class ExecutionGovernor @JvmOverloads constructor(
+    val maxConcurrent: Int,
+    tagLimits: Map<String, Int> = emptyMap()
+) {
+    init {
+        require(maxConcurrent > 0) { "maxConcurrent must be positive" }
+        require(tagLimits.values.all { it > 0 }) { "tag limits must be positive" }
+    }
+
+    private val tagLimits = tagLimits.toMap()
+
+    private val lock = ReentrantLock()
+    private val queue = TreeSet<Ticket>()
+    private val inFlightByTag = HashMap<String, Int>()
+    private var inFlight = 0
+
+    private val seq = AtomicLong()
+    private val admittedMut = AtomicLong()
+    private val totalWaitNanos = AtomicLong()
+    private val maxWaitNanos = AtomicLong()
+
+    /**
+     * The number of processes currently running
+     */
+    val inFlightCount: Int
+        get() = lock.withLock { inFlight }
+
+    /**
+     * The number of executions waiting to be started
+     */
+    val queuedCount: Int
+        get() = lock.withLock { queue.size }
+
+    /**
+     * The number of executions admitted so far
+     */
+    val admittedCount: Long
+        get() = admittedMut.get()
+
+    /**
+     * The average time admitted executions spent in the queue, in milliseconds
+     */
+    val averageQueueWaitMillis: Long
+        get() {
+            val admitted = admittedMut.get()
+            return if (admitted > 0)
+                TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / admitted)
+            else
+                0
+        }
+
+    /**
+     * The longest time an admitted execution spent in the queue, in milliseconds
+     */
+    val maxQueueWaitMillis: Long
+        get() = TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get())
+
+    /**
+     * Returns the number of processes with the specified tag currently running
+     */
+    fun inFlightCount(tag: String): Int =
+        lock.withLock { inFlightByTag[tag] ?: 0 }
+
+    /**
+     * Returns the number of executions with the specified tag waiting to be started
+     */
+    fun queuedCount(tag: String): Int =
+        lock.withLock { queue.count { it.tag == tag } }
+
+    /**
+     * Starts [launch] right away if the limits allow it, otherwise queues it. Every admitted
+     * ticket must be given back using [release] once its process has finished.
+     */
+    @JvmName("submit")
+    internal fun submit(tag: String?, priority: Int, launch: (Ticket) -> Unit): Ticket {
+        val ticket = Ticket(tag, priority, seq.getAndIncrement(), launch)
+
+        val admitted =
+            lock.withLock {
+                queue.add(ticket)
+                pollAdmissible()
+            }
+
+        if (admitted.isEmpty())
+            logger.debug("Execution queued: {}", ticket)
+
+        admitted.forEach { it.start() }
+
+        return ticket
+    }
+
+    /**
+     * Gives back the capacity held by [ticket] and starts queued executions that fit.
+     */
+    @JvmName("release")
+    internal fun release(ticket: Ticket) {
+        val admitted =
+            lock.withLock {
+                if (!ticket.admitted)
+                    return
+
+                ticket.admitted = false
+
+                inFlight--
+                ticket.tag?.let { tag ->
+                    val count = inFlightByTag.getValue(tag) - 1
+                    if (count == 0)
+                        inFlightByTag.remove(tag)
+                    else
+                        inFlightByTag[tag] = count
+                }
+
+                pollAdmissible()
+            }
+
+        admitted.forEach { it.start() }
+    }
+
+    /**
+     * Removes [ticket] from the queue.
+     *
+     * @return `true` if it was still queued and will never be started
+     */
+    @JvmName("cancel")
+    internal fun cancel(ticket: Ticket): Boolean =
+        lock.withLock { queue.remove(ticket) }
+
+    private fun pollAdmissible(): List<Ticket> {
+        var admitted: MutableList<Ticket>? = null
+
+        val iterator = queue.iterator()
+        while (inFlight < maxConcurrent && iterator.hasNext()) {
+            val ticket = iterator.next()
+            val tag = ticket.tag
+            val tagLimit = tag?.let { tagLimits[it] }
+
+            if (tagLimit != null && (inFlightByTag[tag] ?: 0) >= tagLimit)
+                continue
+
+            iterator.remove()
+
+            inFlight++
+            if (tag != null)
+                inFlightByTag[tag] = (inFlightByTag[tag] ?: 0) + 1
+
+            ticket.admitted = true
+
+            if (admitted == null)
+                admitted = mutableListOf()
+
+            admitted.add(ticket)
+        }
+
+        return admitted ?: emptyList()
+    }
+
+    private fun Ticket.start() {
+        val waitNanos = System.nanoTime() - queuedAt
+
+        admittedMut.incrementAndGet()
+        totalWaitNanos.addAndGet(waitNanos)
+        maxWaitNanos.accumulateAndGet(waitNanos, ::maxOf)
+
+        launch(this)
+    }
+
+    override fun toString() =
+        lock.withLock {
+            "ExecutionGovernor(maxConcurrent=$maxConcurrent, inFlight=$inFlight, " +
+                    "queued=${queue.size})"
+        }
+
+    internal class Ticket(
+        val tag: String?,
+        val priority: Int,
+        private val seq: Long,
+        val launch: (Ticket) -> Unit
+    ) : Comparable<Ticket> {
+        val queuedAt = System.nanoTime()
+
+        // guarded by the governor's lock
+        var admitted = false
+
+        override fun compareTo(other: Ticket) =
+            when {
+                priority != other.priority -> other.priority.compareTo(priority)
+                else -> seq.compareTo(other.seq)
+            }
+
+        override fun toString() = "Ticket(tag=$tag, priority=$priority, seq=$seq)"
+    }
+}
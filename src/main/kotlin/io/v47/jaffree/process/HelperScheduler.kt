@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.process
+
+import com.github.kokorin.jaffree.JaffreeException
+import org.slf4j.LoggerFactory
+import java.util.concurrent.Future
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.Semaphore
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+private val logger = LoggerFactory.getLogger(HelperScheduler::class.java)!!
+
+private const val DEFAULT_MAX_HELPERS = 256
+private const val KEEP_ALIVE_SECONDS = 60L
+
+/**
+ * Runs the helper threads of all FFmpeg and FFprobe executions (TCP servers, pipe pumps,
+ * progress readers) on one shared, bounded thread pool. It's only used once it's set as
+ * [ProcessConfig.helperScheduler].
+ *
+ * Helpers of a single execution usually depend on each other through the running process, so
+ * they must all run at the same time. That's why every execution reserves one slot per helper
+ * before anything is submitted. If the slots can't be reserved within [acquireTimeoutMillis]
+ * the execution fails fast with a [JaffreeException] instead of queueing helpers which would
+ * never make progress.
+ *
+ * Threads are created on demand and time out after being idle for a minute. If
+ * [ProcessConfig.useVirtualThreads] is enabled, helpers run on virtual threads instead and
+ * no slots are reserved.
+ *
+ * @param maxHelpers the maximum number of helpers running at the same time
+ * @param acquireTimeoutMillis how long an execution waits for free slots, `0` to fail immediately
+ */
+class HelperScheduler @JvmOverloads constructor(
+    val maxHelpers: Int = DEFAULT_MAX_HELPERS,
+    val acquireTimeoutMillis: Long = 0
+) {
+    init {
+        require(maxHelpers > 0) { "maxHelpers must be positive" }
+        require(acquireTimeoutMillis >= 0) { "acquireTimeoutMillis must not be negative" }
+    }
+
+    private val slots = Semaphore(maxHelpers, true)
+
+    private val waitingMut = AtomicInteger()
+    private val activeMut = AtomicInteger()
+    private val rejectedMut = AtomicLong()
+
+    private val threadPool =
+        ThreadPoolExecutor(
+            maxHelpers,
+            maxHelpers,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            LinkedBlockingQueue(),
+            HelperThreadFactory()
+        ).apply {
+            allowCoreThreadTimeOut(true)
+        }
+
+    /**
+     * The number of helpers currently running
+     */
+    val activeCount: Int
+        get() = activeMut.get()
+
+    /**
+     * The number of executions currently waiting for free slots
+     */
+    val queueDepth: Int
+        get() = waitingMut.get()
+
+    /**
+     * The number of slots that are neither reserved nor in use
+     */
+    val availableSlots: Int
+        get() = slots.availablePermits()
+
+    /**
+     * The number of executions rejected because the scheduler was saturated
+     */
+    val rejectedCount: Long
+        get() = rejectedMut.get()
+
+    /**
+     * Stops accepting new helpers. Running helpers are not interrupted.
+     */
+    fun shutdown() {
+        threadPool.shutdown()
+    }
+
+    @JvmName("submitAll")
+    internal fun submitAll(execTag: String, helpers: List<Runnable>): List<Future<*>> {
+        if (helpers.isEmpty())
+            return emptyList()
+
+        val virtualExecutor = VirtualThreads.executorIfEnabled()
+        if (virtualExecutor != null)
+            return helpers.map { helper ->
+                virtualExecutor.submit { runHelper(helper, false) }
+            }
+
+        reserve(execTag, helpers.size)
+
+        var submitted = 0
+        try {
+            return helpers.map { helper ->
+                threadPool.submit { runHelper(helper, true) }.also { submitted++ }
+            }
+        } catch (x: RejectedExecutionException) {
+            slots.release(helpers.size - submitted)
+            throw JaffreeException("[$execTag] Helper scheduler is shut down", x)
+        }
+    }
+
+    /**
+     * Runs [helper] if a slot is free right now, never waits and never counts as a rejection.
+     *
+     * @return the future of the helper or `null` if it wasn't submitted
+     */
+    @JvmName("trySubmit")
+    internal fun trySubmit(helper: Runnable): Future<*>? {
+        val virtualExecutor = VirtualThreads.executorIfEnabled()
+        if (virtualExecutor != null)
+            return virtualExecutor.submit { runHelper(helper, false) }
+
+        if (!slots.tryAcquire())
+            return null
+
+        return try {
+            threadPool.submit { runHelper(helper, true) }
+        } catch (_: RejectedExecutionException) {
+            slots.release()
+            null
+        }
+    }
+
+    private fun reserve(execTag: String, count: Int) {
+        val reserved =
+            if (count <= maxHelpers) {
+                waitingMut.incrementAndGet()
+                try {
+                    slots.tryAcquire(count, acquireTimeoutMillis, TimeUnit.MILLISECONDS)
+                } catch (x: InterruptedException) {
+                    Thread.currentThread().interrupt()
+                    throw JaffreeException("[$execTag] Interrupted while waiting for helpers", x)
+                } finally {
+                    waitingMut.decrementAndGet()
+                }
+            } else
+                false
+
+        if (!reserved) {
+            rejectedMut.incrementAndGet()
+
+            logger.warn(
+                "[{}] Helper scheduler saturated: {} helpers requested, {} of {} available",
+                execTag,
+                count,
+                slots.availablePermits(),
+                maxHelpers
+            )
+
+            throw JaffreeException(
+                "[$execTag] Helper scheduler saturated, can't run $count helpers"
+            )
+        }
+    }
+
+    private fun runHelper(helper: Runnable, releaseSlot: Boolean) {
+        activeMut.incrementAndGet()
+        try {
+            helper.run()
+        } finally {
+            activeMut.decrementAndGet()
+
+            if (releaseSlot)
+                slots.release()
+        }
+    }
+
+    override fun toString() =
+        "HelperScheduler(maxHelpers=$maxHelpers, active=$activeCount, " +
+                "queueDepth=$queueDepth, rejected=$rejectedCount)"
+}
+
+private class HelperThreadFactory : ThreadFactory {
+    private val counter = AtomicInteger()
+
+    override fun newThread(runnable: Runnable) =
+        Thread(runnable, "jaffree-helper-${counter.incrementAndGet()}").apply {
+            isDaemon = true
+        }
+}
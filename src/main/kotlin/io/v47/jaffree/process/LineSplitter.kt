@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.process
+
+import java.nio.ByteBuffer
+import java.nio.CharBuffer
+import java.nio.charset.CharsetDecoder
+import java.nio.charset.CodingErrorAction
+
+private const val CARRIAGE_RETURN = '\r'.code.toByte()
+private const val NEWLINE = '\n'.code.toByte()
+
+private const val INITIAL_CAPACITY = 256
+
+/**
+ * Splits a stream of byte chunks into lines using `\r` and `\n` as separators. Empty lines
+ * are skipped.
+ *
+ * Bytes are collected in a single growable buffer that's reused for every line, so no
+ * intermediate arrays are allocated. Every complete line is first offered to [filter] as a
+ * byte slice, a [String] is only decoded if it's accepted.
+ *
+ * Not thread-safe, NuProcess calls the handler for one stream from one thread only.
+ */
+internal class LineSplitter(
+    private val filter: (bytes: ByteArray, length: Int) -> Boolean,
+    private val onLine: (String) -> Unit
+) {
+    private var lineBytes = ByteArray(INITIAL_CAPACITY)
+    private var lineLength = 0
+
+    private val decoder: CharsetDecoder =
+        Charsets.UTF_8
+            .newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE)
+
+    private var chars = CharBuffer.allocate(INITIAL_CAPACITY)
+
+    fun feed(buffer: ByteBuffer, closed: Boolean) {
+        if (buffer.hasArray())
+            feedArray(buffer)
+        else
+            while (buffer.hasRemaining())
+                accept(buffer.get())
+
+        if (closed)
+            completeLine()
+    }
+
+    private fun feedArray(buffer: ByteBuffer) {
+        val array = buffer.array()
+        val offset = buffer.arrayOffset()
+        val end = offset + buffer.limit()
+
+        var start = offset + buffer.position()
+        var pos = start
+        while (pos < end) {
+            val b = array[pos]
+            if (b == CARRIAGE_RETURN || b == NEWLINE) {
+                append(array, start, pos - start)
+                completeLine()
+                start = pos + 1
+            }
+
+            pos++
+        }
+
+        append(array, start, end - start)
+        buffer.position(buffer.limit())
+    }
+
+    private fun accept(b: Byte) {
+        if (b == CARRIAGE_RETURN || b == NEWLINE)
+            completeLine()
+        else {
+            ensureCapacity(lineLength + 1)
+            lineBytes[lineLength++] = b
+        }
+    }
+
+    private fun append(source: ByteArray, offset: Int, length: Int) {
+        if (length <= 0)
+            return
+
+        ensureCapacity(lineLength + length)
+        System.arraycopy(source, offset, lineBytes, lineLength, length)
+        lineLength += length
+    }
+
+    private fun ensureCapacity(capacity: Int) {
+        if (capacity > lineBytes.size)
+            lineBytes = lineBytes.copyOf(maxOf(capacity, lineBytes.size * 2))
+    }
+
+    private fun completeLine() {
+        val length = lineLength
+        if (length == 0)
+            return
+
+        lineLength = 0
+
+        if (filter(lineBytes, length))
+            onLine(decode(length))
+    }
+
+    private fun decode(length: Int): String {
+        // UTF-8 never produces more chars than bytes
+        if (chars.capacity() < length)
+            chars = CharBuffer.allocate(maxOf(length, chars.capacity() * 2))
+
+        chars.clear()
+        decoder.reset()
+        decoder.decode(ByteBuffer.wrap(lineBytes, 0, length), chars, true)
+        decoder.flush(chars)
+        chars.flip()
+
+        return chars.toString()
+    }
+}
+
+/**
+ * Returns whether the first [length] bytes of this array contain the ASCII [needle].
+ */
+internal fun ByteArray.containsAscii(length: Int, needle: String): Boolean {
+    val last = length - needle.length
+
+    var i = 0
+    outer@ while (i <= last) {
+        for (j in needle.indices)
+            if (this[i + j] != needle[j].code.toByte()) {
+                i++
+                continue@outer
+            }
+
+        return true
+    }
+
+    return false
+}
@@ -21,14 +21,17 @@ import com.github.kokorin.jaffree.log.LogMessage
 import org.slf4j.Logger
 import java.nio.ByteBuffer
 
-private const val CARRIAGE_RETURN = '\r'.code.toByte()
-private const val NEWLINE = '\n'.code.toByte()
+internal abstract class LinesProcessHandler<R>(
+    logCapturePolicy: LogCapturePolicy = LogCapturePolicy.DEFAULT
+) : JaffreeProcessHandler<R> {
+    private val errorLog = ErrorLogBuffer(logCapturePolicy)
+    private val logGate = LogGate(logCapturePolicy)
 
-internal abstract class LinesProcessHandler<R> : JaffreeProcessHandler<R> {
-    override val errorLogMessages = mutableListOf<LogMessage>()
+    override val errorLogMessages: List<LogMessage>
+        get() = errorLog.toList()
 
-    private val currentStderrBytes = mutableListOf<ByteArray>()
-    private val currentStdoutBytes = mutableListOf<ByteArray>()
+    private val stderrLines = LineSplitter(::acceptStderrLine) { onStderrLine(it) }
+    private val stdoutLines = LineSplitter(::acceptStdoutLine) { onStdoutLine(it) }
 
     protected var finalErrorMessage: String? = null
 
@@ -36,29 +39,29 @@ internal abstract class LinesProcessHandler<R> : JaffreeProcessHandler<R> {
     private var lastLogMessageBuilder: StringBuilder? = null
 
     override fun onStderr(buffer: ByteBuffer, closed: Boolean) {
-        while (buffer.hasRemaining()) {
-            if (addToBytes(buffer, currentStderrBytes) && currentStderrBytes.isNotEmpty()) {
-                onStderrLine(String(currentStderrBytes.join()))
-                currentStderrBytes.clear()
-            }
-        }
-
-        if (closed && currentStderrBytes.isNotEmpty())
-            onStderrLine(String(currentStderrBytes.join()))
+        stderrLines.feed(buffer, closed)
     }
 
     override fun onStdout(buffer: ByteBuffer, closed: Boolean) {
-        while (buffer.hasRemaining()) {
-            if (addToBytes(buffer, currentStdoutBytes) && currentStdoutBytes.isNotEmpty()) {
-                onStdoutLine(String(currentStdoutBytes.join()))
-                currentStdoutBytes.clear()
-            }
-        }
-
-        if (closed && currentStdoutBytes.isNotEmpty())
-            onStdoutLine(String(currentStdoutBytes.join()))
+        stdoutLines.feed(buffer, closed)
     }
 
+    /**
+     * Decides whether a line of stderr output is passed on to [onStderrLine]. Lines rejected
+     * here are never decoded into a [String].
+     *
+     * Only the first [length] bytes of [bytes] are valid, the array is reused afterward.
+     */
+    protected open fun acceptStderrLine(bytes: ByteArray, length: Int) = true
+
+    /**
+     * Decides whether a line of stdout output is passed on to [onStdoutLine]. Lines rejected
+     * here are never decoded into a [String].
+     *
+     * Only the first [length] bytes of [bytes] are valid, the array is reused afterward.
+     */
+    protected open fun acceptStdoutLine(bytes: ByteArray, length: Int) = true
+
     abstract fun onStderrLine(line: String)
     abstract fun onStdoutLine(line: String)
 
@@ -68,7 +71,8 @@ internal abstract class LinesProcessHandler<R> : JaffreeProcessHandler<R> {
     }
 
     protected fun appendOrLogLine(logger: Logger, line: String) {
-        lastLogMessageBuilder?.append('\n')?.append(line) ?: logger.info(line)
+        lastLogMessageBuilder?.append('\n')?.append(line)
+            ?: logGate.log(logger, LogLevel.INFO, line)
     }
 
     protected fun processLastLogMessage(
@@ -79,23 +83,10 @@ internal abstract class LinesProcessHandler<R> : JaffreeProcessHandler<R> {
         if (logLevel != null) {
             val message = "$lastLogMessageBuilder"
 
-            when (logLevel) {
-                LogLevel.QUIET,
-                LogLevel.TRACE -> logger.trace(message)
+            logGate.log(logger, logLevel, message)
 
-                LogLevel.VERBOSE,
-                LogLevel.DEBUG -> logger.debug(message)
-
-                LogLevel.INFO -> logger.info(message)
-                LogLevel.WARNING -> logger.warn(message)
-
-                LogLevel.PANIC,
-                LogLevel.FATAL,
-                LogLevel.ERROR -> {
-                    logger.error(message)
-                    errorLogMessages.add(LogMessage(logLevel, message))
-                }
-            }
+            if (logLevel.isErrorOrHigher && logLevel != LogLevel.QUIET)
+                errorLog.add(logLevel, message)
 
             finalErrorMessage =
                 if (logLevel.isErrorOrHigher)
@@ -106,54 +97,12 @@ internal abstract class LinesProcessHandler<R> : JaffreeProcessHandler<R> {
             additionalAction?.invoke(logLevel, message)
         }
     }
-}
-
-private fun addToBytes(source: ByteBuffer, target: MutableList<ByteArray>): Boolean {
-    var newLinePos = -1
-    for (pos in source.position()..<source.limit()) {
-        val byteAtPos = source[pos]
-        if (byteAtPos == CARRIAGE_RETURN || byteAtPos == NEWLINE) {
-            newLinePos = pos
-            break
-        }
-    }
 
-    val bytes =
-        ByteArray(
-            if (newLinePos > -1)
-                newLinePos - source.position()
-            else
-                source.remaining()
-        )
-
-    source.get(bytes)
-    target.add(bytes)
-
-    if (newLinePos > -1) {
-        // Consume line break characters and put cursor at the start of the next line in buffer
-        for (pos in source.position() until source.limit()) {
-            val byteAtPos = source.get()
-            if (byteAtPos != CARRIAGE_RETURN && byteAtPos != NEWLINE) {
-                // buffer position already advanced past first character in next
-                // line so need to reset here
-                source.position(pos)
-                break
-            }
-        }
+    /**
+     * Logs pending summaries of repeated or suppressed messages, must be called once the
+     * process has finished
+     */
+    protected fun finishLog(logger: Logger) {
+        logGate.finish(logger)
     }
-
-    // indicates whether the bytes contained a line break
-    return newLinePos > -1
-}
-
-private fun List<ByteArray>.join(): ByteArray {
-    val result = ByteArray(sumOf { it.size })
-
-    var bytesCopied = 0
-    forEach { bytes ->
-        System.arraycopy(bytes, 0, result, bytesCopied, bytes.size)
-        bytesCopied += bytes.size
-    }
-
-    return result
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.process
+
+private const val DEFAULT_MAX_ERROR_MESSAGES = 1000
+
+/**
+ * Controls how the log output of a single FFmpeg or FFprobe execution is captured and passed
+ * on to SLF4J.
+ *
+ * @param maxErrorMessages the maximum number of error messages kept for
+ * [com.github.kokorin.jaffree.process.JaffreeAbnormalExitException], older ones are discarded
+ * @param deduplicate collapses consecutive identical messages into one message with a count,
+ * both when capturing and when logging, `false` by default
+ * @param maxLinesPerSecond the maximum number of messages logged per second, `0` for no limit.
+ * A summary of the suppressed messages is logged once the second is over.
+ * @param sampleEvery still logs every n-th message suppressed by [maxLinesPerSecond], `0` to
+ * log none of them
+ */
+class LogCapturePolicy @JvmOverloads constructor(
+    val maxErrorMessages: Int = DEFAULT_MAX_ERROR_MESSAGES,
+    val deduplicate: Boolean = false,
+    val maxLinesPerSecond: Int = 0,
+    val sampleEvery: Int = 0
+) {
+    init {
+        require(maxErrorMessages >= 0) { "maxErrorMessages must not be negative" }
+        require(maxLinesPerSecond >= 0) { "maxLinesPerSecond must not be negative" }
+        require(sampleEvery >= 0) { "sampleEvery must not be negative" }
+    }
+
+    /**
+     * @suppress
+     */
+    companion object {
+        /**
+         * Keeps the last 1000 error messages, doesn't deduplicate and doesn't limit the log rate
+         */
+        @JvmField
+        val DEFAULT = LogCapturePolicy()
+    }
+
+    override fun toString() =
+        "LogCapturePolicy(maxErrorMessages=$maxErrorMessages, deduplicate=$deduplicate, " +
+                "maxLinesPerSecond=$maxLinesPerSecond, sampleEvery=$sampleEvery)"
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.process
+
+import com.github.kokorin.jaffree.LogLevel
+import com.github.kokorin.jaffree.log.LogMessage
+import org.slf4j.Logger
+import java.util.ArrayDeque
+import java.util.concurrent.TimeUnit
+
+private val ONE_SECOND_NANOS = TimeUnit.SECONDS.toNanos(1)
+
+/**
+ * Applies a [LogCapturePolicy] to the messages of one execution before they reach SLF4J.
+ *
+ * Not thread-safe, it's only used by the thread handling stderr.
+ */
+internal class LogGate(private val policy: LogCapturePolicy) {
+    private var lastLevel: LogLevel? = null
+    private var lastMessage: String? = null
+    private var repeated = 0
+
+    private var windowStart = System.nanoTime()
+    private var loggedInWindow = 0
+    private var suppressedInWindow = 0
+
+    fun log(logger: Logger, logLevel: LogLevel, message: String) {
+        if (policy.deduplicate) {
+            if (logLevel == lastLevel && message == lastMessage) {
+                repeated++
+                return
+            }
+
+            flushRepeated(logger)
+
+            lastLevel = logLevel
+            lastMessage = message
+        }
+
+        if (admit(logger))
+            logger.log(logLevel, message)
+    }
+
+    /**
+     * Logs the summaries that are still pending, must be called when the process has finished
+     */
+    fun finish(logger: Logger) {
+        flushRepeated(logger)
+        flushSuppressed(logger)
+    }
+
+    private fun flushRepeated(logger: Logger) {
+        val logLevel = lastLevel
+        if (repeated > 0 && logLevel != null && admit(logger))
+            logger.log(logLevel, "Last message repeated $repeated times")
+
+        repeated = 0
+    }
+
+    private fun admit(logger: Logger): Boolean {
+        if (policy.maxLinesPerSecond == 0)
+            return true
+
+        val now = System.nanoTime()
+        if (now - windowStart >= ONE_SECOND_NANOS) {
+            flushSuppressed(logger)
+
+            windowStart = now
+            loggedInWindow = 0
+        }
+
+        if (loggedInWindow < policy.maxLinesPerSecond) {
+            loggedInWindow++
+            return true
+        }
+
+        suppressedInWindow++
+
+        return policy.sampleEvery > 0 && suppressedInWindow % policy.sampleEvery == 0
+    }
+
+    private fun flushSuppressed(logger: Logger) {
+        if (suppressedInWindow > 0)
+            logger.warn(
+                "Log rate limit of {} messages per second exceeded, {} messages suppressed",
+                policy.maxLinesPerSecond,
+                suppressedInWindow
+            )
+
+        suppressedInWindow = 0
+    }
+}
+
+/**
+ * Keeps the most recent error messages of one execution, collapsing consecutive duplicates if
+ * configured.
+ */
+internal class ErrorLogBuffer(private val policy: LogCapturePolicy) {
+    private val entries = ArrayDeque<Entry>()
+
+    @Synchronized
+    fun add(logLevel: LogLevel, message: String) {
+        if (policy.maxErrorMessages == 0)
+            return
+
+        val last = entries.peekLast()
+        if (policy.deduplicate && last != null &&
+            last.logLevel == logLevel && last.message == message
+        ) {
+            last.count++
+            return
+        }
+
+        if (entries.size == policy.maxErrorMessages)
+            entries.removeFirst()
+
+        entries.addLast(Entry(logLevel, message))
+    }
+
+    @Synchronized
+    fun toList(): List<LogMessage> =
+        entries.map { LogMessage(it.logLevel, it.message, it.count) }
+
+    private class Entry(val logLevel: LogLevel, val message: String) {
+        var count = 1
+    }
+}
+
+private fun Logger.log(logLevel: LogLevel, message: String) {
+    when (logLevel) {
+        LogLevel.QUIET,
+        LogLevel.TRACE -> trace(message)
+
+        LogLevel.VERBOSE,
+        LogLevel.DEBUG -> debug(message)
+
+        LogLevel.INFO -> info(message)
+        LogLevel.WARNING -> warn(message)
+
+        LogLevel.PANIC,
+        LogLevel.FATAL,
+        LogLevel.ERROR -> error(message)
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.process
+
+import com.github.kokorin.jaffree.process.ProcessHelper
+
+/**
+ * A helper an execution can do without.
+ *
+ * If helpers run on a [HelperScheduler], it only runs if the scheduler has a free slot right
+ * away and never causes an execution to be rejected. If it doesn't run, it's closed like any
+ * other helper once the process has finished and the process handler has to do its work
+ * instead.
+ */
+internal interface OptionalHelper : ProcessHelper
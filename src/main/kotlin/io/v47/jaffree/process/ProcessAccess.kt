@@ -31,6 +31,16 @@ interface ProcessAccess {
      */
     val pid: Int
 
+    /**
+     * The latest resource usage sample of the process, `null` if sampling is disabled or no
+     * sample was taken yet. Implementations that don't sample resource usage don't need to
+     * override this.
+     *
+     * @see ProcessConfig.resourceSamplingIntervalMillis
+     */
+    val resourceUsage: ResourceUsage?
+        get() = null
+
     /**
      * Forcefully stops the running process. This may lead to data loss!
      */
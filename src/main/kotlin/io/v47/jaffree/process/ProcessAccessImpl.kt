@@ -29,6 +29,10 @@ internal class ProcessAccessImpl(
 ) : ProcessAccess {
     internal var process: NuProcess? = null
 
+    @Volatile
+    override var resourceUsage: ResourceUsage? = null
+        internal set
+
     private var _pid: Int? = null
     override var pid: Int
         set(value) {
@@ -31,7 +31,50 @@ typealias ExecutorFactory = (size: Int) -> ExecutorService
  */
 object ProcessConfig {
     /**
-     * Specifies the global [ExecutorFactory]
+     * Specifies the global [ExecutorFactory].
+     *
+     * A new [ExecutorService] is created for every execution and shut down afterward. Not used
+     * if a [helperScheduler] is set or [useVirtualThreads] is enabled.
      */
+    @Volatile
     var executorFactory: ExecutorFactory = { size -> Executors.newFixedThreadPool(size) }
+
+    /**
+     * Specifies the process-wide [HelperScheduler] that runs the helper threads of all
+     * executions, which bounds the number of helpers running at the same time. `null` by
+     * default, which means every execution gets its own pool from [executorFactory].
+     *
+     * Replacing it doesn't shut down the previous instance.
+     */
+    @Volatile
+    var helperScheduler: HelperScheduler? = null
+
+    /**
+     * Runs helper threads and the threads waiting for the processes to finish on virtual
+     * threads. `false` by default.
+     *
+     * This lets a single JVM supervise thousands of processes without using a platform thread
+     * for each blocking `accept()`, socket read or `waitFor`. Helpers running on virtual threads
+     * don't count against [HelperScheduler.maxHelpers].
+     *
+     * Requires Java 21 or newer, older JVMs fall back to platform threads.
+     */
+    @Volatile
+    var useVirtualThreads: Boolean = false
+
+    /**
+     * Specifies the [ExecutionGovernor] limiting the number of processes running at the same
+     * time. `null` by default, which means processes are always started right away.
+     */
+    @Volatile
+    var executionGovernor: ExecutionGovernor? = null
+
+    /**
+     * Specifies how often the [ResourceUsage] of running processes is sampled, in milliseconds.
+     * `0` by default, which disables sampling.
+     *
+     * Sampling reads `/proc` and is therefore only supported on Linux.
+     */
+    @Volatile
+    var resourceSamplingIntervalMillis: Long = 0
 }
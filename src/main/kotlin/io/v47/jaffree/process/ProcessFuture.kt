@@ -41,9 +41,10 @@ interface ProcessFuture<T> : Future<T>, CompletionStage<T> {
     companion object {
         internal operator fun <T> invoke(
             delegate: CompletableFuture<T>,
-            processAccess: ProcessAccess
+            processAccess: ProcessAccess,
+            canceller: (() -> Boolean)? = null
         ): ProcessFuture<T> =
-            ProcessFutureImpl(delegate, processAccess)
+            ProcessFutureImpl(delegate, processAccess, canceller)
     }
 
     /**
@@ -73,7 +74,8 @@ interface ProcessFuture<T> : Future<T>, CompletionStage<T> {
 @Suppress("TooManyFunctions")
 private class ProcessFutureImpl<T>(
     private val delegate: CompletableFuture<T>,
-    override val processAccess: ProcessAccess
+    override val processAccess: ProcessAccess,
+    private val canceller: (() -> Boolean)?
 ) : ProcessFuture<T> {
     private val isCancelledMut = AtomicBoolean()
     private val isDoneMut = AtomicBoolean()
@@ -90,6 +92,10 @@ private class ProcessFutureImpl<T>(
         if (!isCancelledMut.getAndSet(true)) {
             isDoneMut.set(true)
 
+            // The canceller removes executions that haven't been started yet
+            if (canceller?.invoke() == true)
+                return true
+
             if (mayInterruptIfRunning)
                 processAccess.stopForcefully()
             else
@@ -120,190 +126,210 @@ private class ProcessFutureImpl<T>(
         }
 
     override fun <U> thenApply(fn: Function<in T, out U>): CompletionStage<U> =
-        ProcessFutureImpl(delegate.thenApply(fn), processAccess)
+        ProcessFutureImpl(delegate.thenApply(fn), processAccess, canceller)
 
     override fun <U> thenApplyAsync(fn: Function<in T, out U>): CompletionStage<U> =
-        ProcessFutureImpl(delegate.thenApplyAsync(fn), processAccess)
+        ProcessFutureImpl(delegate.thenApplyAsync(fn), processAccess, canceller)
 
     override fun <U> thenApplyAsync(
         fn: Function<in T, out U>,
         executor: Executor
     ): CompletionStage<U> =
-        ProcessFutureImpl(delegate.thenApplyAsync(fn, executor), processAccess)
+        ProcessFutureImpl(delegate.thenApplyAsync(fn, executor), processAccess, canceller)
 
     override fun thenAccept(action: Consumer<in T>): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.thenAccept(action), processAccess)
+        ProcessFutureImpl(delegate.thenAccept(action), processAccess, canceller)
 
     override fun thenAcceptAsync(action: Consumer<in T>): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.thenAcceptAsync(action), processAccess)
+        ProcessFutureImpl(delegate.thenAcceptAsync(action), processAccess, canceller)
 
     override fun thenAcceptAsync(
         action: Consumer<in T>,
         executor: Executor
     ): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.thenAcceptAsync(action, executor), processAccess)
+        ProcessFutureImpl(delegate.thenAcceptAsync(action, executor), processAccess, canceller)
 
     override fun thenRun(action: Runnable): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.thenRun(action), processAccess)
+        ProcessFutureImpl(delegate.thenRun(action), processAccess, canceller)
 
     override fun thenRunAsync(action: Runnable): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.thenRunAsync(action), processAccess)
+        ProcessFutureImpl(delegate.thenRunAsync(action), processAccess, canceller)
 
     override fun thenRunAsync(action: Runnable, executor: Executor): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.thenRunAsync(action, executor), processAccess)
+        ProcessFutureImpl(delegate.thenRunAsync(action, executor), processAccess, canceller)
 
     override fun <U, V> thenCombine(
         other: CompletionStage<out U>,
         fn: BiFunction<in T, in U, out V>
     ): CompletionStage<V> =
-        ProcessFutureImpl(delegate.thenCombine(other, fn), processAccess)
+        ProcessFutureImpl(delegate.thenCombine(other, fn), processAccess, canceller)
 
     override fun <U, V> thenCombineAsync(
         other: CompletionStage<out U>,
         fn: BiFunction<in T, in U, out V>
     ): CompletionStage<V> =
-        ProcessFutureImpl(delegate.thenCombineAsync(other, fn), processAccess)
+        ProcessFutureImpl(delegate.thenCombineAsync(other, fn), processAccess, canceller)
 
     override fun <U, V> thenCombineAsync(
         other: CompletionStage<out U>,
         fn: BiFunction<in T, in U, out V>,
         executor: Executor
     ): CompletionStage<V> =
-        ProcessFutureImpl(delegate.thenCombineAsync(other, fn, executor), processAccess)
+        ProcessFutureImpl(delegate.thenCombineAsync(other, fn, executor), processAccess, canceller)
 
     override fun <U> thenAcceptBoth(
         other: CompletionStage<out U>,
         action: BiConsumer<in T, in U>
     ): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.thenAcceptBoth(other, action), processAccess)
+        ProcessFutureImpl(delegate.thenAcceptBoth(other, action), processAccess, canceller)
 
     override fun <U> thenAcceptBothAsync(
         other: CompletionStage<out U>,
         action: BiConsumer<in T, in U>
     ): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.thenAcceptBothAsync(other, action), processAccess)
+        ProcessFutureImpl(delegate.thenAcceptBothAsync(other, action), processAccess, canceller)
 
     override fun <U> thenAcceptBothAsync(
         other: CompletionStage<out U>,
         action: BiConsumer<in T, in U>,
         executor: Executor
     ): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.thenAcceptBothAsync(other, action, executor), processAccess)
+        ProcessFutureImpl(
+            delegate.thenAcceptBothAsync(other, action, executor),
+            processAccess,
+            canceller
+        )
 
     override fun runAfterBoth(
         other: CompletionStage<*>,
         action: Runnable
     ): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.runAfterBoth(other, action), processAccess)
+        ProcessFutureImpl(delegate.runAfterBoth(other, action), processAccess, canceller)
 
     override fun runAfterBothAsync(
         other: CompletionStage<*>,
         action: Runnable
     ): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.runAfterBothAsync(other, action), processAccess)
+        ProcessFutureImpl(delegate.runAfterBothAsync(other, action), processAccess, canceller)
 
     override fun runAfterBothAsync(
         other: CompletionStage<*>,
         action: Runnable,
         executor: Executor
     ): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.runAfterBothAsync(other, action, executor), processAccess)
+        ProcessFutureImpl(
+            delegate.runAfterBothAsync(other, action, executor),
+            processAccess,
+            canceller
+        )
 
     override fun <U> applyToEither(
         other: CompletionStage<out T>,
         fn: Function<in T, U>
     ): CompletionStage<U> =
-        ProcessFutureImpl(delegate.applyToEither(other, fn), processAccess)
+        ProcessFutureImpl(delegate.applyToEither(other, fn), processAccess, canceller)
 
     override fun <U> applyToEitherAsync(
         other: CompletionStage<out T>,
         fn: Function<in T, U>
     ): CompletionStage<U> =
-        ProcessFutureImpl(delegate.applyToEitherAsync(other, fn), processAccess)
+        ProcessFutureImpl(delegate.applyToEitherAsync(other, fn), processAccess, canceller)
 
     override fun <U> applyToEitherAsync(
         other: CompletionStage<out T>,
         fn: Function<in T, U>,
         executor: Executor
     ): CompletionStage<U> =
-        ProcessFutureImpl(delegate.applyToEitherAsync(other, fn, executor), processAccess)
+        ProcessFutureImpl(
+            delegate.applyToEitherAsync(other, fn, executor),
+            processAccess,
+            canceller
+        )
 
     override fun acceptEither(
         other: CompletionStage<out T>,
         action: Consumer<in T>
     ): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.acceptEither(other, action), processAccess)
+        ProcessFutureImpl(delegate.acceptEither(other, action), processAccess, canceller)
 
     override fun acceptEitherAsync(
         other: CompletionStage<out T>,
         action: Consumer<in T>
     ): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.acceptEitherAsync(other, action), processAccess)
+        ProcessFutureImpl(delegate.acceptEitherAsync(other, action), processAccess, canceller)
 
     override fun acceptEitherAsync(
         other: CompletionStage<out T>,
         action: Consumer<in T>,
         executor: Executor
     ): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.acceptEitherAsync(other, action, executor), processAccess)
+        ProcessFutureImpl(
+            delegate.acceptEitherAsync(other, action, executor),
+            processAccess,
+            canceller
+        )
 
     override fun runAfterEither(
         other: CompletionStage<*>,
         action: Runnable
     ): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.runAfterEither(other, action), processAccess)
+        ProcessFutureImpl(delegate.runAfterEither(other, action), processAccess, canceller)
 
     override fun runAfterEitherAsync(
         other: CompletionStage<*>,
         action: Runnable
     ): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.runAfterEitherAsync(other, action), processAccess)
+        ProcessFutureImpl(delegate.runAfterEitherAsync(other, action), processAccess, canceller)
 
     override fun runAfterEitherAsync(
         other: CompletionStage<*>,
         action: Runnable,
         executor: Executor
     ): CompletionStage<Void> =
-        ProcessFutureImpl(delegate.runAfterEitherAsync(other, action, executor), processAccess)
+        ProcessFutureImpl(
+            delegate.runAfterEitherAsync(other, action, executor),
+            processAccess,
+            canceller
+        )
 
     override fun <U> thenCompose(fn: Function<in T, out CompletionStage<U>>): CompletionStage<U> =
-        ProcessFutureImpl(delegate.thenCompose(fn), processAccess)
+        ProcessFutureImpl(delegate.thenCompose(fn), processAccess, canceller)
 
     override fun <U> thenComposeAsync(fn: Function<in T, out CompletionStage<U>>): CompletionStage<U> =
-        ProcessFutureImpl(delegate.thenComposeAsync(fn), processAccess)
+        ProcessFutureImpl(delegate.thenComposeAsync(fn), processAccess, canceller)
 
     override fun <U> thenComposeAsync(
         fn: Function<in T, out CompletionStage<U>>,
         executor: Executor
     ): CompletionStage<U> =
-        ProcessFutureImpl(delegate.thenComposeAsync(fn, executor), processAccess)
+        ProcessFutureImpl(delegate.thenComposeAsync(fn, executor), processAccess, canceller)
 
     override fun <U> handle(fn: BiFunction<in T, Throwable, out U>): CompletionStage<U> =
-        ProcessFutureImpl(delegate.handle(fn), processAccess)
+        ProcessFutureImpl(delegate.handle(fn), processAccess, canceller)
 
     override fun <U> handleAsync(fn: BiFunction<in T, Throwable, out U>): CompletionStage<U> =
-        ProcessFutureImpl(delegate.handleAsync(fn), processAccess)
+        ProcessFutureImpl(delegate.handleAsync(fn), processAccess, canceller)
 
     override fun <U> handleAsync(
         fn: BiFunction<in T, Throwable, out U>,
         executor: Executor
     ): CompletionStage<U> =
-        ProcessFutureImpl(delegate.handleAsync(fn, executor), processAccess)
+        ProcessFutureImpl(delegate.handleAsync(fn, executor), processAccess, canceller)
 
     override fun whenComplete(action: BiConsumer<in T, in Throwable>): CompletionStage<T> =
-        ProcessFutureImpl(delegate.whenComplete(action), processAccess)
+        ProcessFutureImpl(delegate.whenComplete(action), processAccess, canceller)
 
     override fun whenCompleteAsync(action: BiConsumer<in T, in Throwable>): CompletionStage<T> =
-        ProcessFutureImpl(delegate.whenCompleteAsync(action), processAccess)
+        ProcessFutureImpl(delegate.whenCompleteAsync(action), processAccess, canceller)
 
     override fun whenCompleteAsync(
         action: BiConsumer<in T, in Throwable>,
         executor: Executor
     ): CompletionStage<T> =
-        ProcessFutureImpl(delegate.whenCompleteAsync(action, executor), processAccess)
+        ProcessFutureImpl(delegate.whenCompleteAsync(action, executor), processAccess, canceller)
 
     override fun exceptionally(fn: Function<Throwable, out T>): CompletionStage<T> =
-        ProcessFutureImpl(delegate.exceptionally(fn), processAccess)
+        ProcessFutureImpl(delegate.exceptionally(fn), processAccess, canceller)
 
     override fun toCompletableFuture(): CompletableFuture<T> =
         delegate.toCompletableFuture()
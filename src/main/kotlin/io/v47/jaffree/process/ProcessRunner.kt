@@ -16,26 +16,30 @@
  */
 package io.v47.jaffree.process
 
+import com.github.kokorin.jaffree.JaffreeException
 import com.github.kokorin.jaffree.process.JaffreeAbnormalExitException
 import com.github.kokorin.jaffree.process.ProcessHelper
 import com.zaxxer.nuprocess.NuProcessBuilder
 import io.v47.jaffree.utils.generateRandomId
 import org.slf4j.LoggerFactory
 import java.nio.file.Path
+import java.util.concurrent.CancellationException
 import java.util.concurrent.CompletableFuture
 import java.util.concurrent.CompletionException
+import java.util.concurrent.Future
 import java.util.concurrent.TimeUnit
 
 private val logger = LoggerFactory.getLogger(ProcessRunner::class.java)!!
 
-internal class ProcessRunner<T>(
+internal class ProcessRunner<T> @JvmOverloads constructor(
     private val executable: Path,
     private val arguments: List<String>,
     private val helpers: List<Runnable>,
     private val processHandler: JaffreeProcessHandler<T>,
-    private val processListener: ProcessListener?
+    private val processListener: ProcessListener?,
+    private val executionTag: String? = null,
+    private val priority: Int = 0
 ) {
-    @Suppress("LongMethod", "ThrowsCount")
     @Synchronized
     fun executeAsync(): ProcessFuture<T> {
         val execTag = generateRandomId()
@@ -63,81 +67,189 @@ internal class ProcessRunner<T>(
                 it.setProcessAccess(processAccess)
             }
 
+        val governor =
+            ProcessConfig.executionGovernor
+                ?: return ProcessFuture(launch(execTag, command, processAccess), processAccess)
+
+        val resultFuture = CompletableFuture<T>()
+
+        val ticket =
+            governor.submit(executionTag, priority) { ticket ->
+                launchAdmitted(execTag, command, processAccess, resultFuture) {
+                    governor.release(ticket)
+                }
+            }
+
+        return ProcessFuture(resultFuture, processAccess) {
+            governor.cancel(ticket).also { removed ->
+                if (removed) {
+                    logger.info("[{}] Cancelled before the process was started", execTag)
+                    closeHelpers()
+                    resultFuture.completeExceptionally(
+                        CancellationException("[$execTag] Cancelled before start")
+                    )
+                }
+            }
+        }
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun launchAdmitted(
+        execTag: String,
+        command: List<String>,
+        processAccess: ProcessAccessImpl,
+        resultFuture: CompletableFuture<T>,
+        release: () -> Unit
+    ) {
+        val launched =
+            try {
+                launch(execTag, command, processAccess)
+            } catch (x: Exception) {
+                release()
+                resultFuture.completeExceptionally(x)
+                return
+            }
+
+        launched.whenComplete { result, x ->
+            release()
+
+            if (x != null)
+                resultFuture.completeExceptionally((x as? CompletionException)?.cause ?: x)
+            else
+                resultFuture.complete(result)
+        }
+    }
+
+    @Suppress("LongMethod", "ThrowsCount")
+    private fun launch(
+        execTag: String,
+        command: List<String>,
+        processAccess: ProcessAccessImpl
+    ): CompletableFuture<T> {
+        val scheduler = ProcessConfig.helperScheduler
+        val virtualExecutor = VirtualThreads.executorIfEnabled()
         val threadPool =
-            if (helpers.isNotEmpty())
+            if (helpers.isNotEmpty() && scheduler == null && virtualExecutor == null)
                 ProcessConfig.executorFactory(helpers.size)
             else
                 null
 
-        return ProcessFuture(
-            CompletableFuture.supplyAsync {
-                val helperFutures = helpers.map { threadPool!!.submit(it) }
+        val helperFutures =
+            try {
+                when {
+                    scheduler != null -> submitToScheduler(execTag, scheduler)
+                    virtualExecutor != null -> helpers.map { virtualExecutor.submit(it) }
+                    else -> threadPool?.let { pool -> helpers.map { pool.submit(it) } }.orEmpty()
+                }
+            } catch (x: JaffreeException) {
+                closeHelpers()
+                throw x
+            }
 
-                logger.info("[{}] Starting process: {}", execTag, executable)
+        return supplyAsync {
+            logger.info("[{}] Starting process: {}", execTag, executable)
 
-                val actualProcessHandler =
-                    DelegatingProcessHandler(
-                        processHandler,
-                        processAccess,
-                        processListener
-                    )
+            val actualProcessHandler =
+                DelegatingProcessHandler(
+                    processHandler,
+                    processAccess,
+                    processListener
+                )
 
-                val nuProcessBuilder = NuProcessBuilder(actualProcessHandler, command)
-                nuProcessBuilder.environment()["AV_LOG_FORCE_NOCOLOR"] = "1"
+            val nuProcessBuilder = NuProcessBuilder(actualProcessHandler, command)
+            nuProcessBuilder.environment()["AV_LOG_FORCE_NOCOLOR"] = "1"
 
-                val exitCode: Int
-                val result: Result<T>
+            val exitCode: Int
+            val result: Result<T>
 
-                try {
-                    val process = nuProcessBuilder.start()
-                        ?: throw JaffreeAbnormalExitException(
-                            "Process failed to start",
-                            emptyList()
-                        )
+            try {
+                val process = nuProcessBuilder.start()
+                    ?: throw JaffreeAbnormalExitException(
+                        "Process failed to start",
+                        emptyList()
+                    )
 
-                    processAccess.process = process
+                processAccess.process = process
 
-                    logger.debug("[{}] Waiting for process to finish", execTag)
+                val sampling = ResourceSampler.start(process.pid, processAccess)
+
+                logger.debug("[{}] Waiting for process to finish", execTag)
+                try {
                     exitCode = process.waitFor(0, TimeUnit.SECONDS)
-                    result = processHandler.getResult(exitCode)
                 } finally {
-                    processAccess.process = null
+                    sampling?.close()
+                }
 
-                    helpers.forEach {
-                        (it as? ProcessHelper)?.close()
-                    }
+                result = processHandler.getResult(exitCode)
+            } finally {
+                processAccess.process = null
 
-                    helperFutures.forEach {
-                        it.get()
-                    }
+                closeHelpers()
+
+                helperFutures.forEach {
+                    it.get()
                 }
+            }
 
-                logger.info("[{}] Process finished with status: {}", execTag, exitCode)
-
-                if (exitCode != 0)
-                    throw JaffreeAbnormalExitException(
-                        errorExceptionMessage(exitCode),
-                        processHandler.errorLogMessages
-                    ).also {
-                        if (result.isFailure)
-                            it.addSuppressed(result.exceptionOrNull()!!)
-                    }
-
-                result.getOrThrow()
-            }.whenComplete { result, x ->
-                if (x != null)
-                    logger.trace(
-                        "[$execTag] Exception occurred",
-                        (x as? CompletionException)?.cause ?: x
-                    )
+            logger.info("[{}] Process finished with status: {}", execTag, exitCode)
 
-                if (result != null)
-                    logger.trace("[{}] Process produced result {}", execTag, result)
+            val failure = result.exceptionOrNull()
+            if (failure is JaffreeAbnormalExitException)
+                throw failure
 
-                threadPool?.shutdown()
-            },
-            processAccess
-        )
+            if (exitCode != 0)
+                throw JaffreeAbnormalExitException(
+                    errorExceptionMessage(exitCode),
+                    processHandler.errorLogMessages
+                ).also {
+                    if (failure != null)
+                        it.addSuppressed(failure)
+                }
+
+            result.getOrThrow()
+        }.whenComplete { result, x ->
+            if (x != null)
+                logger.trace(
+                    "[$execTag] Exception occurred",
+                    (x as? CompletionException)?.cause ?: x
+                )
+
+            if (result != null)
+                logger.trace("[{}] Process produced result {}", execTag, result)
+
+            threadPool?.shutdown()
+        }
+    }
+
+    private fun submitToScheduler(execTag: String, scheduler: HelperScheduler): List<Future<*>> {
+        val (optionalHelpers, requiredHelpers) = helpers.partition { it is OptionalHelper }
+
+        val futures = scheduler.submitAll(execTag, requiredHelpers)
+
+        val optionalFutures =
+            optionalHelpers.mapNotNull { helper ->
+                scheduler.trySubmit(helper).also {
+                    if (it == null)
+                        logger.debug("[{}] No free slot for optional helper {}", execTag, helper)
+                }
+            }
+
+        return futures + optionalFutures
+    }
+
+    private fun <R> supplyAsync(supervisor: () -> R): CompletableFuture<R> {
+        val virtualExecutor = VirtualThreads.executorIfEnabled()
+
+        return if (virtualExecutor != null)
+            CompletableFuture.supplyAsync(supervisor, virtualExecutor)
+        else
+            CompletableFuture.supplyAsync(supervisor)
+    }
+
+    private fun closeHelpers() {
+        helpers.forEach {
+            (it as? ProcessHelper)?.close()
+        }
     }
 
     private fun errorExceptionMessage(status: Int) =
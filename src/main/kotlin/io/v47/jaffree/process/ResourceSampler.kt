@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.process
+
+import org.slf4j.LoggerFactory
+import java.io.FileInputStream
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+
+private val logger = LoggerFactory.getLogger(ResourceSampler::class.java)!!
+
+// USER_HZ is 100 on every architecture Linux is commonly run on
+private const val MILLIS_PER_CLOCK_TICK = 10L
+private const val BYTES_PER_KB = 1024L
+private const val READ_BUFFER_SIZE = 8192
+
+// Field positions in /proc/<pid>/stat, counted from the field after the command name
+internal const val STAT_UTIME_INDEX = 11
+internal const val STAT_STIME_INDEX = 12
+
+/**
+ * Periodically samples the resource usage of all running processes on a single daemon
+ * thread.
+ *
+ * Every sample reads `/proc/<pid>/stat`, `/proc/<pid>/status` and `/proc/<pid>/io` into
+ * a reused buffer and parses them without allocating, so sampling hundreds of processes
+ * stays far below one percent of a core at the default interval.
+ */
+internal object ResourceSampler {
+    private val isSupported by lazy { Files.isDirectory(Paths.get("/proc/self")) }
+
+    private val entries = ConcurrentHashMap.newKeySet<Entry>()
+    private val scheduled = AtomicBoolean()
+
+    private val executor: ScheduledExecutorService by lazy {
+        Executors.newSingleThreadScheduledExecutor { runnable ->
+            Thread(runnable, "jaffree-resource-sampler").apply { isDaemon = true }
+        }
+    }
+
+    // only used by the sampler thread
+    private val buffer = ByteArray(READ_BUFFER_SIZE)
+
+    /**
+     * Starts sampling the process with [pid] and publishing the results to [processAccess]
+     * if sampling is enabled.
+     *
+     * @return a handle to stop sampling, or `null` if sampling is disabled or not supported
+     */
+    fun start(pid: Int, processAccess: ProcessAccessImpl): AutoCloseable? {
+        if (ProcessConfig.resourceSamplingIntervalMillis <= 0 || !isSupported)
+            return null
+
+        val entry = Entry(pid, processAccess)
+        entries += entry
+
+        executor.execute { sample(entry) }
+        scheduleNext()
+
+        return AutoCloseable { entries -= entry }
+    }
+
+    private fun scheduleNext() {
+        val interval = ProcessConfig.resourceSamplingIntervalMillis
+        if (interval > 0 && !scheduled.getAndSet(true))
+            executor.schedule(::tick, interval, TimeUnit.MILLISECONDS)
+    }
+
+    private fun tick() {
+        scheduled.set(false)
+
+        entries.forEach { sample(it) }
+
+        if (entries.isNotEmpty())
+            scheduleNext()
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun sample(entry: Entry) {
+        if (entry !in entries)
+            return
+
+        try {
+            val statLength = read(entry.statPath)
+            if (statLength < 0)
+                return
+
+            val userTicks = buffer.statField(statLength, STAT_UTIME_INDEX)
+            val systemTicks = buffer.statField(statLength, STAT_STIME_INDEX)
+
+            val statusLength = read(entry.statusPath)
+            val rssKb = buffer.valueOf(statusLength, "VmRSS:")
+            val peakRssKb = buffer.valueOf(statusLength, "VmHWM:")
+
+            val ioLength = read(entry.ioPath)
+            val readBytes = buffer.valueOf(ioLength, "read_bytes:")
+            val writeBytes = buffer.valueOf(ioLength, "write_bytes:")
+
+            val previous = entry.processAccess.resourceUsage
+            val rssBytes = kbToBytes(rssKb)
+
+            entry.processAccess.resourceUsage =
+                ResourceUsage(
+                    userTicks * MILLIS_PER_CLOCK_TICK,
+                    systemTicks * MILLIS_PER_CLOCK_TICK,
+                    rssBytes,
+                    maxOf(kbToBytes(peakRssKb), rssBytes, previous?.peakRssBytes ?: -1),
+                    readBytes,
+                    writeBytes,
+                    (previous?.sampleCount ?: 0) + 1
+                )
+        } catch (x: Exception) {
+            logger.debug("Failed to sample resource usage of process {}", entry.pid, x)
+        }
+    }
+
+    private fun kbToBytes(kb: Long) =
+        if (kb >= 0) kb * BYTES_PER_KB else -1
+
+    /**
+     * Reads the file into [buffer], returns the number of bytes read or -1 if it can't be
+     * read (process gone or not permitted)
+     */
+    private fun read(path: String): Int =
+        try {
+            FileInputStream(path).use { input ->
+                var length = 0
+                while (length < buffer.size) {
+                    val count = input.read(buffer, length, buffer.size - length)
+                    if (count < 0)
+                        break
+
+                    length += count
+                }
+
+                length
+            }
+        } catch (_: IOException) {
+            -1
+        }
+
+    private class Entry(val pid: Int, val processAccess: ProcessAccessImpl) {
+        val statPath = "/proc/$pid/stat"
+        val statusPath = "/proc/$pid/status"
+        val ioPath = "/proc/$pid/io"
+    }
+}
+
+private fun ByteArray.lastIndexOf(length: Int, value: Byte): Int {
+    for (i in length - 1 downTo 0)
+        if (this[i] == value)
+            return i
+
+    return -1
+}
+
+/**
+ * Parses the space separated field with [index] of `/proc/<pid>/stat` content, counted from
+ * the field after the command name. The command name may contain spaces and parentheses, so
+ * it ends at the last `)`. Returns -1 if the field can't be found.
+ */
+internal fun ByteArray.statField(length: Int, index: Int): Long {
+    val commEnd = lastIndexOf(length, ')'.code.toByte())
+    if (commEnd < 0)
+        return -1
+
+    var pos = commEnd + 2
+    var current = 0
+    while (pos < length && current < index) {
+        if (this[pos] == ' '.code.toByte())
+            current++
+
+        pos++
+    }
+
+    return parseLong(pos, length)
+}
+
+/**
+ * Parses the value of a `key: value` line of `/proc/<pid>/status` or `/proc/<pid>/io`
+ * content, returns -1 if there is no such line
+ */
+internal fun ByteArray.valueOf(length: Int, key: String): Long {
+    var lineStart = 0
+    while (lineStart < length) {
+        if (startsWith(lineStart, length, key)) {
+            var pos = lineStart + key.length
+            while (pos < length && (this[pos] == ' '.code.toByte() ||
+                        this[pos] == '\t'.code.toByte()))
+                pos++
+
+            return parseLong(pos, length)
+        }
+
+        while (lineStart < length && this[lineStart] != '\n'.code.toByte())
+            lineStart++
+
+        lineStart++
+    }
+
+    return -1
+}
+
+private fun ByteArray.startsWith(pos: Int, length: Int, prefix: String): Boolean {
+    if (pos + prefix.length > length)
+        return false
+
+    for (i in prefix.indices)
+        if (this[pos + i] != prefix[i].code.toByte())
+            return false
+
+    return true
+}
+
+@Suppress("MagicNumber")
+private fun ByteArray.parseLong(start: Int, length: Int): Long {
+    var result = 0L
+    var pos = start
+    while (pos < length) {
+        val digit = this[pos] - '0'.code.toByte()
+        if (digit !in 0..9)
+            break
+
+        result = result * 10 + digit
+        pos++
+    }
+
+    return if (pos == start) -1 else result
+}
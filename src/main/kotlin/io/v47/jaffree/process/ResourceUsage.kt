@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.process
+
+/**
+ * A snapshot of the resources used by an FFmpeg or FFprobe process.
+ *
+ * Values are sampled from `/proc`, so they are only available on Linux and only if sampling
+ * is enabled using [ProcessConfig.resourceSamplingIntervalMillis]. Values of the final
+ * summary come from the last sample taken before the process exited.
+ *
+ * @param userTimeMillis CPU time spent in user mode
+ * @param systemTimeMillis CPU time spent in kernel mode
+ * @param rssBytes resident set size at the time of the sample, `-1` if unknown
+ * @param peakRssBytes highest resident set size so far, `-1` if unknown
+ * @param readBytes bytes read from storage, `-1` if not permitted to read `/proc/<pid>/io`
+ * @param writeBytes bytes written to storage, `-1` if not permitted to read `/proc/<pid>/io`
+ * @param sampleCount the number of samples taken so far
+ */
+data class ResourceUsage(
+    val userTimeMillis: Long,
+    val systemTimeMillis: Long,
+    val rssBytes: Long,
+    val peakRssBytes: Long,
+    val readBytes: Long,
+    val writeBytes: Long,
+    val sampleCount: Int,
+) {
+    /**
+     * Total CPU time spent in user and kernel mode
+     */
+    val cpuTimeMillis: Long
+        get() = userTimeMillis + systemTimeMillis
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.process
+
+import org.slf4j.LoggerFactory
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.atomic.AtomicBoolean
+
+private val logger = LoggerFactory.getLogger(VirtualThreads::class.java)!!
+
+/**
+ * Provides the shared virtual thread executor if the running JVM supports virtual threads.
+ *
+ * The library targets Java 11, so everything is looked up reflectively.
+ */
+internal object VirtualThreads {
+    private val warnedUnsupported = AtomicBoolean()
+
+    private val executor: ExecutorService? by lazy {
+        runCatching {
+            val builderClass = Class.forName("java.lang.Thread\$Builder")
+            val builder = Thread::class.java.getMethod("ofVirtual").invoke(null)
+
+            builderClass
+                .getMethod("name", String::class.java, Long::class.javaPrimitiveType)
+                .invoke(builder, "jaffree-virtual-", 0L)
+
+            val threadFactory = builderClass.getMethod("factory").invoke(builder) as ThreadFactory
+
+            Executors::class.java
+                .getMethod("newThreadPerTaskExecutor", ThreadFactory::class.java)
+                .invoke(null, threadFactory) as ExecutorService
+        }.onFailure { x ->
+            logger.debug("Virtual threads are not available", x)
+        }.getOrNull()
+    }
+
+    val isSupported: Boolean
+        get() = executor != null
+
+    /**
+     * Returns the virtual thread executor if [ProcessConfig.useVirtualThreads] is enabled and
+     * supported, `null` otherwise.
+     */
+    fun executorIfEnabled(): ExecutorService? {
+        if (!ProcessConfig.useVirtualThreads)
+            return null
+
+        val result = executor
+        if (result == null && !warnedUnsupported.getAndSet(true))
+            logger.warn(
+                "Virtual threads require Java 21 or newer, running on {}. " +
+                        "Falling back to platform threads",
+                System.getProperty("java.version")
+            )
+
+        return result
+    }
+}
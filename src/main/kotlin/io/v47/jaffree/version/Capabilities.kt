@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.version
+
+/**
+ * Contains the components supported by an FFmpeg or FFprobe binary, as reported by
+ * `-encoders`, `-decoders`, `-filters`, `-pix_fmts` and `-protocols`.
+ *
+ * @see CapabilityRegistry
+ */
+data class Capabilities(
+    val versionInfo: VersionInfo,
+    val encoders: Set<String>,
+    val decoders: Set<String>,
+    val filters: Set<String>,
+    val pixelFormats: Set<String>,
+    val inputProtocols: Set<String>,
+    val outputProtocols: Set<String>,
+) {
+    fun hasEncoder(name: String) = name in encoders
+    fun hasDecoder(name: String) = name in decoders
+    fun hasFilter(name: String) = name in filters
+    fun hasPixelFormat(name: String) = name in pixelFormats
+    fun hasInputProtocol(name: String) = name in inputProtocols
+    fun hasOutputProtocol(name: String) = name in outputProtocols
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.version
+
+import io.v47.jaffree.process.JaffreeProcessHandler
+import io.v47.jaffree.process.ProcessListener
+import io.v47.jaffree.process.ProcessRunner
+import org.slf4j.LoggerFactory
+import java.io.File
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
+import java.util.Properties
+import java.util.concurrent.ConcurrentHashMap
+
+private val logger = LoggerFactory.getLogger(CapabilityRegistry::class.java)!!
+
+private const val FORMAT_VERSION = "1"
+private const val LIST_SEPARATOR = ","
+
+/**
+ * Caches the [VersionInfo] and [Capabilities] of FFmpeg and FFprobe binaries, so the
+ * `-version`, `-encoders`, `-decoders`, `-filters`, `-pix_fmts` and `-protocols` listings are
+ * only run once per binary.
+ *
+ * Binaries are identified by their resolved path, modification time and size, replacing a
+ * binary in place invalidates its entries. If [persistenceDirectory] is set, capabilities are
+ * also stored there and loaded from there after a restart of the JVM.
+ */
+object CapabilityRegistry {
+    /**
+     * The directory used to persist capabilities across JVM restarts. `null` by default, which
+     * keeps them in memory only.
+     */
+    @JvmStatic
+    @Volatile
+    var persistenceDirectory: Path? = null
+
+    private val versions = ConcurrentHashMap<BinaryKey, VersionInfo>()
+    private val capabilities = ConcurrentHashMap<BinaryKey, Capabilities>()
+
+    /**
+     * Returns the version of the specified binary, running `-version` only if it isn't
+     * known yet.
+     *
+     * @param processListener notified about the `-version` process, if it has to be run
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun versionInfo(executable: Path, processListener: ProcessListener? = null): VersionInfo {
+        val key = BinaryKey.of(executable)
+
+        return versions[key]
+            ?: lookupCapabilities(key)?.versionInfo
+            ?: run(executable, listOf("-version"), VersionInfoProcessHandler(), processListener)
+                .also { versions[key] = it }
+    }
+
+    /**
+     * Returns the capabilities of the specified binary, running the listings only if they
+     * aren't known yet.
+     *
+     * @param processListener notified about every listing process, if they have to be run
+     */
+    @JvmStatic
+    @JvmOverloads
+    fun capabilities(executable: Path, processListener: ProcessListener? = null): Capabilities {
+        val key = BinaryKey.of(executable)
+
+        return lookupCapabilities(key)
+            ?: probe(executable, key, processListener).also {
+                capabilities[key] = it
+                versions[key] = it.versionInfo
+                store(key, it)
+            }
+    }
+
+    /**
+     * Removes all entries from memory, persisted entries are kept.
+     */
+    @JvmStatic
+    fun clear() {
+        versions.clear()
+        capabilities.clear()
+    }
+
+    private fun lookupCapabilities(key: BinaryKey) =
+        capabilities[key]
+            ?: load(key)?.also {
+                capabilities[key] = it
+                versions[key] = it.versionInfo
+            }
+
+    private fun probe(
+        executable: Path,
+        key: BinaryKey,
+        processListener: ProcessListener?
+    ): Capabilities {
+        logger.debug("Probing capabilities of {}", key.path)
+
+        val versionInfo =
+            versions[key]
+                ?: run(executable, listOf("-version"), VersionInfoProcessHandler(), processListener)
+
+        fun list(option: String) =
+            run(
+                executable,
+                listOf("-hide_banner", option),
+                ListingProcessHandler(),
+                processListener
+            )
+
+        val (inputProtocols, outputProtocols) = parseProtocolListing(list("-protocols"))
+
+        return Capabilities(
+            versionInfo,
+            parseCodecListing(list("-encoders")),
+            parseCodecListing(list("-decoders")),
+            parseFilterListing(list("-filters")),
+            parseCodecListing(list("-pix_fmts")),
+            inputProtocols,
+            outputProtocols
+        )
+    }
+
+    private fun <T> run(
+        executable: Path,
+        arguments: List<String>,
+        processHandler: JaffreeProcessHandler<T>,
+        processListener: ProcessListener?
+    ): T =
+        ProcessRunner(executable, arguments, emptyList(), processHandler, processListener)
+            .executeAsync()
+            .get()
+
+    private fun storageFile(key: BinaryKey) =
+        persistenceDirectory?.resolve(
+            "jaffree-capabilities-%08x.properties".format(key.path.hashCode())
+        )
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun load(key: BinaryKey): Capabilities? {
+        if (!key.isPersistable)
+            return null
+
+        val file = storageFile(key)
+        if (file == null || !Files.isRegularFile(file))
+            return null
+
+        return try {
+            val props = Properties()
+            Files.newInputStream(file).use { props.load(it) }
+
+            if (props.getProperty("format") != FORMAT_VERSION || BinaryKey.from(props) != key)
+                null
+            else
+                props.toCapabilities()
+        } catch (x: Exception) {
+            logger.warn("Failed to load capabilities from {}", file, x)
+            null
+        }
+    }
+
+    private fun store(key: BinaryKey, capabilities: Capabilities) {
+        if (!key.isPersistable)
+            return
+
+        val file = storageFile(key) ?: return
+
+        try {
+            Files.createDirectories(file.parent)
+
+            val tempFile = Files.createTempFile(file.parent, file.fileName.toString(), ".tmp")
+            Files.newOutputStream(tempFile).use {
+                capabilities.toProperties(key).store(it, "jaffree capabilities of ${key.path}")
+            }
+
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING)
+        } catch (x: IOException) {
+            logger.warn("Failed to store capabilities to {}", file, x)
+        }
+    }
+}
+
+private data class BinaryKey(val path: String, val lastModified: Long, val size: Long) {
+    val isPersistable get() = lastModified > 0
+
+    companion object {
+        fun of(executable: Path): BinaryKey {
+            val resolved = resolveExecutable(executable)?.toFile()
+
+            return if (resolved != null)
+                BinaryKey(resolved.canonicalPath, resolved.lastModified(), resolved.length())
+            else
+                BinaryKey(executable.toString(), -1, -1)
+        }
+
+        fun from(props: Properties) =
+            BinaryKey(
+                props.getProperty("path"),
+                props.getProperty("lastModified").toLong(),
+                props.getProperty("size").toLong()
+            )
+    }
+}
+
+/**
+ * Resolves the executable the same way the OS would, looking through `PATH` if it's just
+ * a file name.
+ */
+private fun resolveExecutable(executable: Path): Path? {
+    if (executable.parent != null)
+        return executable.takeIf { Files.isRegularFile(it) }
+
+    val names =
+        if (File.separatorChar == '\\')
+            listOf("$executable", "$executable.exe")
+        else
+            listOf("$executable")
+
+    return System.getenv("PATH")
+        ?.split(File.pathSeparator)
+        ?.asSequence()
+        ?.filter { it.isNotBlank() }
+        ?.flatMap { dir -> names.asSequence().map { Paths.get(dir, it) } }
+        ?.firstOrNull { Files.isRegularFile(it) && Files.isExecutable(it) }
+}
+
+private fun Capabilities.toProperties(key: BinaryKey) =
+    Properties().apply {
+        setProperty("format", FORMAT_VERSION)
+        setProperty("path", key.path)
+        setProperty("lastModified", "${key.lastModified}")
+        setProperty("size", "${key.size}")
+
+        setProperty("versionString", versionInfo.versionString)
+        setProperty("versionMajor", "${versionInfo.versionMajor}")
+        setProperty("versionMinor", "${versionInfo.versionMinor}")
+        setProperty("versionPatch", "${versionInfo.versionPatch}")
+        setList("enabledFeatures", versionInfo.enabledFeatures)
+        setList("disabledFeatures", versionInfo.disabledFeatures)
+
+        setList("encoders", encoders)
+        setList("decoders", decoders)
+        setList("filters", filters)
+        setList("pixelFormats", pixelFormats)
+        setList("inputProtocols", inputProtocols)
+        setList("outputProtocols", outputProtocols)
+    }
+
+private fun Properties.toCapabilities() =
+    Capabilities(
+        VersionInfo(
+            getProperty("versionString"),
+            getProperty("versionMajor").toInt(),
+            getProperty("versionMinor").toInt(),
+            getProperty("versionPatch").toInt(),
+            getList("enabledFeatures"),
+            getList("disabledFeatures")
+        ),
+        getList("encoders"),
+        getList("decoders"),
+        getList("filters"),
+        getList("pixelFormats"),
+        getList("inputProtocols"),
+        getList("outputProtocols")
+    )
+
+private fun Properties.setList(key: String, values: Set<String>) {
+    setProperty(key, values.joinToString(LIST_SEPARATOR))
+}
+
+private fun Properties.getList(key: String): Set<String> =
+    getProperty(key)
+        .split(LIST_SEPARATOR)
+        .filter { it.isNotEmpty() }
+        .toSet()
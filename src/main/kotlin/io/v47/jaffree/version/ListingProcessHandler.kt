@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2026 jaffree Authors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package io.v47.jaffree.version
+
+import io.v47.jaffree.process.LinesProcessHandler
+import org.slf4j.LoggerFactory
+
+private val logger = LoggerFactory.getLogger(ListingProcessHandler::class.java)!!
+
+/**
+ * Collects the lines printed by listing options like `-encoders` or `-protocols`.
+ */
+internal class ListingProcessHandler : LinesProcessHandler<List<String>>() {
+    private val lines = mutableListOf<String>()
+
+    override fun onStderrLine(line: String) {
+        logger.debug(line)
+    }
+
+    override fun onStdoutLine(line: String) {
+        lines += line
+    }
+
+    override fun getResult(exitCode: Int) =
+        Result.success(lines.toList())
+}
+
+/**
+ * Parses the output of `-encoders`, `-decoders` and `-pix_fmts`, the name is the second
+ * column of every line after the dashed separator.
+ */
+internal fun parseCodecListing(lines: List<String>): Set<String> =
+    lines
+        .asSequence()
+        .dropWhile { !it.trim().startsWith("---") }
+        .drop(1)
+        .mapNotNull { it.columns().getOrNull(1) }
+        .toSet()
+
+/**
+ * Parses the output of `-filters`, the name is the second column of every line that contains
+ * an input/output description like `V->V` in the third column.
+ */
+internal fun parseFilterListing(lines: List<String>): Set<String> =
+    lines
+        .asSequence()
+        .map { it.columns() }
+        .filter { it.size > 2 && "->" in it[2] }
+        .map { it[1] }
+        .toSet()
+
+/**
+ * Parses the output of `-protocols` into input and output protocols.
+ */
+internal fun parseProtocolListing(lines: List<String>): Pair<Set<String>, Set<String>> {
+    val input = mutableSetOf<String>()
+    val output = mutableSetOf<String>()
+
+    var current: MutableSet<String>? = null
+    lines.forEach { line ->
+        when (val trimmed = line.trim()) {
+            "Input:" -> current = input
+            "Output:" -> current = output
+            else ->
+                if (line.startsWith(" "))
+                    current?.add(trimmed)
+        }
+    }
+
+    return input to output
+}
+
+private val WHITESPACE = Regex("""\s+""")
+
+private fun String.columns() =
+    trim().split(WHITESPACE)
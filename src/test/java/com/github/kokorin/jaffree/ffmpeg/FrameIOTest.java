@@ -6,6 +6,7 @@ import com.github.kokorin.jaffree.JaffreeException;
 import com.github.kokorin.jaffree.StreamType;
 import com.github.kokorin.jaffree.ffprobe.FFprobe;
 import com.github.kokorin.jaffree.ffprobe.FFprobeResult;
+import com.github.kokorin.jaffree.nut.FrameBufferPool;
 import org.apache.commons.io.output.NullOutputStream;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -14,11 +15,20 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.ShortBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -70,6 +80,307 @@ public class FrameIOTest {
         assertEquals(42L, frameCounter.get());
     }
 
+    @Test
+    public void consumePlanarFrames() {
+        final AtomicReference<Stream> streamRef = new AtomicReference<>();
+        final AtomicLong frameCounter = new AtomicLong();
+
+        FFmpegResult result = FFmpeg.atPath(Config.FFMPEG_BIN)
+                .addInput(
+                        UrlInput.fromPath(Artifacts.VIDEO_MP4)
+                )
+                .addOutput(
+                        FrameOutput.withConsumer(new FrameConsumer() {
+                            @Override
+                            public void consumeStreams(List<Stream> streams) {
+                                streamRef.set(streams.get(0));
+                            }
+
+                            @Override
+                            public void consume(Frame frame) {
+                                if (frame == null) {
+                                    return;
+                                }
+
+                                Stream stream = streamRef.get();
+                                BufferedImage image = frame.getImage();
+                                assertEquals(BufferedImage.TYPE_BYTE_GRAY, image.getType());
+                                assertEquals(stream.getWidth().intValue(), image.getWidth());
+                                assertEquals(stream.getHeight() * 3 / 2, image.getHeight());
+                                frameCounter.incrementAndGet();
+                            }
+                        }, ImageFormats.YUV420P)
+                                .disableStream(StreamType.AUDIO)
+                                .setFrameCount(StreamType.VIDEO, 10L)
+                )
+                .execute();
+
+        Assertions.assertNotNull(result);
+        assertEquals(10L, frameCounter.get());
+    }
+
+    @Test
+    public void consumeRawFrames() {
+        final AtomicReference<Stream> streamRef = new AtomicReference<>();
+        final AtomicLong frameCounter = new AtomicLong();
+        final FrameBufferPool pool = new FrameBufferPool(2, true);
+
+        FFmpegResult result = FFmpeg.atPath(Config.FFMPEG_BIN)
+                .addInput(
+                        UrlInput.fromPath(Artifacts.VIDEO_MP4)
+                )
+                .addOutput(
+                        FrameOutput.withRawConsumer(new RawFrameConsumer() {
+                            @Override
+                            public void consumeStreams(List<Stream> streams) {
+                                streamRef.set(streams.get(0));
+                            }
+
+                            @Override
+                            public void consume(RawFrame frame) {
+                                if (frame == null) {
+                                    return;
+                                }
+
+                                Stream stream = streamRef.get();
+                                ByteBuffer data = frame.getData();
+                                assertTrue(data.isDirect());
+                                assertEquals(stream.getWidth(), frame.getWidth());
+                                assertEquals(stream.getHeight(), frame.getHeight());
+                                assertEquals("yuv420p", frame.getPixelFormat());
+                                assertEquals(frame.getWidth(), frame.getStride());
+                                assertEquals(frame.getWidth() * frame.getHeight() * 3 / 2,
+                                        data.remaining());
+                                frame.release();
+                                frameCounter.incrementAndGet();
+                            }
+                        }, ImageFormats.YUV420P, pool)
+                                .disableStream(StreamType.AUDIO)
+                                .setFrameCount(StreamType.VIDEO, 10L)
+                )
+                .execute();
+
+        Assertions.assertNotNull(result);
+        assertEquals(10L, frameCounter.get());
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void consumeFloatSamples() {
+        final AtomicLong sampleCounter = new AtomicLong();
+
+        FFmpegResult result = FFmpeg.atPath(Config.FFMPEG_BIN)
+                .addInput(
+                        UrlInput.fromPath(Artifacts.VIDEO_MP4)
+                                .setDuration(1_000)
+                )
+                .addOutput(
+                        FrameOutput.withConsumer(new FrameConsumer() {
+                            @Override
+                            public void consumeStreams(List<Stream> streams) {
+                            }
+
+                            @Override
+                            public void consume(Frame frame) {
+                                if (frame == null) {
+                                    return;
+                                }
+
+                                FloatBuffer samples = frame.getFloatSamples();
+                                assertNotNull(samples);
+                                while (samples.hasRemaining()) {
+                                    float sample = samples.get();
+                                    assertTrue(sample >= -1f && sample <= 1f);
+                                    sampleCounter.incrementAndGet();
+                                }
+                            }
+                        }, ImageFormats.BGR24, SampleFormat.F32LE)
+                                .disableStream(StreamType.VIDEO)
+                )
+                .execute();
+
+        Assertions.assertNotNull(result);
+        assertTrue(sampleCounter.get() > 0);
+    }
+
+    @Test
+    public void writeAndReadShortSamples() throws Exception {
+        final short[] samples = {0, 1, -1, Short.MAX_VALUE, Short.MIN_VALUE, 1234};
+
+        FrameProducer producer = new FrameProducer() {
+            private int frame = 0;
+
+            @Override
+            public List<Stream> produceStreams() {
+                return Collections.singletonList(new Stream()
+                        .setId(0)
+                        .setType(Stream.Type.AUDIO)
+                        .setTimebase(8_000L)
+                        .setSampleRate(8_000)
+                        .setChannels(2)
+                );
+            }
+
+            @Override
+            public Frame produce() {
+                if (frame == 3) {
+                    return null;
+                }
+                return Frame.createAudioFrame(0, 3L * frame++, ShortBuffer.wrap(samples));
+            }
+        };
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new NutFrameWriter(producer, ImageFormats.BGR24, SampleFormat.S16LE, 0).write(output);
+
+        final List<Frame> frames = new ArrayList<>();
+        new NutFrameReader(new FrameConsumer() {
+            @Override
+            public void consumeStreams(List<Stream> streams) {
+            }
+
+            @Override
+            public void consume(Frame frame) {
+                if (frame != null) {
+                    frames.add(frame);
+                }
+            }
+        }, ImageFormats.BGR24, SampleFormat.S16LE)
+                .read(new ByteArrayInputStream(output.toByteArray()));
+
+        assertEquals(3, frames.size());
+        for (int i = 0; i < frames.size(); i++) {
+            Frame frame = frames.get(i);
+            assertEquals(3L * i, frame.getPts());
+            Assertions.assertNull(frame.getSamples());
+            assertEquals(ShortBuffer.wrap(samples), frame.getShortSamples());
+        }
+    }
+
+    @Test
+    public void readShortSamplesWithStreamConsumers() throws Exception {
+        final short[] samples = {0, 1, -1, Short.MAX_VALUE, Short.MIN_VALUE, 1234};
+
+        FrameProducer producer = new FrameProducer() {
+            private int frame = 0;
+
+            @Override
+            public List<Stream> produceStreams() {
+                return Collections.singletonList(new Stream()
+                        .setId(0)
+                        .setType(Stream.Type.AUDIO)
+                        .setTimebase(8_000L)
+                        .setSampleRate(8_000)
+                        .setChannels(2)
+                );
+            }
+
+            @Override
+            public Frame produce() {
+                if (frame == 3) {
+                    return null;
+                }
+                return Frame.createAudioFrame(0, 3L * frame++, ShortBuffer.wrap(samples));
+            }
+        };
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new NutFrameWriter(producer, ImageFormats.BGR24, SampleFormat.S16LE, 0).write(output);
+
+        final List<Frame> frames = Collections.synchronizedList(new ArrayList<>());
+        new NutFrameReader(stream -> new FrameConsumer() {
+            @Override
+            public void consumeStreams(List<Stream> streams) {
+            }
+
+            @Override
+            public void consume(Frame frame) {
+                if (frame != null) {
+                    frames.add(frame);
+                }
+            }
+        }, ImageFormats.BGR24, SampleFormat.S16LE, 2, NutFrameReader.Backpressure.BLOCK)
+                .read(new ByteArrayInputStream(output.toByteArray()));
+
+        assertEquals(3, frames.size());
+        for (int i = 0; i < frames.size(); i++) {
+            Frame frame = frames.get(i);
+            assertEquals(3L * i, frame.getPts());
+            Assertions.assertNull(frame.getSamples());
+            assertEquals(ShortBuffer.wrap(samples), frame.getShortSamples());
+        }
+    }
+
+    @Test
+    public void consumeStreamsInParallel() {
+        final Map<Integer, AtomicLong> frameCounters = new ConcurrentHashMap<>();
+        final Map<Integer, String> threadNames = new ConcurrentHashMap<>();
+        final AtomicInteger eofCounter = new AtomicInteger();
+
+        FFmpegResult result = FFmpeg.atPath(Config.FFMPEG_BIN)
+                .addInput(
+                        UrlInput.fromPath(Artifacts.VIDEO_MP4)
+                                .setDuration(5_000)
+                )
+                .addOutput(
+                        FrameOutput.withStreamConsumers(stream -> new FrameConsumer() {
+                            @Override
+                            public void consumeStreams(List<Stream> streams) {
+                                assertEquals(Collections.singletonList(stream), streams);
+                                frameCounters.put(stream.getId(), new AtomicLong());
+                            }
+
+                            @Override
+                            public void consume(Frame frame) {
+                                if (frame == null) {
+                                    eofCounter.incrementAndGet();
+                                    return;
+                                }
+
+                                assertEquals(stream.getId(), frame.getStreamId());
+                                threadNames.put(stream.getId(), Thread.currentThread().getName());
+                                frameCounters.get(stream.getId()).incrementAndGet();
+                            }
+                        }, 4, NutFrameReader.Backpressure.BLOCK)
+                )
+                .execute();
+
+        Assertions.assertNotNull(result);
+        assertEquals(2, frameCounters.size());
+        assertEquals(2, eofCounter.get());
+        for (AtomicLong counter : frameCounters.values()) {
+            assertTrue(counter.get() > 0);
+        }
+        assertEquals(2, new HashSet<>(threadNames.values()).size());
+    }
+
+    @Test
+    public void streamConsumerFailureIsPropagated() {
+        JaffreeException exception = Assertions.assertThrows(JaffreeException.class, () ->
+                FFmpeg.atPath(Config.FFMPEG_BIN)
+                        .addInput(
+                                UrlInput.fromPath(Artifacts.VIDEO_MP4)
+                        )
+                        .addOutput(
+                                FrameOutput.withStreamConsumers(stream -> new FrameConsumer() {
+                                    @Override
+                                    public void consumeStreams(List<Stream> streams) {
+                                    }
+
+                                    @Override
+                                    public void consume(Frame frame) {
+                                        if (frame != null && frame.getImage() != null) {
+                                            throw new IllegalStateException("Consumer failed");
+                                        }
+                                    }
+                                })
+                        )
+                        .execute()
+        );
+
+        assertNotNull(exception);
+    }
+
     @Test
     public void testStreamId() {
 
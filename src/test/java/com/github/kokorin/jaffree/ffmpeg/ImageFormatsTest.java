@@ -0,0 +1,77 @@
+package com.github.kokorin.jaffree.ffmpeg;
+
+import com.github.kokorin.jaffree.JaffreeException;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ImageFormatsTest {
+
+    @Test
+    public void frameSizes() {
+        assertEquals(640 * 480 * 3, ImageFormats.BGR24.getFrameSize(640, 480));
+        assertEquals(640 * 480 * 4, ImageFormats.ABGR.getFrameSize(640, 480));
+        assertEquals(640 * 480 * 3 / 2, ImageFormats.YUV420P.getFrameSize(640, 480));
+        assertEquals(640 * 480 * 3 / 2, ImageFormats.NV12.getFrameSize(640, 480));
+        assertEquals(640 * 480, ImageFormats.GRAY.getFrameSize(640, 480));
+        assertEquals(640 * 480 * 2, ImageFormats.GRAY16LE.getFrameSize(640, 480));
+
+        // chroma planes are rounded up
+        assertEquals(5 * 3 + 2 * 3 * 2, ImageFormats.YUV420P.getFrameSize(5, 3));
+        assertEquals(5 * 3 + 6 * 2, ImageFormats.NV12.getFrameSize(5, 3));
+    }
+
+    @Test
+    public void yuv420pPlanes() {
+        ImageFormat.Plane[] planes = ImageFormats.YUV420P.getPlanes(640, 480);
+
+        assertEquals(3, planes.length);
+        assertEquals(0, planes[0].getOffset());
+        assertEquals(640, planes[0].getStride());
+        assertEquals(480, planes[0].getRows());
+        assertEquals(640 * 480, planes[1].getOffset());
+        assertEquals(320, planes[1].getStride());
+        assertEquals(240, planes[1].getRows());
+        assertEquals(640 * 480 + 320 * 240, planes[2].getOffset());
+        assertEquals(320 * 240, planes[2].getSize());
+    }
+
+    @Test
+    public void planarImageWrapsData() {
+        byte[] data = randomBytes(ImageFormats.YUV420P.getFrameSize(64, 48));
+
+        BufferedImage image = ImageFormats.YUV420P.toImage(data, 64, 48);
+
+        assertEquals(BufferedImage.TYPE_BYTE_GRAY, image.getType());
+        assertEquals(64, image.getWidth());
+        assertEquals(72, image.getHeight());
+        assertSame(data, ImageFormats.YUV420P.toBytes(image));
+
+        assertThrows(JaffreeException.class, () -> ImageFormats.NV12.toImage(
+                new byte[ImageFormats.NV12.getFrameSize(63, 48)], 63, 48));
+    }
+
+    @Test
+    public void gray16RoundTrip() {
+        byte[] data = randomBytes(ImageFormats.GRAY16LE.getFrameSize(32, 16));
+
+        BufferedImage image = ImageFormats.GRAY16LE.toImage(data, 32, 16);
+
+        assertEquals(BufferedImage.TYPE_USHORT_GRAY, image.getType());
+        int expected = (data[0] & 0xFF) | (data[1] & 0xFF) << 8;
+        assertEquals(expected, image.getRaster().getSample(0, 0, 0));
+        assertArrayEquals(data, ImageFormats.GRAY16LE.toBytes(image));
+    }
+
+    private static byte[] randomBytes(final int size) {
+        byte[] result = new byte[size];
+        new Random(42).nextBytes(result);
+        return result;
+    }
+}
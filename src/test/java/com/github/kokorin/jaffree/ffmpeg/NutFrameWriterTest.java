@@ -0,0 +1,61 @@
+package com.github.kokorin.jaffree.ffmpeg;
+
+import com.github.kokorin.jaffree.JaffreeException;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NutFrameWriterTest {
+
+    @Test
+    public void writesPlanarFrameOfStreamSize() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // 48 rows of luma and 24 rows of chroma
+        writer(new BufferedImage(64, 72, BufferedImage.TYPE_BYTE_GRAY)).write(output);
+
+        assertTrue(output.size() > ImageFormats.YUV420P.getFrameSize(64, 48));
+    }
+
+    @Test
+    public void rejectsPlanarFrameOfWrongSize() {
+        // a gray image of stream height lacks the chroma planes
+        NutFrameWriter writer =
+                writer(new BufferedImage(64, 48, BufferedImage.TYPE_BYTE_GRAY));
+
+        assertThrows(JaffreeException.class, () -> writer.write(new ByteArrayOutputStream()));
+    }
+
+    private static NutFrameWriter writer(final BufferedImage image) {
+        FrameProducer producer = new FrameProducer() {
+            private boolean produced = false;
+
+            @Override
+            public List<Stream> produceStreams() {
+                return Collections.singletonList(new Stream()
+                        .setId(0)
+                        .setType(Stream.Type.VIDEO)
+                        .setTimebase(1000L)
+                        .setResolution(64, 48));
+            }
+
+            @Override
+            public Frame produce() {
+                if (produced) {
+                    return null;
+                }
+
+                produced = true;
+                return Frame.createVideoFrame(0, 0, image);
+            }
+        };
+
+        return new NutFrameWriter(producer, ImageFormats.YUV420P, 0);
+    }
+}
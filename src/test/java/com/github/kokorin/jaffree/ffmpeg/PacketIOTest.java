@@ -0,0 +1,186 @@
+package com.github.kokorin.jaffree.ffmpeg;
+
+import com.github.kokorin.jaffree.Artifacts;
+import com.github.kokorin.jaffree.Config;
+import com.github.kokorin.jaffree.StreamType;
+import com.github.kokorin.jaffree.ffprobe.FFprobe;
+import com.github.kokorin.jaffree.ffprobe.FFprobeResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PacketIOTest {
+
+    @Test
+    public void consumeCopiedPackets() {
+        final AtomicReference<List<Stream>> streamsRef = new AtomicReference<>();
+        final Map<Integer, AtomicLong> packetCounters = new ConcurrentHashMap<>();
+        final Map<Integer, Boolean> firstIsKeyframe = new ConcurrentHashMap<>();
+        final AtomicBoolean eof = new AtomicBoolean();
+
+        FFmpegResult result = FFmpeg.atPath(Config.FFMPEG_BIN)
+                .addInput(
+                        UrlInput.fromPath(Artifacts.VIDEO_MP4)
+                                .setDuration(5_000)
+                )
+                .addOutput(
+                        PacketOutput.withConsumer(new PacketConsumer() {
+                            @Override
+                            public void consumeStreams(List<Stream> streams) {
+                                streamsRef.set(streams);
+                                for (Stream stream : streams) {
+                                    packetCounters.put(stream.getId(), new AtomicLong());
+                                }
+                            }
+
+                            @Override
+                            public void consume(Packet packet) {
+                                if (packet == null) {
+                                    eof.set(true);
+                                    return;
+                                }
+
+                                firstIsKeyframe.putIfAbsent(packet.getStreamId(),
+                                        packet.isKeyframe());
+                                assertTrue(packet.getData().length > 0);
+                                packetCounters.get(packet.getStreamId()).incrementAndGet();
+                            }
+                        })
+                )
+                .execute();
+
+        assertNotNull(result);
+        assertTrue(eof.get());
+
+        List<Stream> streams = streamsRef.get();
+        assertEquals(2, streams.size());
+
+        Stream video = streams.get(0);
+        assertEquals(Stream.Type.VIDEO, video.getType());
+        assertEquals("H264", new String(video.getFourcc(), StandardCharsets.US_ASCII));
+        assertTrue(video.getCodecSpecificData().length > 0);
+
+        Stream audio = streams.get(1);
+        assertEquals(Stream.Type.AUDIO, audio.getType());
+        assertTrue(audio.getCodecSpecificData().length > 0);
+
+        for (Stream stream : streams) {
+            assertTrue(packetCounters.get(stream.getId()).get() > 0);
+            Assertions.assertTrue(firstIsKeyframe.get(stream.getId()));
+        }
+    }
+
+    @Test
+    public void consumeEncodedPackets() {
+        final AtomicReference<List<Stream>> streamsRef = new AtomicReference<>();
+        final AtomicLong packetCounter = new AtomicLong();
+
+        FFmpegResult result = FFmpeg.atPath(Config.FFMPEG_BIN)
+                .addInput(
+                        UrlInput.fromPath(Artifacts.VIDEO_MP4)
+                )
+                .addOutput(
+                        PacketOutput.withConsumer(new PacketConsumer() {
+                            @Override
+                            public void consumeStreams(List<Stream> streams) {
+                                streamsRef.set(streams);
+                            }
+
+                            @Override
+                            public void consume(Packet packet) {
+                                if (packet != null) {
+                                    packetCounter.incrementAndGet();
+                                }
+                            }
+                        })
+                                .setCodec(StreamType.VIDEO, "mjpeg")
+                                .disableStream(StreamType.AUDIO)
+                                .setFrameCount(StreamType.VIDEO, 10L)
+                )
+                .execute();
+
+        assertNotNull(result);
+        assertEquals(1, streamsRef.get().size());
+        assertEquals("MJPG", new String(streamsRef.get().get(0).getFourcc(),
+                StandardCharsets.US_ASCII));
+        assertEquals(10, packetCounter.get());
+    }
+
+    @Test
+    public void remuxProducedPackets() throws Exception {
+        final AtomicReference<List<Stream>> streamsRef = new AtomicReference<>();
+        final List<Packet> packets = new ArrayList<>();
+
+        FFmpeg.atPath(Config.FFMPEG_BIN)
+                .addInput(
+                        UrlInput.fromPath(Artifacts.VIDEO_MP4)
+                                .setDuration(5_000)
+                )
+                .addOutput(
+                        PacketOutput.withConsumer(new PacketConsumer() {
+                            @Override
+                            public void consumeStreams(List<Stream> streams) {
+                                streamsRef.set(streams);
+                            }
+
+                            @Override
+                            public void consume(Packet packet) {
+                                if (packet != null) {
+                                    packets.add(packet);
+                                }
+                            }
+                        })
+                )
+                .execute();
+
+        Path tempDir = Files.createTempDirectory("jaffree");
+        Path output = tempDir.resolve("output.mp4");
+        final Iterator<Packet> packetIterator = packets.iterator();
+
+        FFmpegResult result = FFmpeg.atPath(Config.FFMPEG_BIN)
+                .addInput(
+                        PacketInput.withProducer(new PacketProducer() {
+                            @Override
+                            public List<Stream> produceStreams() {
+                                return streamsRef.get();
+                            }
+
+                            @Override
+                            public Packet produce() {
+                                return packetIterator.hasNext() ? packetIterator.next() : null;
+                            }
+                        })
+                )
+                .addOutput(
+                        UrlOutput.toPath(output)
+                                .copyAllCodecs()
+                )
+                .execute();
+
+        assertNotNull(result);
+
+        FFprobeResult probe = FFprobe.atPath(Config.FFMPEG_BIN)
+                .setInput(output)
+                .setShowStreams(true)
+                .execute();
+
+        assertEquals(2, probe.getStreams().size());
+        assertEquals("h264", probe.getStreams().get(0).getCodecName());
+        assertEquals(StreamType.AUDIO, probe.getStreams().get(1).getCodecType());
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.kokorin.jaffree.ffmpeg;
+
+import com.github.kokorin.jaffree.nut.FrameBufferPool;
+import com.github.kokorin.jaffree.nut.NutFrame;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RawFrameTest {
+
+    @Test
+    public void consumerCantMoveFrameData() {
+        FrameBufferPool pool = new FrameBufferPool();
+        NutFrame nutFrame = new NutFrame(0, 0, pool.acquire(4), null, null, true, false, pool);
+        RawFrame frame = new RawFrame(nutFrame, 2, 2, ImageFormats.GRAY, null);
+        String description = frame.toString();
+
+        ByteBuffer data = frame.getData();
+        data.get(new byte[3]);
+        data.limit(3);
+
+        assertEquals(0, frame.getData().position());
+        assertEquals(4, frame.getData().limit());
+        assertEquals(description, frame.toString());
+
+        frame.release();
+        assertEquals(1, pool.size());
+    }
+}
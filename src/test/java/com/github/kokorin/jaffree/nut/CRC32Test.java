@@ -0,0 +1,92 @@
+package com.github.kokorin.jaffree.nut;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CRC32Test {
+
+    @Test
+    public void checkValue() {
+        CRC32 crc32 = new CRC32();
+        crc32.update("123456789".getBytes(StandardCharsets.US_ASCII));
+
+        // CRC-32/CKSUM check value without final XOR
+        assertEquals(0x765E7680L ^ 0xFFFFFFFFL, crc32.getValue());
+    }
+
+    @Test
+    public void matchesBytewiseImplementation() {
+        Random random = new Random(42);
+
+        for (int length = 0; length < 100; length++) {
+            byte[] data = new byte[length + 3];
+            random.nextBytes(data);
+
+            long expected = nibbleCrc(data, 1, length);
+
+            CRC32 bulk = new CRC32();
+            bulk.update(data, 1, length);
+            assertEquals(expected, bulk.getValue(), "array, length " + length);
+
+            CRC32 single = new CRC32();
+            for (int i = 1; i <= length; i++) {
+                single.update(data[i]);
+            }
+            assertEquals(expected, single.getValue(), "single bytes, length " + length);
+
+            for (ByteOrder order : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN}) {
+                ByteBuffer direct = ByteBuffer.allocateDirect(length).order(order);
+                direct.put(data, 1, length).flip();
+
+                CRC32 buffer = new CRC32();
+                buffer.update(direct);
+                assertEquals(expected, buffer.getValue(), "direct buffer, length " + length);
+                assertEquals(0, direct.remaining());
+            }
+        }
+    }
+
+    @Test
+    public void updateCanBeSplit() {
+        byte[] data = new byte[1000];
+        new Random(7).nextBytes(data);
+
+        CRC32 whole = new CRC32();
+        whole.update(data);
+
+        CRC32 parts = new CRC32();
+        parts.update(data, 0, 13);
+        parts.update(ByteBuffer.wrap(data, 13, 500));
+        parts.update(data[513]);
+        parts.update(data, 514, data.length - 514);
+
+        assertEquals(whole.getValue(), parts.getValue());
+    }
+
+    /**
+     * Previous implementation with 16-entry table, used as a reference.
+     */
+    private static long nibbleCrc(final byte[] data, final int offset, final int length) {
+        final int[] table = {
+                0x00000000, 0x04C11DB7, 0x09823B6E, 0x0D4326D9,
+                0x130476DC, 0x17C56B6B, 0x1A864DB2, 0x1E475005,
+                0x2608EDB8, 0x22C9F00F, 0x2F8AD6D6, 0x2B4BCB61,
+                0x350C9B64, 0x31CD86D3, 0x3C8EA00A, 0x384FBDBD,
+        };
+
+        int crc = 0;
+        for (int i = offset; i < offset + length; i++) {
+            crc ^= data[i] << 24;
+            crc = (crc << 4) ^ table[crc >>> 28];
+            crc = (crc << 4) ^ table[crc >>> 28];
+        }
+
+        return (long) crc & 0xffffffffL;
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.kokorin.jaffree.nut;
+
+import com.github.kokorin.jaffree.Rational;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class FrameOrderingBufferTest {
+
+    @Test
+    public void ordersFramesOfDifferentTimeBases() {
+        Rational[] timeBases = {new Rational(1, 25), new Rational(1, 8000),
+                new Rational(1001, 30000)};
+        FrameOrderingBuffer buffer = new FrameOrderingBuffer(timeBases, 200);
+
+        // 0.12s, 0.04s, ~0.0667s, 0.04s
+        NutFrame video = frame(0, 3);
+        NutFrame audio = frame(1, 320);
+        NutFrame other = frame(2, 2);
+        NutFrame sameAsAudio = frame(0, 1);
+
+        buffer.add(video, 0);
+        buffer.add(audio, 1);
+        buffer.add(other, 2);
+        buffer.add(sameAsAudio, 0);
+
+        // nothing is later by more than 200 ms
+        assertNull(buffer.pollReady());
+
+        assertSame(audio, buffer.poll());
+        assertSame(sameAsAudio, buffer.poll());
+        assertSame(other, buffer.poll());
+        assertSame(video, buffer.poll());
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    public void releasesFramesOutsideOfWindow() {
+        Rational[] timeBases = {new Rational(1, 1000)};
+        FrameOrderingBuffer buffer = new FrameOrderingBuffer(timeBases, 200);
+
+        NutFrame first = frame(0, 100);
+        NutFrame second = frame(0, 200);
+        buffer.add(first, 0);
+        buffer.add(second, 0);
+
+        // exactly 200 ms later isn't enough
+        buffer.add(frame(0, 300), 0);
+        assertNull(buffer.pollReady());
+
+        buffer.add(frame(0, 301), 0);
+        assertSame(first, buffer.pollReady());
+        assertNull(buffer.pollReady());
+
+        buffer.add(frame(0, 401), 0);
+        assertSame(second, buffer.pollReady());
+        assertNull(buffer.pollReady());
+    }
+
+    @Test
+    public void switchesToBigTicksOnOverflow() {
+        Rational[] timeBases = {new Rational(1, 1_000_000_007), new Rational(1, 998_244_353)};
+        FrameOrderingBuffer buffer = new FrameOrderingBuffer(timeBases, 200);
+
+        NutFrame later = frame(0, 2_000_000_014L);
+        NutFrame earlier = frame(1, 998_244_353L);
+        buffer.add(later, 0);
+        buffer.add(earlier, 1);
+
+        assertSame(earlier, buffer.pollReady());
+        assertNull(buffer.pollReady());
+        assertEquals(1, buffer.compare(0, 2_000_000_014L, 1, 998_244_353L));
+    }
+
+    private static NutFrame frame(final int streamId, final long pts) {
+        return new NutFrame(streamId, pts, new byte[0], null, null, true, false);
+    }
+}
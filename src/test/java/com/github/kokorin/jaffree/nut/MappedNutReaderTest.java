@@ -0,0 +1,92 @@
+package com.github.kokorin.jaffree.nut;
+
+import com.github.kokorin.jaffree.Artifacts;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedNutReaderTest {
+
+    @Test
+    public void readSameFramesAsNutReader() throws IOException {
+        // small window to make frames cross window boundaries
+        try (InputStream input = new FileInputStream(Artifacts.VIDEO_NUT.toFile());
+             MappedNutReader actualReader = new MappedNutReader(Artifacts.VIDEO_NUT, 100_000)) {
+            NutReader expectedReader = new NutReader(new NutInputStream(input));
+
+            assertEquals(expectedReader.getMainHeader().streamCount,
+                    actualReader.getMainHeader().streamCount);
+            assertEquals(expectedReader.getStreamHeaders().length,
+                    actualReader.getStreamHeaders().length);
+
+            NutFrame expected;
+            while ((expected = expectedReader.readFrame()) != null) {
+                NutFrame actual = actualReader.readFrame();
+
+                assertEquals(expected.streamId, actual.streamId);
+                assertEquals(expected.pts, actual.pts);
+                assertEquals(expected.keyframe, actual.keyframe);
+                assertEquals(expected.eor, actual.eor);
+                assertEquals(ByteBuffer.wrap(expected.data), actual.payload);
+                assertTrue(actual.payload.isReadOnly());
+                assertNull(actual.data);
+            }
+
+            assertNull(actualReader.readFrame());
+        }
+    }
+
+    @Test
+    public void readValuesAcrossWindowBoundaries() throws Exception {
+        long[] values = {0, 1, 127, 128, 356, 0x3FFF, 0x4000, 0x7ABCDEF0123456L,
+                Long.MAX_VALUE};
+        String[] strings = {"", "a", "Jaffree", "Lavf60.16.100 with a rather long name"};
+
+        Path file = Files.createTempFile("mapped", ".bin");
+        try {
+            try (OutputStream stream = Files.newOutputStream(file);
+                 NutOutputStream output = new NutOutputStream(stream)) {
+                for (int i = 0; i < 20; i++) {
+                    for (long value : values) {
+                        output.writeValue(value);
+                    }
+                    output.writeCString(strings[i % strings.length]);
+                    output.writeSignedValue(-i);
+                    output.writeByte(i);
+                }
+            }
+
+            for (int windowSize = 1; windowSize <= 24; windowSize++) {
+                try (MappedNutInputStream input = new MappedNutInputStream(
+                        FileChannel.open(file, StandardOpenOption.READ), windowSize)) {
+                    for (int i = 0; i < 20; i++) {
+                        for (long value : values) {
+                            assertEquals(value, input.readValue());
+                        }
+                        assertEquals(strings[i % strings.length], input.readCString());
+                        assertEquals(-i, input.readSignedValue());
+                        assertEquals(i, input.readByte());
+                    }
+
+                    assertEquals(Files.size(file), input.getPosition());
+                    assertFalse(input.hasMoreData());
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
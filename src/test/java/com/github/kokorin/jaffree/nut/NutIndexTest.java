@@ -0,0 +1,85 @@
+package com.github.kokorin.jaffree.nut;
+
+import com.github.kokorin.jaffree.Artifacts;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NutIndexTest {
+
+    @Test
+    public void saveAndLoad() throws IOException {
+        Path nutFile = Files.createTempFile("indexed", ".nut");
+        Files.copy(Artifacts.VIDEO_NUT, nutFile, StandardCopyOption.REPLACE_EXISTING);
+
+        NutIndex built = NutIndex.forFile(nutFile);
+        assertTrue(built.getSyncPointCount() > 0);
+        assertTrue(Files.exists(NutIndex.indexFileFor(nutFile)));
+
+        NutIndex loaded = NutIndex.load(NutIndex.indexFileFor(nutFile));
+        assertEquals(built.getFileSize(), loaded.getFileSize());
+        assertEquals(built.getSyncPointCount(), loaded.getSyncPointCount());
+        for (int i = 0; i < built.getSyncPointCount(); i++) {
+            assertEquals(built.getPosition(i), loaded.getPosition(i));
+            assertEquals(built.getPts(i, 0), loaded.getPts(i, 0));
+        }
+    }
+
+    @Test
+    public void indexIsReturnedIfItCantBeSaved() throws IOException {
+        Path nutFile = Files.createTempFile("unsaved", ".nut");
+        Files.copy(Artifacts.VIDEO_NUT, nutFile, StandardCopyOption.REPLACE_EXISTING);
+        // a directory in place of the index file makes saving fail
+        Path indexFile = NutIndex.indexFileFor(nutFile);
+        Files.createDirectories(indexFile.resolve("occupied"));
+
+        NutIndex built = NutIndex.forFile(nutFile);
+        assertTrue(built.getSyncPointCount() > 0);
+        assertTrue(Files.isDirectory(indexFile));
+    }
+
+    @Test
+    public void seek() throws IOException {
+        List<NutFrame> frames = new ArrayList<>();
+        try (InputStream input = new FileInputStream(Artifacts.VIDEO_NUT.toFile())) {
+            NutReader reader = new NutReader(new NutInputStream(input));
+            NutFrame frame;
+            while ((frame = reader.readFrame()) != null) {
+                frames.add(frame);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(Artifacts.VIDEO_NUT)) {
+            NutIndex index = NutIndex.build(channel);
+            NutReader reader = new NutReader(new NutInputStream(channel));
+
+            // seek backward and forward
+            for (int i : new int[]{frames.size() / 2, frames.size() / 10, frames.size() * 9 / 10}) {
+                NutFrame expected = frames.get(i);
+                assertTrue(reader.seek(index, expected.streamId, expected.pts));
+
+                NutFrame actual;
+                do {
+                    actual = reader.readFrame();
+                    assertNotNull(actual);
+                } while (actual.streamId != expected.streamId || actual.pts < expected.pts);
+
+                assertEquals(expected.pts, actual.pts);
+                assertArrayEquals(expected.data, actual.data);
+            }
+        }
+    }
+}
@@ -5,8 +5,13 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -162,4 +167,130 @@ public class NutInputStreamTest {
     public void skipBytesFromTooShort2() {
         assertThrows(EOFException.class, () -> tooShortToReadVarBytes.skipBytes(42));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void readValueAcrossRefillBoundary() throws Exception {
+        long[] values = {0, 1, 127, 128, 356, 0x3FFF, 0x4000, 0x1FFFFF, 0x7ABCDEF0123456L,
+                Long.MAX_VALUE};
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (NutOutputStream output = new NutOutputStream(buffer)) {
+            for (int i = 0; i < 20; i++) {
+                for (long value : values) {
+                    output.writeValue(value);
+                }
+                output.writeByte(i);
+            }
+        }
+        byte[] data = buffer.toByteArray();
+
+        for (int bufferSize = NutDataInput.MAX_VALUE_LENGTH; bufferSize < 32; bufferSize++) {
+            for (int chunkSize : new int[] {1, 3, data.length}) {
+                NutInputStream input = new NutInputStream(channel(data, chunkSize), bufferSize);
+
+                for (int i = 0; i < 20; i++) {
+                    for (long value : values) {
+                        Assertions.assertEquals(value, input.readValue());
+                    }
+                    Assertions.assertEquals(i, input.readByte());
+                }
+
+                Assertions.assertEquals(data.length, input.getPosition());
+                Assertions.assertFalse(input.hasMoreData());
+            }
+        }
+    }
+
+    @Test
+    public void readBytesLargerThanBuffer() throws IOException {
+        byte[] data = new byte[2000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 31);
+        }
+
+        for (int chunkSize : new int[] {1, 7, data.length}) {
+            NutInputStream input = new NutInputStream(channel(data, chunkSize), 16);
+
+            // partially fill the buffer before reading past it
+            Assertions.assertEquals(data[0] & 0xFF, input.readByte());
+            Assertions.assertArrayEquals(Arrays.copyOfRange(data, 1, 501), input.readBytes(500));
+            Assertions.assertEquals(501, input.getPosition());
+
+            ByteBuffer heap = ByteBuffer.allocate(600);
+            heap.position(100);
+            input.readBytes(heap);
+            Assertions.assertEquals(ByteBuffer.wrap(data, 501, 500), heap.flip().position(100));
+            Assertions.assertEquals(1001, input.getPosition());
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(500);
+            input.readBytes(direct);
+            Assertions.assertEquals(ByteBuffer.wrap(data, 1001, 500), direct.flip());
+            Assertions.assertEquals(1501, input.getPosition());
+
+            input.skipBytes(400);
+            Assertions.assertArrayEquals(Arrays.copyOfRange(data, 1901, 2000), input.readBytes(99));
+            Assertions.assertFalse(input.hasMoreData());
+            assertThrows(EOFException.class, () -> input.readBytes(ByteBuffer.allocate(1)));
+        }
+    }
+
+    @Test
+    public void seekOnNonSeekableInput() throws IOException {
+        // larger than the default buffer
+        byte[] data = new byte[NutInputStream.DEFAULT_BUFFER_SIZE + 100];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+
+        NutInputStream fromStream = new NutInputStream(new ByteArrayInputStream(data));
+        NutInputStream fromChannel = new NutInputStream(channel(data, data.length), 16);
+
+        for (NutInputStream input : new NutInputStream[] {fromStream, fromChannel}) {
+            Assertions.assertFalse(input.isSeekable());
+            Assertions.assertEquals(0, input.readByte());
+
+            // positions within the buffered data don't need a seekable source
+            input.seek(10);
+            Assertions.assertEquals(10, input.getPosition());
+            Assertions.assertEquals(10, input.readByte());
+
+            assertThrows(IOException.class, () -> input.seek(0));
+            assertThrows(IOException.class, () -> input.seek(data.length - 1));
+            Assertions.assertEquals(11, input.getPosition());
+            Assertions.assertEquals(11, input.readByte());
+        }
+    }
+
+    /**
+     * Creates non-seekable channel which returns at most chunkSize bytes per read.
+     */
+    private static ReadableByteChannel channel(final byte[] data, final int chunkSize) {
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(data));
+        return new ReadableByteChannel() {
+            @Override
+            public int read(final ByteBuffer dst) throws IOException {
+                if (dst.remaining() <= chunkSize) {
+                    return channel.read(dst);
+                }
+
+                ByteBuffer chunk = dst.duplicate();
+                chunk.limit(chunk.position() + chunkSize);
+                int read = channel.read(chunk);
+                if (read > 0) {
+                    dst.position(dst.position() + read);
+                }
+                return read;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return channel.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        };
+    }
+}
@@ -1,13 +1,30 @@
 package com.github.kokorin.jaffree.nut;
 
 import com.github.kokorin.jaffree.Artifacts;
+import com.github.kokorin.jaffree.Rational;
+import com.github.kokorin.jaffree.nut.FrameCode.Flag;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class NutReaderTest {
 
@@ -26,4 +43,202 @@ public class NutReaderTest {
         assertEquals(2, mainHeader.streamCount);
         assertEquals(3, mainHeader.timeBases.length);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testReadFrameWithPool() throws IOException {
+        FrameBufferPool pool = new FrameBufferPool(2);
+
+        try (InputStream expectedStream = new FileInputStream(Artifacts.VIDEO_NUT.toFile());
+             InputStream actualStream = new FileInputStream(Artifacts.VIDEO_NUT.toFile())) {
+            NutReader expectedReader = new NutReader(new NutInputStream(expectedStream));
+            NutReader actualReader = new NutReader(new NutInputStream(actualStream));
+
+            int frames = 0;
+            NutFrame expected;
+            while ((expected = expectedReader.readFrame()) != null) {
+                NutFrame actual = actualReader.readFrame(pool);
+
+                assertEquals(expected.streamId, actual.streamId);
+                assertEquals(expected.pts, actual.pts);
+                assertEquals(expected.keyframe, actual.keyframe);
+                assertEquals(ByteBuffer.wrap(expected.data), actual.payload);
+                assertNull(actual.data);
+
+                actual.release();
+                // second release must be ignored
+                actual.release();
+                frames++;
+            }
+
+            assertNull(actualReader.readFrame(pool));
+            assertTrue(frames > 0);
+            assertTrue(pool.size() > 0);
+        }
+    }
+
+    @Test
+    public void testConcurrentReleaseReturnsBufferOnce() throws Exception {
+        final int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < 100; i++) {
+                FrameBufferPool pool = new FrameBufferPool();
+                NutFrame frame = new NutFrame(0, i, pool.acquire(16), null, null,
+                        true, false, pool);
+
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> releases = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    releases.add(executor.submit(() -> {
+                        start.await();
+                        frame.release();
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> release : releases) {
+                    release.get();
+                }
+
+                assertEquals(1, pool.size());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFlagsMaskMatchesFlags() {
+        List<Flag> toggled = Arrays.asList(Flag.KEYFRAME, Flag.EOR, Flag.CODED_PTS,
+                Flag.SIZE_MSB, Flag.CHECKSUM);
+
+        for (FrameCode frameCode : codedFlagsFrameCodes()) {
+            assertEquals(Flag.toBitCode(frameCode.flags), frameCode.flagsMask);
+
+            for (int combination = 0; combination < 1 << toggled.size(); combination++) {
+                Set<Flag> coded = codedFlags(toggled, combination);
+                long codedMask = Flag.toBitCode(coded);
+
+                assertEquals(Flag.xor(frameCode.flags, coded),
+                        Flag.fromBitCode(frameCode.flagsMask ^ codedMask));
+            }
+        }
+    }
+
+    /**
+     * Decodes frames whose frame codes have {@link Flag#CODED_FLAGS} set, toggling keyframe,
+     * EOR, size and PTS bits, and compares them with frames decoded with EnumSet operations.
+     */
+    @Test
+    public void testReadFramesWithCodedFlags() throws Exception {
+        FrameCode[] frameCodes = codedFlagsFrameCodes();
+        List<Flag> toggled = Arrays.asList(Flag.KEYFRAME, Flag.EOR, Flag.CODED_PTS,
+                Flag.SIZE_MSB);
+        int msbPtsShift = 7;
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        writeHeaders(buffer, frameCodes, msbPtsShift);
+
+        List<NutFrame> expectedFrames = new ArrayList<>();
+        long lastPts = 0;
+        try (NutOutputStream output = new NutOutputStream(buffer)) {
+            for (int code = 0; code < frameCodes.length; code++) {
+                FrameCode frameCode = frameCodes[code];
+
+                for (int combination = 0; combination < 1 << toggled.size(); combination++) {
+                    Set<Flag> coded = codedFlags(toggled, combination);
+                    Set<Flag> flags = Flag.xor(frameCode.flags, coded);
+
+                    long pts = lastPts + frameCode.ptsDelta;
+                    int dataSize = frameCode.dataSizeLsb;
+                    int dataSizeMsb = combination % 3 + 1;
+                    long codedPts = lastPts + 1000 + combination;
+
+                    output.writeByte(code);
+                    output.writeValue(Flag.toBitCode(coded));
+                    if (flags.contains(Flag.CODED_PTS)) {
+                        output.writeValue(codedPts + (1L << msbPtsShift));
+                        pts = codedPts;
+                    }
+                    if (flags.contains(Flag.SIZE_MSB)) {
+                        output.writeValue(dataSizeMsb);
+                        dataSize += dataSizeMsb * frameCode.dataSizeMul;
+                    }
+
+                    byte[] data = new byte[dataSize];
+                    Arrays.fill(data, (byte) combination);
+                    output.writeBytes(data);
+
+                    expectedFrames.add(new NutFrame(0, pts, data, null, null,
+                            flags.contains(Flag.KEYFRAME),
+                            flags.contains(Flag.EOR) || dataSize == 0));
+                    lastPts = pts;
+                }
+            }
+        }
+
+        NutReader reader = new NutReader(new NutInputStream(
+                new ByteArrayInputStream(buffer.toByteArray())));
+        // skip EOR frame written by NutWriter
+        NutFrame writerFrame = reader.readFrame();
+        assertTrue(writerFrame.eor);
+
+        for (NutFrame expected : expectedFrames) {
+            NutFrame actual = reader.readFrame();
+
+            assertEquals(expected.streamId, actual.streamId);
+            assertEquals(expected.pts, actual.pts);
+            assertEquals(expected.keyframe, actual.keyframe);
+            assertEquals(expected.eor, actual.eor);
+            assertArrayEquals(expected.data, actual.data);
+        }
+
+        assertNull(reader.readFrame());
+    }
+
+    private static FrameCode[] codedFlagsFrameCodes() {
+        return new FrameCode[] {
+                new FrameCode(EnumSet.of(Flag.CODED_FLAGS), 0, 1, 0, 0, 0, 0, 0),
+                new FrameCode(EnumSet.of(Flag.CODED_FLAGS, Flag.KEYFRAME, Flag.EOR,
+                        Flag.CODED_PTS, Flag.SIZE_MSB), 0, 16, 3, 5, 0, 0, 0),
+                new FrameCode(EnumSet.of(Flag.CODED_FLAGS, Flag.KEYFRAME), 0, 4, 10, 7, 0, 0, 0),
+                new FrameCode(EnumSet.of(Flag.CODED_FLAGS, Flag.SIZE_MSB), 0, 2, 0, 1, 0, 0, 0)
+        };
+    }
+
+    private static Set<Flag> codedFlags(final List<Flag> toggled, final int combination) {
+        Set<Flag> result = EnumSet.noneOf(Flag.class);
+        for (int i = 0; i < toggled.size(); i++) {
+            if ((combination & 1 << i) != 0) {
+                result.add(toggled.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes NUT headers followed by a single EOR frame and a syncpoint, so that frames written
+     * afterwards are decoded with the given frame codes.
+     */
+    private static void writeHeaders(final ByteArrayOutputStream buffer,
+                                     final FrameCode[] codedFrameCodes,
+                                     final int msbPtsShift) throws IOException {
+        FrameCode[] frameCodes = new FrameCode[256];
+        Arrays.fill(frameCodes, FrameCode.INVALID);
+        System.arraycopy(codedFrameCodes, 0, frameCodes, 0, codedFrameCodes.length);
+
+        NutOutputStream output = new NutOutputStream(buffer);
+        NutWriter writer = new NutWriter(output, 0);
+        writer.setMainHeader(1, Short.MAX_VALUE, new Rational[] {new Rational(1, 1000)},
+                frameCodes);
+        writer.setStreamHeaders(new StreamHeader[] {
+                new StreamHeader(0, StreamHeader.Type.AUDIO, new byte[] {32, 'D', 'S', 'P'},
+                        0, msbPtsShift, 60_000, 0, EnumSet.noneOf(StreamHeader.Flag.class),
+                        new byte[0], null, new StreamHeader.Audio(new Rational(1000, 1), 1))
+        });
+        writer.setInfos(new Info[0]);
+        writer.writeFrame(new NutFrame(0, 0, new byte[0], null, null, true, true));
+        writer.writeFooter();
+        output.flush();
+    }
+}
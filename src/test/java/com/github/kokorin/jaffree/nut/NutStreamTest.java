@@ -3,8 +3,19 @@ package com.github.kokorin.jaffree.nut;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import com.github.kokorin.jaffree.Rational;
+
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Random;
 
 public class NutStreamTest {
 
@@ -109,4 +120,124 @@ public class NutStreamTest {
                     "checkNextByte must return -1 if no more bytes are available");
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testChannelModeWritesSameBytes() throws Exception {
+        byte[] payload = new byte[100_000];
+        new Random(42).nextBytes(payload);
+        ByteBuffer heapPayload = ByteBuffer.wrap(payload);
+        ByteBuffer directPayload = ByteBuffer.allocateDirect(payload.length);
+        directPayload.put(payload).flip();
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        NutOutputStream streamOutput = new NutOutputStream(expected);
+        writeFrames(streamOutput, heapPayload, directPayload);
+        streamOutput.close();
+
+        // not a GatheringByteChannel
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        NutOutputStream channelOutput = new NutOutputStream(Channels.newChannel(written), 16);
+        writeFrames(channelOutput, heapPayload, directPayload);
+        channelOutput.close();
+        Assertions.assertArrayEquals(expected.toByteArray(), written.toByteArray());
+
+        Path path = Files.createTempFile("channel-mode", ".nut");
+        try {
+            NutOutputStream fileOutput = new NutOutputStream(FileChannel.open(path,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), 16);
+            writeFrames(fileOutput, heapPayload, directPayload);
+            Assertions.assertEquals(expected.size(), fileOutput.getPosition());
+            fileOutput.close();
+            Assertions.assertArrayEquals(expected.toByteArray(), Files.readAllBytes(path));
+        } finally {
+            Files.delete(path);
+        }
+
+        Assertions.assertEquals(0, heapPayload.position());
+        Assertions.assertEquals(0, directPayload.position());
+    }
+
+    @Test
+    public void testChannelModeWritesEmptyPayloads() throws Exception {
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        NutOutputStream streamOutput = new NutOutputStream(expected);
+        writeNut(streamOutput);
+        streamOutput.close();
+
+        Path path = Files.createTempFile("channel-mode", ".nut");
+        try {
+            NutOutputStream fileOutput = new NutOutputStream(FileChannel.open(path,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), 16);
+            fileOutput.writeByte(0x41);
+            fileOutput.writeValue(5);
+            fileOutput.writePayload(ByteBuffer.allocate(0));
+            fileOutput.writeByte(0x42);
+            fileOutput.close();
+            Assertions.assertArrayEquals(new byte[] {0x41, 5, 0x42}, Files.readAllBytes(path));
+
+            fileOutput = new NutOutputStream(FileChannel.open(path,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), 16);
+            writeNut(fileOutput);
+            fileOutput.close();
+            Assertions.assertArrayEquals(expected.toByteArray(), Files.readAllBytes(path));
+        } finally {
+            Files.delete(path);
+        }
+
+        NutReader reader = new NutReader(new NutInputStream(
+                new ByteArrayInputStream(expected.toByteArray())));
+        int frames = 0;
+        int emptyFrames = 0;
+        boolean eor = false;
+        NutFrame frame;
+        while ((frame = reader.readFrame()) != null) {
+            frames++;
+            if (frame.data.length == 0) {
+                emptyFrames++;
+            }
+            eor |= frame.eor;
+        }
+
+        Assertions.assertEquals(11, frames);
+        Assertions.assertEquals(6, emptyFrames);
+        Assertions.assertTrue(eor);
+    }
+
+    private static void writeNut(final NutOutputStream output) throws Exception {
+        FrameCode[] frameCodes = new FrameCode[256];
+        Arrays.fill(frameCodes, FrameCode.INVALID);
+        frameCodes[1] = new FrameCode(EnumSet.of(FrameCode.Flag.CODED_FLAGS),
+                0, 1, 0, 0, 0, 0, 0);
+
+        NutWriter writer = new NutWriter(output, 0);
+        writer.setMainHeader(1, Short.MAX_VALUE, new Rational[] {new Rational(1, 8000)},
+                frameCodes);
+        writer.setStreamHeaders(new StreamHeader[] {
+                new StreamHeader(0, StreamHeader.Type.AUDIO, new byte[] {32, 'D', 'S', 'P'},
+                        0, 0, 60_000, 0, EnumSet.noneOf(StreamHeader.Flag.class), new byte[0],
+                        null, new StreamHeader.Audio(new Rational(8000, 1), 1))
+        });
+        writer.setInfos(new Info[0]);
+
+        for (int i = 0; i < 10; i++) {
+            byte[] data = new byte[i % 2 == 0 ? 0 : 40 * i];
+            writer.writeFrame(new NutFrame(0, 100L * i, data, new DataItem[0],
+                    new DataItem[0], true, false));
+        }
+        writer.writeFooter();
+    }
+
+    private static void writeFrames(final NutOutputStream output, final ByteBuffer heapPayload,
+                                    final ByteBuffer directPayload) throws Exception {
+        output.writeLong(0x123ABCL);
+        output.writeBytes(new byte[100]);
+        for (int i = 0; i < 10; i++) {
+            output.resetCrc32();
+            output.writeByte(i);
+            output.writeValue(i * 1000);
+            output.writeCrc32();
+            output.writePayload(i % 2 == 0 ? heapPayload : directPayload);
+        }
+        output.writeCString("Jaffree");
+    }
+}
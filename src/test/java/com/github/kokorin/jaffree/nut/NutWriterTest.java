@@ -0,0 +1,225 @@
+package com.github.kokorin.jaffree.nut;
+
+import com.github.kokorin.jaffree.Rational;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+public class NutWriterTest {
+
+    /**
+     * Expected output was written by the frame code selection loop which checked every frame
+     * code for every frame.
+     */
+    @Test
+    public void testFrameCodeSelection() throws Exception {
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        writeFrameCodeSamples(actual);
+
+        byte[] expected;
+        try (InputStream input = new GZIPInputStream(
+                getClass().getResourceAsStream("frame-codes.nut.gz"))) {
+            expected = input.readAllBytes();
+        }
+
+        Assertions.assertArrayEquals(expected, actual.toByteArray());
+    }
+
+    @Test
+    public void testDecodeOrderIsKept() throws Exception {
+        List<Long> pts = Arrays.asList(0L, 3L, 1L, 2L, 6L, 4L, 5L);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writeFrames(NutWriter.inDecodeOrder(new NutOutputStream(output)), pts);
+
+        Assertions.assertEquals(pts, readPts(output.toByteArray()));
+    }
+
+    @Test
+    public void testFramesAreReorderedByPts() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writeFrames(new NutWriter(new NutOutputStream(output), 0),
+                Arrays.asList(0L, 3L, 1L, 2L, 6L, 4L, 5L));
+
+        Assertions.assertEquals(Arrays.asList(0L, 1L, 2L, 3L, 4L, 5L, 6L),
+                readPts(output.toByteArray()));
+    }
+
+    private static void writeFrames(final NutWriter writer, final List<Long> pts) throws Exception {
+        FrameCode[] frameCodes = invalidFrameCodes();
+        frameCodes[1] = frameCode(EnumSet.of(FrameCode.Flag.CODED_FLAGS), 0, 1, 0, 0);
+
+        writer.setMainHeader(1, 32, new Rational[] {new Rational(1, 1000)}, frameCodes);
+        writer.setStreamHeaders(new StreamHeader[] {streamHeader(0, StreamHeader.Type.VIDEO)});
+        writer.setInfos(new Info[0]);
+
+        for (long value : pts) {
+            writer.writeFrame(new NutFrame(0, value, new byte[] {1, 2, 3}, null, null,
+                    value == 0, false));
+        }
+        writer.writeFooter();
+    }
+
+    private static List<Long> readPts(final byte[] data) throws IOException {
+        NutReader reader = new NutReader(new NutInputStream(new ByteArrayInputStream(data)));
+
+        List<Long> result = new ArrayList<>();
+        NutFrame frame;
+        while ((frame = reader.readFrame()) != null) {
+            // skip EOR frame written by writeFooter
+            if (!frame.eor) {
+                result.add(frame.pts);
+            }
+        }
+        return result;
+    }
+
+    static void writeFrameCodeSamples(final OutputStream output) throws IOException {
+        writeFrames(output, createFixedFrameCodes(), new Random(1));
+        for (int seed = 2; seed < 6; seed++) {
+            Random random = new Random(seed);
+            writeFrames(output, createRandomFrameCodes(random), random);
+        }
+    }
+
+    /**
+     * Frame codes for typical video &amp; audio streams: fixed sizes, size classes, coded
+     * PTS and fallback with coded flags.
+     */
+    private static FrameCode[] createFixedFrameCodes() {
+        FrameCode[] result = invalidFrameCodes();
+        result[1] = frameCode(EnumSet.of(FrameCode.Flag.CODED_FLAGS), 0, 1, 0, 0);
+        // video
+        result[2] = frameCode(EnumSet.of(FrameCode.Flag.KEYFRAME, FrameCode.Flag.SIZE_MSB,
+                FrameCode.Flag.CODED_PTS), 0, 16, 0, 0);
+        result[3] = frameCode(EnumSet.of(FrameCode.Flag.SIZE_MSB), 0, 16, 3, 1);
+        result[4] = frameCode(EnumSet.of(FrameCode.Flag.SIZE_MSB), 0, 16, 5, 1);
+        result[5] = frameCode(EnumSet.of(FrameCode.Flag.SIZE_MSB, FrameCode.Flag.CHECKSUM),
+                0, 4, 1, 2);
+        result[6] = frameCode(EnumSet.of(FrameCode.Flag.CODED_PTS), 0, 1, 7, 0);
+        // audio
+        result[7] = frameCode(EnumSet.of(FrameCode.Flag.KEYFRAME), 1, 1, 32, 1);
+        result[8] = frameCode(EnumSet.of(FrameCode.Flag.KEYFRAME), 1, 1, 32, 2);
+        result[9] = frameCode(EnumSet.of(FrameCode.Flag.KEYFRAME, FrameCode.Flag.CHECKSUM),
+                1, 1, 32, 3);
+        result[10] = frameCode(EnumSet.of(FrameCode.Flag.KEYFRAME, FrameCode.Flag.SIZE_MSB),
+                1, 8, 0, 1);
+        // any stream
+        result[11] = frameCode(EnumSet.of(FrameCode.Flag.STREAM_ID, FrameCode.Flag.CODED_PTS),
+                1, 1, 12, 0);
+        result[12] = frameCode(EnumSet.of(FrameCode.Flag.CODED_FLAGS), 1, 1, 20, 2);
+        result[13] = frameCode(EnumSet.of(FrameCode.Flag.CODED_FLAGS), 0, 5, 2, 1);
+        return result;
+    }
+
+    private static FrameCode[] createRandomFrameCodes(final Random random) {
+        FrameCode.Flag[] fixedFlags = {FrameCode.Flag.KEYFRAME, FrameCode.Flag.CODED_PTS,
+                FrameCode.Flag.STREAM_ID, FrameCode.Flag.SIZE_MSB, FrameCode.Flag.CHECKSUM};
+        int[] multipliers = {1, 2, 3, 8, 16, 64};
+
+        FrameCode[] result = invalidFrameCodes();
+        result[1] = frameCode(EnumSet.of(FrameCode.Flag.CODED_FLAGS), 0, 1, 0, 0);
+        for (int i = 2; i < result.length; i++) {
+            if (i == 'N' || random.nextInt(10) == 0) {
+                continue;
+            }
+
+            Set<FrameCode.Flag> flags = EnumSet.noneOf(FrameCode.Flag.class);
+            if (random.nextInt(10) == 0) {
+                flags.add(FrameCode.Flag.CODED_FLAGS);
+            } else {
+                for (FrameCode.Flag flag : fixedFlags) {
+                    if (random.nextInt(3) == 0) {
+                        flags.add(flag);
+                    }
+                }
+            }
+
+            result[i] = frameCode(flags, random.nextInt(2),
+                    multipliers[random.nextInt(multipliers.length)], random.nextInt(41),
+                    random.nextInt(5));
+        }
+        return result;
+    }
+
+    private static void writeFrames(final OutputStream output, final FrameCode[] frameCodes,
+                                    final Random random) throws IOException {
+        NutWriter writer = new NutWriter(new NutOutputStream(output), 0);
+        writer.setMainHeader(2, 32, new Rational[] {new Rational(1, 1000)}, frameCodes);
+        writer.setStreamHeaders(new StreamHeader[] {
+                streamHeader(0, StreamHeader.Type.VIDEO),
+                streamHeader(1, StreamHeader.Type.AUDIO)
+        });
+        writer.setInfos(new Info[0]);
+
+        List<Integer> sizes = new ArrayList<>();
+        for (FrameCode frameCode : frameCodes) {
+            sizes.add(frameCode.dataSizeLsb);
+        }
+
+        long pts = 0;
+        for (int i = 0; i < 300; i++) {
+            pts += random.nextInt(4);
+            int streamId = random.nextInt(2);
+            boolean keyframe = streamId == 1 || random.nextInt(3) == 0;
+
+            final int size;
+            switch (random.nextInt(3)) {
+                case 0:
+                    size = random.nextInt(41);
+                    break;
+                case 1:
+                    size = sizes.get(random.nextInt(sizes.size()));
+                    break;
+                default:
+                    // data over 2 * maxDistance requires checksum
+                    size = random.nextInt(120);
+            }
+
+            byte[] data = new byte[size];
+            writer.writeFrame(new NutFrame(streamId, pts, data, new DataItem[0],
+                    new DataItem[0], keyframe, false));
+        }
+
+        writer.writeFooter();
+    }
+
+    private static FrameCode[] invalidFrameCodes() {
+        FrameCode[] result = new FrameCode[256];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = FrameCode.INVALID;
+        }
+        return result;
+    }
+
+    private static FrameCode frameCode(final Set<FrameCode.Flag> flags, final int streamId,
+                                       final int dataSizeMul, final int dataSizeLsb,
+                                       final long ptsDelta) {
+        return new FrameCode(flags, streamId, dataSizeMul, dataSizeLsb, ptsDelta, 0, 0, 0);
+    }
+
+    private static StreamHeader streamHeader(final int streamId, final StreamHeader.Type type) {
+        // max PTS distance of 6 requires checksum for some frames
+        return new StreamHeader(streamId, type, new byte[4], 0, 4, 6, 0,
+                EnumSet.noneOf(StreamHeader.Flag.class), new byte[0],
+                type == StreamHeader.Type.VIDEO
+                        ? new StreamHeader.Video(64, 48, 1, 1,
+                        StreamHeader.ColourspaceType.UNKNOWN)
+                        : null,
+                type == StreamHeader.Type.AUDIO
+                        ? new StreamHeader.Audio(new Rational(8000, 1), 1)
+                        : null);
+    }
+}
@@ -0,0 +1,97 @@
+package io.v47.jaffree.ffmpeg;
+
+import com.github.kokorin.jaffree.ffmpeg.FFmpegResult;
+import io.v47.jaffree.process.ProcessAccess;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FFmpegProcessHandlerTest {
+    private static final String PROGRESS_LINE = "[info] frame=  100 fps= 50 q=28.0 size=     256kB "
+            + "time=00:00:04.00 bitrate= 524.3kbits/s speed=2.01x";
+
+    @Test
+    public void filtersProgressLines() {
+        FFmpegProcessHandler handler = new FFmpegProcessHandler(null);
+
+        assertFalse(accepts(handler, PROGRESS_LINE));
+        assertFalse(accepts(handler, "frame=1 fps=0.0 q=0.0 size=0kB time=00:00:00.04 "
+                + "bitrate=N/A speed=N/A"));
+        assertTrue(accepts(handler, "[info] Stream mapping:"));
+        assertTrue(accepts(handler, "[info] frame rate changed, bitrate=128k"));
+        assertTrue(accepts(handler, "[info] video:1234kB audio:56kB subtitle:0kB "
+                + "other streams:0kB global headers:0kB muxing overhead: 0.500000%"));
+    }
+
+    @Test
+    public void dropsProgressLinesBeforeTheyReachListeners() throws Exception {
+        List<String> output = new ArrayList<>();
+        FFmpegProcessHandler handler =
+                new FFmpegProcessHandler((message, processAccess) -> output.add(message));
+        handler.setProcessAccess(new TestProcessAccess());
+
+        byte[] stderr = ("[info] Stream mapping:\n"
+                + PROGRESS_LINE + "\r"
+                + PROGRESS_LINE + "\r"
+                + "[info] video:1234kB audio:56kB subtitle:0kB other streams:0kB "
+                + "global headers:0kB muxing overhead: 0.500000%\n")
+                .getBytes(StandardCharsets.UTF_8);
+
+        for (int pos = 0; pos < stderr.length; pos += 7) {
+            int length = Math.min(7, stderr.length - pos);
+            handler.onStderr(ByteBuffer.wrap(stderr, pos, length), pos + length == stderr.length);
+        }
+
+        FFmpegResult result = (FFmpegResult) getResult(handler);
+
+        assertEquals(Collections.singletonList("Stream mapping:"), output);
+        assertEquals(1234L * 1024, (long) result.getVideoSize());
+    }
+
+    private static boolean accepts(final FFmpegProcessHandler handler, final String line) {
+        byte[] bytes = (line + "garbage").getBytes(StandardCharsets.UTF_8);
+        return handler.acceptStderrLine(bytes, bytes.length - "garbage".length());
+    }
+
+    /**
+     * getResult returns a kotlin.Result, which is only accessible through its mangled name.
+     */
+    private static Object getResult(final FFmpegProcessHandler handler) throws Exception {
+        for (Method method : FFmpegProcessHandler.class.getMethods()) {
+            if (method.getName().startsWith("getResult")) {
+                return method.invoke(handler, 0);
+            }
+        }
+
+        throw new NoSuchMethodException("getResult");
+    }
+
+    private static class TestProcessAccess implements ProcessAccess {
+        @Override
+        public String getCommandLine() {
+            return "ffmpeg";
+        }
+
+        @Override
+        public int getPid() {
+            return 1;
+        }
+
+        @Override
+        public void stopForcefully() {
+        }
+
+        @Override
+        public void stopGracefully() {
+        }
+    }
+}
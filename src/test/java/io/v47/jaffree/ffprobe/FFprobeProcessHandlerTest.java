@@ -0,0 +1,213 @@
+package io.v47.jaffree.ffprobe;
+
+import com.github.kokorin.jaffree.JaffreeException;
+import com.github.kokorin.jaffree.ffprobe.FFprobeResult;
+import com.github.kokorin.jaffree.ffprobe.data.FlatFormatParser;
+import com.github.kokorin.jaffree.ffprobe.data.FormatParser;
+import com.github.kokorin.jaffree.ffprobe.data.ProbeData;
+import com.github.kokorin.jaffree.process.ProcessHelper;
+import io.v47.jaffree.process.OptionalHelper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FFprobeProcessHandlerTest {
+    private static final String FLAT_OUTPUT =
+            "/com/github/kokorin/jaffree/ffprobe/data/ffprobe_out.flat";
+
+    @Test
+    public void parsesWhileProcessIsRunning() throws Exception {
+        FFprobeProcessHandler handler = new FFprobeProcessHandler(new FlatFormatParser());
+        ProcessHelper parserHelper = handler.getParserHelper();
+        assertTrue(parserHelper instanceof OptionalHelper);
+
+        CompletableFuture<Void> parsing = CompletableFuture.runAsync(parserHelper);
+
+        writeStdout(handler, flatOutput(), 13);
+        parsing.get(10, TimeUnit.SECONDS);
+
+        FFprobeResult result = (FFprobeResult) getResult(handler, 0);
+        assertEquals(2, result.getStreams().size());
+    }
+
+    @Test
+    public void parsesAfterExitIfParserHelperDidNotRun() throws Exception {
+        FFprobeProcessHandler handler = new FFprobeProcessHandler(new FlatFormatParser());
+
+        writeStdout(handler, flatOutput(), 4096);
+        handler.getParserHelper().close();
+
+        FFprobeResult result = (FFprobeResult) getResult(handler, 0);
+        assertEquals(2, result.getStreams().size());
+
+        // the parser has been claimed by getResult, a late helper must not parse again
+        handler.getParserHelper().run();
+    }
+
+    @Test
+    public void reportsParserFailure() throws Exception {
+        IllegalStateException failure = new IllegalStateException("broken");
+        FFprobeProcessHandler handler = new FFprobeProcessHandler(parser(input -> {
+            throw failure;
+        }));
+
+        CompletableFuture<Void> parsing = CompletableFuture.runAsync(handler.getParserHelper());
+        writeStdout(handler, flatOutput(), 100);
+        parsing.get(10, TimeUnit.SECONDS);
+
+        Throwable x = failureOf(getResult(handler, 0));
+        assertTrue(x instanceof JaffreeException);
+        assertSame(failure, x.getCause());
+    }
+
+    @Test
+    public void discardsOutputOnceParserIsDone() throws Exception {
+        AtomicInteger parsed = new AtomicInteger();
+        FFprobeProcessHandler handler = new FFprobeProcessHandler(parser(input -> {
+            try {
+                parsed.set(input.read());
+            } catch (IOException x) {
+                throw new UncheckedIOException(x);
+            }
+            return new FlatFormatParser().parse(new ByteArrayInputStream(new byte[0]));
+        }));
+
+        CompletableFuture<Void> parsing = CompletableFuture.runAsync(handler.getParserHelper());
+        handler.onStdout(ByteBuffer.wrap(new byte[]{7}), false);
+        parsing.get(10, TimeUnit.SECONDS);
+
+        // far more than the pipe capacity, nobody reads anymore
+        for (int i = 0; i < 64; i++) {
+            handler.onStdout(ByteBuffer.allocate(64 * 1024), false);
+        }
+        handler.onStdout(ByteBuffer.allocate(0), true);
+
+        assertEquals(7, parsed.get());
+        assertNull(failureOf(getResult(handler, 0)));
+    }
+
+    @Test
+    public void slowParserDoesNotStallOtherProbes() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicLong slowParsed = new AtomicLong();
+        FFprobeProcessHandler slow = new FFprobeProcessHandler(parser(input -> {
+            try {
+                release.await();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = input.read(buffer)) >= 0) {
+                    slowParsed.addAndGet(read);
+                }
+            } catch (IOException x) {
+                throw new UncheckedIOException(x);
+            } catch (InterruptedException x) {
+                throw new IllegalStateException(x);
+            }
+            return new FlatFormatParser().parse(new ByteArrayInputStream(new byte[0]));
+        }));
+        FFprobeProcessHandler fast = new FFprobeProcessHandler(new FlatFormatParser());
+
+        CompletableFuture<Void> slowParsing = CompletableFuture.runAsync(slow.getParserHelper());
+        CompletableFuture<Void> fastParsing = CompletableFuture.runAsync(fast.getParserHelper());
+
+        // a single thread delivers the output of both processes, as NuProcess does
+        byte[] fastOutput = flatOutput();
+        int chunks = 64;
+        CompletableFuture<Void> callbacks = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < chunks; i++) {
+                slow.onStdout(ByteBuffer.allocate(64 * 1024), false);
+            }
+            writeStdout(fast, fastOutput, 13);
+            slow.onStdout(ByteBuffer.allocate(0), true);
+        });
+
+        // far more than the pipe capacity is written while the slow parser doesn't read at all
+        callbacks.get(10, TimeUnit.SECONDS);
+        fastParsing.get(10, TimeUnit.SECONDS);
+
+        FFprobeResult result = (FFprobeResult) getResult(fast, 0);
+        assertEquals(2, result.getStreams().size());
+        assertFalse(slowParsing.isDone());
+
+        release.countDown();
+        slowParsing.get(10, TimeUnit.SECONDS);
+
+        assertNull(failureOf(getResult(slow, 0)));
+        assertEquals(chunks * 64L * 1024, slowParsed.get());
+    }
+
+    private static void writeStdout(final FFprobeProcessHandler handler,
+                                    final byte[] data,
+                                    final int chunkSize) {
+        ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+        for (int pos = 0; pos < data.length; pos += chunkSize) {
+            buffer.clear();
+            buffer.put(data, pos, Math.min(chunkSize, data.length - pos));
+            buffer.flip();
+
+            handler.onStdout(buffer, pos + chunkSize >= data.length);
+            assertEquals(0, buffer.remaining());
+        }
+    }
+
+    private static byte[] flatOutput() throws IOException {
+        Class<?> type = FFprobeProcessHandlerTest.class;
+        try (InputStream input = type.getResourceAsStream(FLAT_OUTPUT)) {
+            return input.readAllBytes();
+        }
+    }
+
+    private static FormatParser parser(final Function<InputStream, ProbeData> parse) {
+        return new FormatParser() {
+            @Override
+            public String getFormatName() {
+                return "test";
+            }
+
+            @Override
+            public ProbeData parse(final InputStream inputStream) {
+                return parse.apply(inputStream);
+            }
+        };
+    }
+
+    /**
+     * getResult returns a kotlin.Result, which is only accessible through its mangled name.
+     */
+    private static Object getResult(final FFprobeProcessHandler handler,
+                                    final int exitCode) throws Exception {
+        for (Method method : FFprobeProcessHandler.class.getMethods()) {
+            if (method.getName().startsWith("getResult")) {
+                return method.invoke(handler, exitCode);
+            }
+        }
+
+        throw new NoSuchMethodException("getResult");
+    }
+
+    private static Throwable failureOf(final Object result) throws Exception {
+        Class<?> failureClass = Class.forName("kotlin.Result$Failure");
+        if (!failureClass.isInstance(result)) {
+            return null;
+        }
+
+        return (Throwable) failureClass.getField("exception").get(result);
+    }
+}
@@ -0,0 +1,162 @@
+package io.v47.jaffree.ffprobe;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProbeDataPipeTest {
+
+    @Test
+    public void deliversChunksInOrderUntilFinished() throws Exception {
+        ProbeDataPipe pipe = new ProbeDataPipe(16);
+        pipe.attachReader();
+
+        CompletableFuture<byte[]> read = CompletableFuture.supplyAsync(() -> readAll(pipe));
+
+        for (int i = 0; i < 100; i++) {
+            pipe.write(ByteBuffer.wrap(new byte[]{(byte) i, (byte) (i + 1), (byte) (i + 2)}));
+        }
+        pipe.finish();
+
+        byte[] data = read.get(10, TimeUnit.SECONDS);
+        assertEquals(300, data.length);
+        for (int i = 0; i < 100; i++) {
+            assertEquals((byte) i, data[i * 3]);
+            assertEquals((byte) (i + 2), data[i * 3 + 2]);
+        }
+        assertEquals(-1, pipe.read());
+    }
+
+    @Test
+    public void consumesTheWrittenBuffer() {
+        ProbeDataPipe pipe = new ProbeDataPipe(16);
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{1, 2, 3, 4});
+        buffer.position(1);
+
+        pipe.write(buffer);
+        pipe.finish();
+
+        assertFalse(buffer.hasRemaining());
+        assertArrayEquals(new byte[]{2, 3, 4}, readAll(pipe));
+    }
+
+    @Test
+    public void buffersWithoutLimitWithoutReader() {
+        ProbeDataPipe pipe = new ProbeDataPipe(4);
+
+        for (int i = 0; i < 100; i++) {
+            pipe.write(ByteBuffer.wrap(new byte[10]));
+        }
+        pipe.finish();
+
+        assertEquals(1000, readAll(pipe).length);
+    }
+
+    @Test
+    public void neverBlocksWriterAndTracksGrowth() throws Exception {
+        ProbeDataPipe pipe = new ProbeDataPipe(8);
+        pipe.attachReader();
+
+        CompletableFuture<Void> write = CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < 10; i++) {
+                pipe.write(ByteBuffer.wrap(new byte[]{(byte) i, 0, 0, 0}));
+            }
+        });
+        write.get(10, TimeUnit.SECONDS);
+
+        assertEquals(40L, pipe.getBufferedBytes());
+        assertEquals(40L, pipe.getPeakBufferedBytes());
+
+        assertEquals(4, pipe.read(new byte[8], 0, 8));
+        assertEquals(36L, pipe.getBufferedBytes());
+        assertEquals(40L, pipe.getPeakBufferedBytes());
+
+        assertEquals(1, pipe.read());
+    }
+
+    @Test
+    public void closeDiscardsData() throws Exception {
+        ProbeDataPipe pipe = new ProbeDataPipe(8);
+        pipe.attachReader();
+        pipe.write(ByteBuffer.wrap(new byte[16]));
+
+        pipe.close();
+        assertEquals(0L, pipe.getBufferedBytes());
+
+        ByteBuffer pending = ByteBuffer.wrap(new byte[4]);
+        pipe.write(pending);
+
+        assertFalse(pending.hasRemaining());
+        assertEquals(0L, pipe.getBufferedBytes());
+        assertEquals(-1, pipe.read());
+    }
+
+    @Test
+    public void finishWakesBlockedReader() throws Exception {
+        ProbeDataPipe pipe = new ProbeDataPipe(8);
+        pipe.attachReader();
+
+        CompletableFuture<Integer> read = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pipe.read();
+            } catch (IOException x) {
+                throw new RuntimeException(x);
+            }
+        });
+        assertThrows(TimeoutException.class, () -> read.get(200, TimeUnit.MILLISECONDS));
+
+        pipe.finish();
+
+        assertEquals(-1, (int) read.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void keepsBufferedDataAfterFinish() throws Exception {
+        ProbeDataPipe pipe = new ProbeDataPipe(8);
+        pipe.write(ByteBuffer.wrap(new byte[]{1, 2}));
+        pipe.finish();
+        pipe.finish();
+        pipe.write(ByteBuffer.wrap(new byte[]{3}));
+
+        assertEquals(1, pipe.read());
+        assertEquals(1, pipe.available());
+        assertEquals(2, pipe.read());
+        assertEquals(-1, pipe.read());
+    }
+
+    @Test
+    public void interruptedReadThrows() throws Exception {
+        ProbeDataPipe pipe = new ProbeDataPipe(8);
+        Thread.currentThread().interrupt();
+
+        assertThrows(InterruptedIOException.class, pipe::read);
+        assertTrue(Thread.interrupted());
+    }
+
+    private static byte[] readAll(final ProbeDataPipe pipe) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[7];
+        try {
+            int count;
+            while ((count = pipe.read(buffer, 0, buffer.length)) >= 0) {
+                output.write(buffer, 0, count);
+            }
+        } catch (IOException x) {
+            throw new RuntimeException(x);
+        }
+
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,190 @@
+package io.v47.jaffree.process;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchExecutionTest {
+
+    @Test
+    public void completedJobsDontRecurse() throws Exception {
+        List<Supplier<ProcessFuture<Integer>>> jobs = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            final int index = i;
+            if (i % 2 == 0) {
+                jobs.add(() -> TestProcessFuture.failed(new IllegalStateException("job " + index)));
+            } else {
+                jobs.add(() -> TestProcessFuture.completed(index));
+            }
+        }
+
+        BatchExecution<Integer> batch = BatchExecution.start(jobs, new BatchOptions(1, false));
+        BatchResult<Integer> result = batch.getResult().get(30, TimeUnit.SECONDS);
+
+        assertEquals(50_000, result.getSucceeded());
+        assertEquals(50_000, result.getFailed());
+        assertEquals(99_999, (int) result.getResults().get(49_999));
+    }
+
+    @Test
+    public void failingSuppliersDontRecurse() throws Exception {
+        List<Supplier<ProcessFuture<Integer>>> jobs = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            jobs.add(() -> {
+                throw new IllegalStateException("Launch failed");
+            });
+        }
+
+        BatchExecution<Integer> batch = BatchExecution.start(jobs, new BatchOptions(2, false));
+        BatchResult<Integer> result = batch.getResult().get(30, TimeUnit.SECONDS);
+
+        assertEquals(100_000, result.getFailed());
+    }
+
+    @Test
+    public void iterationOrderMatchesResult() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Supplier<ProcessFuture<Integer>>> jobs = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                final int index = i;
+                jobs.add(() -> {
+                    TestProcessFuture<Integer> future = new TestProcessFuture<>();
+                    executor.execute(() -> future.complete(index));
+                    return future;
+                });
+            }
+
+            BatchExecution<Integer> batch =
+                    BatchExecution.start(jobs, new BatchOptions(8, false));
+
+            List<BatchCompletion<Integer>> iterated = new ArrayList<>();
+            for (BatchCompletion<Integer> completion : batch) {
+                iterated.add(completion);
+            }
+
+            BatchResult<Integer> result = batch.await();
+            assertEquals(result.getCompletions(), iterated);
+            assertEquals(500, result.getSucceeded());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void runsAtMostParallelismJobs() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            List<Supplier<ProcessFuture<Integer>>> jobs = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                final int index = i;
+                jobs.add(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    TestProcessFuture<Integer> future = new TestProcessFuture<>();
+                    executor.execute(() -> {
+                        sleep(2);
+                        running.decrementAndGet();
+                        future.complete(index);
+                    });
+                    return future;
+                });
+            }
+
+            BatchResult<Integer> result =
+                    BatchExecution.start(jobs, new BatchOptions(3, false)).await();
+
+            assertEquals(50, result.getSucceeded());
+            assertTrue(maxRunning.get() <= 3, "Max running: " + maxRunning.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void failFastCancelsRemainingJobs() throws Exception {
+        List<TestProcessFuture<Integer>> started = new ArrayList<>();
+        List<Supplier<ProcessFuture<Integer>>> jobs = new ArrayList<>();
+        jobs.add(() -> {
+            TestProcessFuture<Integer> future = new TestProcessFuture<>();
+            started.add(future);
+            return future;
+        });
+        jobs.add(() -> TestProcessFuture.failed(new IllegalStateException("Failed")));
+        for (int i = 0; i < 10; i++) {
+            jobs.add(() -> TestProcessFuture.completed(0));
+        }
+
+        BatchExecution<Integer> batch = BatchExecution.start(jobs, new BatchOptions(2, true));
+        BatchResult<Integer> result = batch.getResult().get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, started.size());
+        assertTrue(started.get(0).isCancelled());
+        assertEquals(0, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals(11, result.getCancelled());
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * {@link ProcessFuture} without a process.
+     */
+    private static class TestProcessFuture<T> extends CompletableFuture<T>
+            implements ProcessFuture<T> {
+
+        static <T> TestProcessFuture<T> completed(final T value) {
+            TestProcessFuture<T> future = new TestProcessFuture<>();
+            future.complete(value);
+            return future;
+        }
+
+        static <T> TestProcessFuture<T> failed(final Throwable x) {
+            TestProcessFuture<T> future = new TestProcessFuture<>();
+            future.completeExceptionally(x);
+            return future;
+        }
+
+        @Override
+        public ProcessAccess getProcessAccess() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public T get() {
+            try {
+                return super.get();
+            } catch (InterruptedException | ExecutionException x) {
+                throw new IllegalStateException(x);
+            }
+        }
+
+        @Override
+        public T get(final long timeout, final TimeUnit unit) {
+            try {
+                return super.get(timeout, unit);
+            } catch (InterruptedException | ExecutionException | TimeoutException x) {
+                throw new IllegalStateException(x);
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package io.v47.jaffree.process;
+
+import kotlin.Unit;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ExecutionGovernorTest {
+
+    @Test
+    public void queuesExecutionsExceedingMaxConcurrent() {
+        ExecutionGovernor governor = new ExecutionGovernor(2);
+        List<String> started = new ArrayList<>();
+
+        ExecutionGovernor.Ticket a = submit(governor, started, "a", null, 0);
+        submit(governor, started, "b", null, 0);
+        submit(governor, started, "c", null, 0);
+
+        assertEquals(Arrays.asList("a", "b"), started);
+        assertEquals(2, governor.getInFlightCount());
+        assertEquals(1, governor.getQueuedCount());
+
+        governor.release(a);
+
+        assertEquals(Arrays.asList("a", "b", "c"), started);
+        assertEquals(2, governor.getInFlightCount());
+        assertEquals(0, governor.getQueuedCount());
+    }
+
+    @Test
+    public void startsHigherPriorityFirstAndKeepsSubmissionOrder() {
+        ExecutionGovernor governor = new ExecutionGovernor(1);
+        List<String> started = new ArrayList<>();
+        Map<String, ExecutionGovernor.Ticket> tickets = new HashMap<>();
+
+        for (String name : Arrays.asList("running", "normal1", "high1", "low", "high2",
+                "normal2")) {
+            int priority = name.startsWith("high") ? 5 : name.equals("low") ? -1 : 0;
+            tickets.put(name, submit(governor, started, name, null, priority));
+        }
+
+        for (int i = 0; i < 5; i++) {
+            governor.release(tickets.get(started.get(i)));
+        }
+
+        assertEquals(Arrays.asList("running", "high1", "high2", "normal1", "normal2", "low"),
+                started);
+    }
+
+    @Test
+    public void tagLimitDoesNotBlockOtherTags() {
+        ExecutionGovernor governor = new ExecutionGovernor(3, Collections.singletonMap("x", 1));
+        List<String> started = new ArrayList<>();
+
+        ExecutionGovernor.Ticket x1 = submit(governor, started, "x1", "x", 0);
+        submit(governor, started, "x2", "x", 10);
+        submit(governor, started, "y1", "y", 0);
+        submit(governor, started, "untagged", null, 0);
+
+        assertEquals(Arrays.asList("x1", "y1", "untagged"), started);
+        assertEquals(1, governor.inFlightCount("x"));
+        assertEquals(1, governor.inFlightCount("y"));
+        assertEquals(1, governor.queuedCount("x"));
+        assertEquals(0, governor.queuedCount("y"));
+
+        governor.release(x1);
+
+        assertEquals(Arrays.asList("x1", "y1", "untagged", "x2"), started);
+        assertEquals(1, governor.inFlightCount("x"));
+        assertEquals(0, governor.queuedCount("x"));
+    }
+
+    @Test
+    public void releaseSkipsHigherPriorityTicketOfLimitedTag() {
+        ExecutionGovernor governor = new ExecutionGovernor(2, Collections.singletonMap("x", 1));
+        List<String> started = new ArrayList<>();
+
+        ExecutionGovernor.Ticket x1 = submit(governor, started, "x1", "x", 0);
+        ExecutionGovernor.Ticket y1 = submit(governor, started, "y1", "y", 0);
+        submit(governor, started, "x2", "x", 5);
+        submit(governor, started, "y2", "y", 0);
+
+        governor.release(y1);
+
+        assertEquals(Arrays.asList("x1", "y1", "y2"), started);
+        assertEquals(1, governor.queuedCount("x"));
+
+        governor.release(x1);
+
+        assertEquals(Arrays.asList("x1", "y1", "y2", "x2"), started);
+    }
+
+    @Test
+    public void cancelRemovesQueuedTicket() {
+        ExecutionGovernor governor = new ExecutionGovernor(1);
+        List<String> started = new ArrayList<>();
+
+        ExecutionGovernor.Ticket a = submit(governor, started, "a", null, 0);
+        ExecutionGovernor.Ticket b = submit(governor, started, "b", null, 0);
+
+        assertTrue(governor.cancel(b));
+        assertFalse(governor.cancel(b));
+        assertEquals(0, governor.getQueuedCount());
+
+        governor.release(a);
+
+        assertEquals(Collections.singletonList("a"), started);
+        assertEquals(0, governor.getInFlightCount());
+    }
+
+    @Test
+    public void cancelDoesNotRemoveAdmittedTicket() {
+        ExecutionGovernor governor = new ExecutionGovernor(1);
+        List<String> started = new ArrayList<>();
+
+        ExecutionGovernor.Ticket a = submit(governor, started, "a", "x", 0);
+
+        assertFalse(governor.cancel(a));
+        assertEquals(1, governor.getInFlightCount());
+
+        governor.release(a);
+        governor.release(a);
+
+        assertEquals(0, governor.getInFlightCount());
+        assertEquals(0, governor.inFlightCount("x"));
+    }
+
+    @Test
+    public void recordsWaitStatistics() throws Exception {
+        ExecutionGovernor governor = new ExecutionGovernor(1);
+        List<String> started = new ArrayList<>();
+
+        assertEquals(0L, governor.getAverageQueueWaitMillis());
+
+        ExecutionGovernor.Ticket a = submit(governor, started, "a", null, 0);
+        submit(governor, started, "b", null, 0);
+
+        assertEquals(1L, governor.getAdmittedCount());
+
+        Thread.sleep(100);
+        governor.release(a);
+
+        assertEquals(2L, governor.getAdmittedCount());
+        assertTrue(governor.getMaxQueueWaitMillis() >= 100);
+        assertTrue(governor.getAverageQueueWaitMillis() >= 50);
+        assertTrue(governor.getAverageQueueWaitMillis() <= governor.getMaxQueueWaitMillis());
+    }
+
+    @Test
+    public void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new ExecutionGovernor(0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ExecutionGovernor(1, Collections.singletonMap("x", 0)));
+    }
+
+    private static ExecutionGovernor.Ticket submit(final ExecutionGovernor governor,
+                                                   final List<String> started,
+                                                   final String name,
+                                                   final String tag,
+                                                   final int priority) {
+        return governor.submit(tag, priority, ticket -> {
+            started.add(name);
+            return Unit.INSTANCE;
+        });
+    }
+}
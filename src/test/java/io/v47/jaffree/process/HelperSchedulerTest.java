@@ -0,0 +1,223 @@
+package io.v47.jaffree.process;
+
+import com.github.kokorin.jaffree.JaffreeException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HelperSchedulerTest {
+
+    @Test
+    public void trySubmitRunsHelperIfSlotIsFree() throws Exception {
+        HelperScheduler scheduler = new HelperScheduler(1);
+        try {
+            CountDownLatch ran = new CountDownLatch(1);
+
+            Future<?> future = scheduler.trySubmit(ran::countDown);
+            assertNotNull(future);
+            future.get(10, TimeUnit.SECONDS);
+
+            assertEquals(0L, ran.getCount());
+            assertEquals(1, scheduler.getAvailableSlots());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void trySubmitSkipsHelperIfSaturated() throws Exception {
+        HelperScheduler scheduler = new HelperScheduler(1);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            Future<?> running = scheduler.trySubmit(() -> await(release));
+            assertNotNull(running);
+
+            assertNull(scheduler.trySubmit(() -> {
+            }));
+            assertEquals(0L, scheduler.getRejectedCount());
+
+            release.countDown();
+            running.get(10, TimeUnit.SECONDS);
+
+            assertNotNull(scheduler.trySubmit(() -> {
+            }));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void runsAllHelpersOfAnExecutionAtTheSameTime() throws Exception {
+        HelperScheduler scheduler = new HelperScheduler(3);
+        try {
+            CountDownLatch allRunning = new CountDownLatch(3);
+            Runnable helper = () -> {
+                allRunning.countDown();
+                await(allRunning);
+            };
+
+            List<Future<?>> futures =
+                    scheduler.submitAll("test", Arrays.asList(helper, helper, helper));
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+
+            assertEquals(3, scheduler.getAvailableSlots());
+            assertEquals(0, scheduler.getActiveCount());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void failsFastIfSaturated() throws Exception {
+        HelperScheduler scheduler = new HelperScheduler(2);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            List<Future<?>> running =
+                    scheduler.submitAll("running", Collections.nCopies(2, () -> await(release)));
+
+            long start = System.nanoTime();
+            assertThrows(JaffreeException.class,
+                    () -> scheduler.submitAll("test", Collections.singletonList(() -> {
+                    })));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+            assertEquals(1L, scheduler.getRejectedCount());
+
+            release.countDown();
+            for (Future<?> future : running) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+
+            assertEquals(2, scheduler.getAvailableSlots());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void rejectsMoreHelpersThanSlots() {
+        HelperScheduler scheduler = new HelperScheduler(2, 10_000);
+        try {
+            assertThrows(JaffreeException.class,
+                    () -> scheduler.submitAll("test", Collections.nCopies(3, () -> {
+                    })));
+            assertEquals(1L, scheduler.getRejectedCount());
+            assertEquals(2, scheduler.getAvailableSlots());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void waitsForSlotsUntilTimeout() throws Exception {
+        HelperScheduler scheduler = new HelperScheduler(1, 200);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            Future<?> running =
+                    scheduler.submitAll("running", Collections.singletonList(() -> await(release)))
+                            .get(0);
+
+            long start = System.nanoTime();
+            assertThrows(JaffreeException.class,
+                    () -> scheduler.submitAll("test", Collections.singletonList(() -> {
+                    })));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+            assertEquals(0, scheduler.getQueueDepth());
+
+            release.countDown();
+            running.get(10, TimeUnit.SECONDS);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void waitingExecutionGetsSlotsOnceReleased() throws Exception {
+        HelperScheduler scheduler = new HelperScheduler(1, 10_000);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            scheduler.submitAll("running", Collections.singletonList(() -> await(release)));
+
+            CompletableFuture<List<Future<?>>> waiting = CompletableFuture.supplyAsync(
+                    () -> scheduler.submitAll("test", Collections.singletonList(() -> {
+                    })));
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (scheduler.getQueueDepth() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(1, scheduler.getQueueDepth());
+
+            release.countDown();
+            waiting.get(10, TimeUnit.SECONDS).get(0).get(10, TimeUnit.SECONDS);
+
+            assertEquals(0, scheduler.getQueueDepth());
+            assertEquals(0L, scheduler.getRejectedCount());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void releasesSlotWhenHelperThrows() throws Exception {
+        HelperScheduler scheduler = new HelperScheduler(2);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            List<Future<?>> futures = scheduler.submitAll("test", Arrays.asList(
+                    () -> {
+                        throw new IllegalStateException("failed");
+                    },
+                    () -> await(release)));
+
+            ExecutionException x = assertThrows(ExecutionException.class,
+                    () -> futures.get(0).get(10, TimeUnit.SECONDS));
+            assertTrue(x.getCause() instanceof IllegalStateException);
+            assertEquals(1, scheduler.getAvailableSlots());
+
+            release.countDown();
+            futures.get(1).get(10, TimeUnit.SECONDS);
+
+            assertEquals(2, scheduler.getAvailableSlots());
+            assertEquals(0, scheduler.getActiveCount());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void releasesReservedSlotsIfSubmissionFails() {
+        HelperScheduler scheduler = new HelperScheduler(2);
+        scheduler.shutdown();
+
+        JaffreeException x = assertThrows(JaffreeException.class,
+                () -> scheduler.submitAll("test", Collections.nCopies(2, () -> {
+                })));
+
+        assertTrue(x.getCause() instanceof RejectedExecutionException);
+        assertEquals(2, scheduler.getAvailableSlots());
+        assertEquals(0L, scheduler.getRejectedCount());
+    }
+
+    static void await(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException x) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package io.v47.jaffree.process;
+
+import kotlin.Unit;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LineSplitterTest {
+
+    @Test
+    public void splitsOnCarriageReturnAndNewline() {
+        List<String> lines = new ArrayList<>();
+        LineSplitter splitter = splitter(lines);
+
+        splitter.feed(heap("one\ntwo\r\nthree\rfour\n\n\nfive"), false);
+        assertEquals(Arrays.asList("one", "two", "three", "four"), lines);
+
+        splitter.feed(heap(""), true);
+        assertEquals(Arrays.asList("one", "two", "three", "four", "five"), lines);
+    }
+
+    @Test
+    public void handlesCrLfSplitAcrossChunks() {
+        for (boolean direct : new boolean[]{false, true}) {
+            List<String> lines = new ArrayList<>();
+            LineSplitter splitter = splitter(lines);
+
+            splitter.feed(buffer("first\r", direct), false);
+            splitter.feed(buffer("\nsecond\r", direct), false);
+            splitter.feed(buffer("\n", direct), false);
+            splitter.feed(buffer("\r\n", direct), true);
+
+            assertEquals(Arrays.asList("first", "second"), lines);
+        }
+    }
+
+    @Test
+    public void decodesMultibyteCharactersSplitAcrossChunks() {
+        String text = "größe=12€ 😀 ok\nnächste Zeile\n";
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        for (boolean direct : new boolean[]{false, true}) {
+            for (int split = 1; split < bytes.length; split++) {
+                List<String> lines = new ArrayList<>();
+                LineSplitter splitter = splitter(lines);
+
+                splitter.feed(buffer(bytes, 0, split, direct), false);
+                splitter.feed(buffer(bytes, split, bytes.length - split, direct), true);
+
+                assertEquals(Arrays.asList("größe=12€ 😀 ok", "nächste Zeile"), lines);
+            }
+        }
+    }
+
+    @Test
+    public void producesSameLinesForHeapAndDirectBuffers() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("line ").append(i).append(i % 3 == 0 ? "\r\n" : i % 3 == 1 ? "\r" : "\n");
+        }
+        byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+
+        List<String> heapLines = new ArrayList<>();
+        List<String> directLines = new ArrayList<>();
+        LineSplitter heapSplitter = splitter(heapLines);
+        LineSplitter directSplitter = splitter(directLines);
+
+        int pos = 0;
+        int chunk = 1;
+        while (pos < bytes.length) {
+            int length = Math.min(chunk, bytes.length - pos);
+            heapSplitter.feed(buffer(bytes, pos, length, false), false);
+            directSplitter.feed(buffer(bytes, pos, length, true), false);
+
+            pos += length;
+            chunk = chunk % 17 + 1;
+        }
+
+        assertEquals(200, heapLines.size());
+        assertEquals("line 199", heapLines.get(199));
+        assertEquals(heapLines, directLines);
+    }
+
+    @Test
+    public void respectsPositionLimitAndArrayOffset() {
+        List<String> lines = new ArrayList<>();
+        LineSplitter splitter = splitter(lines);
+
+        byte[] bytes = "xxxxabc\ndefyyyy".getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer slice = ByteBuffer.wrap(bytes, 2, 11).slice();
+        slice.position(2);
+        slice.limit(9);
+
+        splitter.feed(slice, true);
+
+        assertEquals(Arrays.asList("abc", "def"), lines);
+        assertFalse(slice.hasRemaining());
+    }
+
+    @Test
+    public void consumesDirectBuffer() {
+        List<String> lines = new ArrayList<>();
+        ByteBuffer buffer = direct("abc\nd");
+
+        splitter(lines).feed(buffer, false);
+
+        assertFalse(buffer.hasRemaining());
+        assertEquals(Collections.singletonList("abc"), lines);
+    }
+
+    @Test
+    public void growsForLongLines() {
+        StringBuilder longLine = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            longLine.append((char) ('a' + i % 26));
+        }
+
+        for (boolean direct : new boolean[]{false, true}) {
+            List<String> lines = new ArrayList<>();
+            LineSplitter splitter = splitter(lines);
+
+            splitter.feed(buffer(longLine.substring(0, 100), direct), false);
+            splitter.feed(buffer(longLine.substring(100) + "\nshort\n", direct), false);
+
+            assertEquals(Arrays.asList(longLine.toString(), "short"), lines);
+        }
+    }
+
+    @Test
+    public void filterSeesRawBytesAndSkipsDecoding() {
+        List<String> lines = new ArrayList<>();
+        List<String> filtered = new ArrayList<>();
+        LineSplitter splitter = new LineSplitter((bytes, length) -> {
+            filtered.add(new String(bytes, 0, length, StandardCharsets.UTF_8));
+            return !LineSplitterKt.containsAscii(bytes, length, "skip");
+        }, line -> {
+            lines.add(line);
+            return Unit.INSTANCE;
+        });
+
+        splitter.feed(heap("keep me\nplease skip me\nkeep"), false);
+        splitter.feed(heap(" too\rskip\r"), true);
+
+        assertEquals(Arrays.asList("keep me", "please skip me", "keep too", "skip"), filtered);
+        assertEquals(Arrays.asList("keep me", "keep too"), lines);
+    }
+
+    @Test
+    public void containsAsciiOnlySearchesValidBytes() {
+        byte[] bytes = "frame=  10 bitrate=N/A".getBytes(StandardCharsets.US_ASCII);
+
+        assertTrue(LineSplitterKt.containsAscii(bytes, bytes.length, "frame="));
+        assertTrue(LineSplitterKt.containsAscii(bytes, bytes.length, "bitrate=N/A"));
+        assertFalse(LineSplitterKt.containsAscii(bytes, bytes.length, "speed="));
+        assertFalse(LineSplitterKt.containsAscii(bytes, 10, "bitrate="));
+        assertFalse(LineSplitterKt.containsAscii(bytes, 3, "frame="));
+        assertTrue(LineSplitterKt.containsAscii(bytes, 0, ""));
+    }
+
+    private static LineSplitter splitter(final List<String> lines) {
+        return new LineSplitter((bytes, length) -> true, line -> {
+            lines.add(line);
+            return Unit.INSTANCE;
+        });
+    }
+
+    private static ByteBuffer heap(final String value) {
+        return buffer(value, false);
+    }
+
+    private static ByteBuffer direct(final String value) {
+        return buffer(value, true);
+    }
+
+    private static ByteBuffer buffer(final String value, final boolean direct) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return buffer(bytes, 0, bytes.length, direct);
+    }
+
+    private static ByteBuffer buffer(final byte[] bytes,
+                                     final int offset,
+                                     final int length,
+                                     final boolean direct) {
+        if (!direct) {
+            return ByteBuffer.wrap(bytes, offset, length);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(length);
+        buffer.put(bytes, offset, length);
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,180 @@
+package io.v47.jaffree.process;
+
+import com.github.kokorin.jaffree.LogLevel;
+import com.github.kokorin.jaffree.log.LogMessage;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LogGateTest {
+
+    @Test
+    public void collapsesRepeatedMessages() {
+        List<String> logged = new ArrayList<>();
+        Logger logger = recordingLogger(logged);
+        LogGate gate = new LogGate(new LogCapturePolicy(10, true, 0, 0));
+
+        gate.log(logger, LogLevel.INFO, "first");
+        gate.log(logger, LogLevel.INFO, "first");
+        gate.log(logger, LogLevel.INFO, "first");
+        gate.log(logger, LogLevel.WARNING, "first");
+        gate.log(logger, LogLevel.ERROR, "second");
+        gate.log(logger, LogLevel.ERROR, "second");
+        gate.finish(logger);
+
+        assertEquals(Arrays.asList(
+                "info: first",
+                "info: Last message repeated 2 times",
+                "warn: first",
+                "error: second",
+                "error: Last message repeated 1 times"
+        ), logged);
+    }
+
+    @Test
+    public void keepsRepeatedMessagesIfNotDeduplicating() {
+        List<String> logged = new ArrayList<>();
+        Logger logger = recordingLogger(logged);
+        LogGate gate = new LogGate(new LogCapturePolicy(10, false, 0, 0));
+
+        gate.log(logger, LogLevel.DEBUG, "same");
+        gate.log(logger, LogLevel.DEBUG, "same");
+        gate.finish(logger);
+
+        assertEquals(Arrays.asList("debug: same", "debug: same"), logged);
+    }
+
+    @Test
+    public void defaultPolicyKeepsRepeatedMessages() {
+        List<String> logged = new ArrayList<>();
+        Logger logger = recordingLogger(logged);
+        LogGate gate = new LogGate(LogCapturePolicy.DEFAULT);
+        ErrorLogBuffer buffer = new ErrorLogBuffer(LogCapturePolicy.DEFAULT);
+
+        for (int i = 0; i < 3; i++) {
+            gate.log(logger, LogLevel.ERROR, "same");
+            buffer.add(LogLevel.ERROR, "same");
+        }
+        gate.finish(logger);
+
+        assertEquals(Arrays.asList("error: same", "error: same", "error: same"), logged);
+        assertEquals(3, buffer.toList().size());
+    }
+
+    @Test
+    public void reportsSuppressedMessagesOnFinish() {
+        List<String> logged = new ArrayList<>();
+        Logger logger = recordingLogger(logged);
+        LogGate gate = new LogGate(new LogCapturePolicy(10, true, 2, 0));
+
+        for (int i = 0; i < 5; i++) {
+            gate.log(logger, LogLevel.INFO, "message " + i);
+        }
+        assertEquals(Arrays.asList("info: message 0", "info: message 1"), logged);
+
+        gate.finish(logger);
+        assertEquals(Arrays.asList(
+                "info: message 0",
+                "info: message 1",
+                "warn: Log rate limit of 2 messages per second exceeded, 3 messages suppressed"
+        ), logged);
+
+        // summary is logged only once
+        gate.finish(logger);
+        assertEquals(3, logged.size());
+    }
+
+    @Test
+    public void samplesSuppressedMessages() {
+        List<String> logged = new ArrayList<>();
+        Logger logger = recordingLogger(logged);
+        LogGate gate = new LogGate(new LogCapturePolicy(10, true, 1, 3));
+
+        for (int i = 0; i < 8; i++) {
+            gate.log(logger, LogLevel.INFO, "message " + i);
+        }
+        gate.finish(logger);
+
+        assertEquals(Arrays.asList(
+                "info: message 0",
+                "info: message 3",
+                "info: message 6",
+                "warn: Log rate limit of 1 messages per second exceeded, 7 messages suppressed"
+        ), logged);
+    }
+
+    @Test
+    public void errorLogBufferKeepsMostRecentMessages() {
+        ErrorLogBuffer buffer = new ErrorLogBuffer(new LogCapturePolicy(2, true, 0, 0));
+
+        buffer.add(LogLevel.ERROR, "a");
+        buffer.add(LogLevel.ERROR, "b");
+        buffer.add(LogLevel.ERROR, "b");
+        buffer.add(LogLevel.WARNING, "b");
+        buffer.add(LogLevel.WARNING, "b");
+        buffer.add(LogLevel.WARNING, "b");
+
+        List<LogMessage> messages = buffer.toList();
+        assertEquals(2, messages.size());
+        assertEquals(LogLevel.ERROR, messages.get(0).logLevel);
+        assertEquals("b", messages.get(0).message);
+        assertEquals(2, messages.get(0).count);
+        assertEquals(LogLevel.WARNING, messages.get(1).logLevel);
+        assertEquals("b", messages.get(1).message);
+        assertEquals(3, messages.get(1).count);
+    }
+
+    @Test
+    public void errorLogBufferWithoutDeduplication() {
+        ErrorLogBuffer buffer = new ErrorLogBuffer(new LogCapturePolicy(3, false, 0, 0));
+
+        for (int i = 0; i < 4; i++) {
+            buffer.add(LogLevel.ERROR, "same");
+        }
+
+        List<LogMessage> messages = buffer.toList();
+        assertEquals(3, messages.size());
+        for (LogMessage message : messages) {
+            assertEquals(1, message.count);
+        }
+    }
+
+    @Test
+    public void errorLogBufferDisabled() {
+        ErrorLogBuffer buffer = new ErrorLogBuffer(new LogCapturePolicy(0, true, 0, 0));
+
+        buffer.add(LogLevel.ERROR, "error");
+
+        assertEquals(0, buffer.toList().size());
+    }
+
+    /**
+     * Creates a logger which records "level: formatted message" for every logged message.
+     */
+    private static Logger recordingLogger(final List<String> logged) {
+        return (Logger) Proxy.newProxyInstance(
+                LogGateTest.class.getClassLoader(),
+                new Class<?>[] {Logger.class},
+                (proxy, method, args) -> {
+                    if (method.getReturnType() == boolean.class) {
+                        return true;
+                    }
+                    if (args == null || !(args[0] instanceof String)) {
+                        return null;
+                    }
+
+                    String message = (String) args[0];
+                    for (int i = 1; i < args.length; i++) {
+                        message = message.replaceFirst("\\{}", String.valueOf(args[i]));
+                    }
+                    logged.add(method.getName() + ": " + message);
+                    return null;
+                });
+    }
+}
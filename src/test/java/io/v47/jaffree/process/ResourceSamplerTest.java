@@ -0,0 +1,124 @@
+package io.v47.jaffree.process;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ResourceSamplerTest {
+    private static final String STAT =
+            "4242 (ffmpeg) S 4200 4242 4200 34816 4242 4194304 1524 0 0 0 317 42 0 0 20 0 "
+                    + "5 0 123456 274726912 13371 18446744073709551615 1 1 0 0 0 0 0 4096 "
+                    + "0 0 0 0 17 3 0 0 0 0 0\n";
+
+    private static final String STATUS = "Name:\tffmpeg\n"
+            + "Umask:\t0022\n"
+            + "State:\tS (sleeping)\n"
+            + "VmPeak:\t  301516 kB\n"
+            + "VmSize:\t  268288 kB\n"
+            + "VmHWM:\t   61340 kB\n"
+            + "VmRSS:\t   53484 kB\n"
+            + "Threads:\t5\n";
+
+    private static final String IO = "rchar: 1932476\n"
+            + "wchar: 10453\n"
+            + "syscr: 388\n"
+            + "syscw: 47\n"
+            + "read_bytes: 73728\n"
+            + "write_bytes: 8192\n"
+            + "cancelled_write_bytes: 0\n";
+
+    @Test
+    public void parsesCpuTicksFromStat() {
+        byte[] stat = bytes(STAT);
+
+        assertEquals(317L, ResourceSamplerKt.statField(stat, stat.length,
+                ResourceSamplerKt.STAT_UTIME_INDEX));
+        assertEquals(42L, ResourceSamplerKt.statField(stat, stat.length,
+                ResourceSamplerKt.STAT_STIME_INDEX));
+    }
+
+    @Test
+    public void parsesStatWithSpacesAndParenthesesInProcessName() {
+        byte[] stat = bytes(STAT.replace("(ffmpeg)", "(ff) mpeg (1) x)"));
+
+        assertEquals(317L, ResourceSamplerKt.statField(stat, stat.length,
+                ResourceSamplerKt.STAT_UTIME_INDEX));
+        assertEquals(42L, ResourceSamplerKt.statField(stat, stat.length,
+                ResourceSamplerKt.STAT_STIME_INDEX));
+    }
+
+    @Test
+    public void parsesOnlyTheReadPartOfTheBuffer() {
+        byte[] stat = bytes(STAT);
+        byte[] buffer = new byte[8192];
+        System.arraycopy(stat, 0, buffer, 0, stat.length);
+        buffer[stat.length] = ')';
+
+        assertEquals(317L, ResourceSamplerKt.statField(buffer, stat.length,
+                ResourceSamplerKt.STAT_UTIME_INDEX));
+    }
+
+    @Test
+    public void returnsMinusOneForMalformedStat() {
+        byte[] noComm = bytes("4242 ffmpeg S 4200");
+        byte[] truncated = bytes("4242 (ffmpeg) S 4200 4242");
+
+        assertEquals(-1L, ResourceSamplerKt.statField(noComm, noComm.length,
+                ResourceSamplerKt.STAT_UTIME_INDEX));
+        assertEquals(-1L, ResourceSamplerKt.statField(truncated, truncated.length,
+                ResourceSamplerKt.STAT_UTIME_INDEX));
+        assertEquals(-1L, ResourceSamplerKt.statField(truncated, -1,
+                ResourceSamplerKt.STAT_UTIME_INDEX));
+    }
+
+    @Test
+    public void parsesStatusValues() {
+        byte[] status = bytes(STATUS);
+
+        assertEquals(53484L, ResourceSamplerKt.valueOf(status, status.length, "VmRSS:"));
+        assertEquals(61340L, ResourceSamplerKt.valueOf(status, status.length, "VmHWM:"));
+        assertEquals(-1L, ResourceSamplerKt.valueOf(status, status.length, "VmSwap:"));
+        assertEquals(-1L, ResourceSamplerKt.valueOf(status, -1, "VmRSS:"));
+    }
+
+    @Test
+    public void parsesIoValues() {
+        byte[] io = bytes(IO);
+
+        assertEquals(73728L, ResourceSamplerKt.valueOf(io, io.length, "read_bytes:"));
+        // must not match cancelled_write_bytes
+        assertEquals(8192L, ResourceSamplerKt.valueOf(io, io.length, "write_bytes:"));
+    }
+
+    @Test
+    public void resourceUsageDefaultsToNull() {
+        ProcessAccess processAccess = new ProcessAccess() {
+            @Override
+            public String getCommandLine() {
+                return "ffmpeg";
+            }
+
+            @Override
+            public int getPid() {
+                return 1;
+            }
+
+            @Override
+            public void stopForcefully() {
+            }
+
+            @Override
+            public void stopGracefully() {
+            }
+        };
+
+        assertNull(processAccess.getResourceUsage());
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
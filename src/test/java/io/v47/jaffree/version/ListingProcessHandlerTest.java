@@ -0,0 +1,118 @@
+package io.v47.jaffree.version;
+
+import kotlin.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ListingProcessHandlerTest {
+
+    @Test
+    public void collectsStdoutLines() throws Exception {
+        byte[] output = resource("ffmpeg_encoders.txt");
+
+        ListingProcessHandler handler = new ListingProcessHandler();
+        for (int pos = 0; pos < output.length; pos += 10) {
+            int length = Math.min(10, output.length - pos);
+            handler.onStdout(ByteBuffer.wrap(output, pos, length), pos + length == output.length);
+        }
+
+        assertEquals(lines("ffmpeg_encoders.txt"), getResult(handler));
+    }
+
+    @Test
+    public void parsesEncoders() throws Exception {
+        Set<String> encoders = ListingProcessHandlerKt.parseCodecListing(
+                lines("ffmpeg_encoders.txt"));
+
+        assertEquals(setOf("a64multi", "a64multi5", "alias_pix", "amv", "libx264", "libx264rgb",
+                "h264_v4l2m2m", "mpeg4", "aac", "ac3", "libmp3lame", "libopus", "pcm_s16le",
+                "ass", "mov_text", "webvtt"), encoders);
+    }
+
+    @Test
+    public void parsesDecoders() throws Exception {
+        Set<String> decoders = ListingProcessHandlerKt.parseCodecListing(
+                lines("ffmpeg_decoders.txt"));
+
+        assertEquals(setOf("012v", "4xm", "h264", "h264_v4l2m2m", "hevc", "png", "aac",
+                "mp3float", "opus", "pcm_s16le", "subrip"), decoders);
+    }
+
+    @Test
+    public void parsesPixelFormats() throws Exception {
+        Set<String> pixelFormats = ListingProcessHandlerKt.parseCodecListing(
+                lines("ffmpeg_pix_fmts.txt"));
+
+        assertEquals(setOf("yuv420p", "yuyv422", "rgb24", "bgr24", "gray", "monow", "monob",
+                "pal8", "vaapi", "nv12"), pixelFormats);
+    }
+
+    @Test
+    public void parsesFilters() throws Exception {
+        Set<String> filters = ListingProcessHandlerKt.parseFilterListing(
+                lines("ffmpeg_filters.txt"));
+
+        assertEquals(setOf("abench", "acompressor", "amix", "anull", "volume", "anullsrc",
+                "anullsink", "concat", "scale", "split", "color", "nullsink", "showwaves"),
+                filters);
+    }
+
+    @Test
+    public void parsesProtocols() throws Exception {
+        Pair<Set<String>, Set<String>> protocols = ListingProcessHandlerKt.parseProtocolListing(
+                lines("ffmpeg_protocols.txt"));
+
+        assertEquals(setOf("async", "cache", "concat", "file", "http", "https", "pipe", "rtmp",
+                "tcp"), protocols.getFirst());
+        assertEquals(setOf("file", "http", "https", "icecast", "pipe", "rtmp", "tcp"),
+                protocols.getSecond());
+    }
+
+    @Test
+    public void parsesEmptyListings() {
+        List<String> empty = Collections.emptyList();
+
+        assertEquals(setOf(), ListingProcessHandlerKt.parseCodecListing(empty));
+        assertEquals(setOf(), ListingProcessHandlerKt.parseFilterListing(empty));
+        assertEquals(setOf(), ListingProcessHandlerKt.parseProtocolListing(empty).getFirst());
+    }
+
+    private static Set<String> setOf(final String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+    private static byte[] resource(final String name) throws IOException {
+        try (InputStream input = ListingProcessHandlerTest.class.getResourceAsStream(name)) {
+            return input.readAllBytes();
+        }
+    }
+
+    private static List<String> lines(final String name) throws IOException {
+        return Arrays.asList(new String(resource(name), StandardCharsets.UTF_8).split("\n"));
+    }
+
+    /**
+     * getResult returns a kotlin.Result, which is only accessible through its mangled name.
+     */
+    private static Object getResult(final ListingProcessHandler handler) throws Exception {
+        for (Method method : ListingProcessHandler.class.getMethods()) {
+            if (method.getName().startsWith("getResult")) {
+                return method.invoke(handler, 0);
+            }
+        }
+
+        throw new NoSuchMethodException("getResult");
+    }
+}